@@ -12,8 +12,12 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -25,6 +29,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.openhab.binding.knx.internal.dpt.KNXCoreTypeMapper;
 import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
 import org.openhab.core.thing.ThingUID;
@@ -64,6 +69,7 @@ import tuwien.auto.calimero.process.ProcessListener;
 public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClient {
 
     private static final int MAX_SEND_ATTEMPTS = 2;
+    private static final String DISPATCH_POOL_NAME = "knx.dispatch";
 
     private final Logger logger = LoggerFactory.getLogger(AbstractKNXClient.class);
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
@@ -75,6 +81,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
     private final ScheduledExecutorService knxScheduler;
+    // telegrams are passed to the listeners without the overhead of the scheduler
+    private final ExecutorService knxDispatcher = ThreadPoolManager.getPool(DISPATCH_POOL_NAME);
 
     private @Nullable ProcessCommunicator processCommunicator;
     private @Nullable ProcessCommunicationResponder responseCommunicator;
@@ -85,11 +93,14 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
 
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
+    // the group addresses of each listener, as registered
+    private final Map<GroupAddressListener, Set<GroupAddress>> groupAddressListeners = new HashMap<>();
+    // the listeners of each group address, read for every telegram without locking
+    private final Map<GroupAddress, Set<GroupAddressListener>> groupAddressIndex = new ConcurrentHashMap<>();
     private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
 
     @FunctionalInterface
-    private interface ListenerNotification {
+    interface ListenerNotification {
         void apply(BusMessageListener listener, IndividualAddress source, GroupAddress destination, byte[] asdu);
     }
 
@@ -252,9 +263,18 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
+        dispatch(source, destination, asdu, action);
+    }
+
+    // Visible for testing
+    void dispatch(IndividualAddress source, GroupAddress destination, byte[] asdu, ListenerNotification action) {
+        Set<GroupAddressListener> listeners = groupAddressIndex.get(destination);
+        if (listeners == null) {
+            return;
+        }
+        for (GroupAddressListener listener : listeners) {
             if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+                knxDispatcher.execute(() -> action.apply(listener, source, destination, asdu));
             }
         }
     }
@@ -378,12 +398,52 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     @Override
     public final boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.add(listener);
+        Set<GroupAddress> groupAddresses = Set.copyOf(listener.getGroupAddresses());
+        synchronized (groupAddressListeners) {
+            Set<GroupAddress> previousGroupAddresses = groupAddressListeners.put(listener, groupAddresses);
+            if (previousGroupAddresses != null) {
+                removeFromIndex(listener, previousGroupAddresses);
+            }
+            for (GroupAddress groupAddress : groupAddresses) {
+                groupAddressIndex.computeIfAbsent(groupAddress, k -> new CopyOnWriteArraySet<>()).add(listener);
+            }
+            return previousGroupAddresses == null;
+        }
     }
 
     @Override
     public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.remove(listener);
+        synchronized (groupAddressListeners) {
+            Set<GroupAddress> groupAddresses = groupAddressListeners.remove(listener);
+            if (groupAddresses == null) {
+                return false;
+            }
+            removeFromIndex(listener, groupAddresses);
+            return true;
+        }
+    }
+
+    // Visible for testing
+    Set<GroupAddressListener> getIndexedListeners(GroupAddress groupAddress) {
+        Set<GroupAddressListener> listeners = groupAddressIndex.get(groupAddress);
+        return listeners == null ? Set.of() : Set.copyOf(listeners);
+    }
+
+    // Visible for testing
+    boolean isIndexed(GroupAddress groupAddress) {
+        return groupAddressIndex.containsKey(groupAddress);
+    }
+
+    private void removeFromIndex(GroupAddressListener listener, Set<GroupAddress> groupAddresses) {
+        for (GroupAddress groupAddress : groupAddresses) {
+            Set<GroupAddressListener> listeners = groupAddressIndex.get(groupAddress);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    groupAddressIndex.remove(groupAddress);
+                }
+            }
+        }
     }
 
     @Override
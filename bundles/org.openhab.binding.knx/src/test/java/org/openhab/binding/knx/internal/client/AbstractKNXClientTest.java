@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+import org.openhab.core.thing.ThingUID;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+
+/**
+ * Tests the group address listener index of the {@link AbstractKNXClient}.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class AbstractKNXClientTest {
+
+    private static final GroupAddress GA_1 = new GroupAddress(1, 2, 1);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 2, 2);
+    private static final GroupAddress GA_3 = new GroupAddress(1, 2, 3);
+    private static final IndividualAddress SOURCE = new IndividualAddress(1, 1, 1);
+    private static final byte[] ASDU = new byte[] { 1 };
+    private static final long DISPATCH_TIMEOUT_MILLIS = 1000;
+
+    private @NonNullByDefault({}) AbstractKNXClient client;
+
+    @BeforeEach
+    public void setUp() {
+        client = new AbstractKNXClient(0, new ThingUID("knx:ip:test"), 0, 0, 0, mock(ScheduledExecutorService.class),
+                mock(StatusUpdateCallback.class)) {
+            @Override
+            protected KNXNetworkLink establishConnection() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private GroupAddressListener listener(GroupAddress... groupAddresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(Set.of(groupAddresses));
+        when(listener.listensTo(any())).thenAnswer(i -> listener.getGroupAddresses().contains(i.getArgument(0)));
+        return listener;
+    }
+
+    @Test
+    public void testRegister() {
+        GroupAddressListener listener1 = listener(GA_1, GA_2);
+        GroupAddressListener listener2 = listener(GA_2);
+
+        assertThat(client.registerGroupAddressListener(listener1), is(true));
+        assertThat(client.registerGroupAddressListener(listener2), is(true));
+
+        assertThat(client.getIndexedListeners(GA_1), is(Set.of(listener1)));
+        assertThat(client.getIndexedListeners(GA_2), is(Set.of(listener1, listener2)));
+        assertThat(client.isIndexed(GA_3), is(false));
+    }
+
+    @Test
+    public void testReRegisterWithChangedAddresses() {
+        GroupAddressListener listener = listener(GA_1, GA_2);
+        client.registerGroupAddressListener(listener);
+
+        when(listener.getGroupAddresses()).thenReturn(Set.of(GA_2, GA_3));
+        assertThat(client.registerGroupAddressListener(listener), is(false));
+
+        assertThat(client.isIndexed(GA_1), is(false));
+        assertThat(client.getIndexedListeners(GA_2), is(Set.of(listener)));
+        assertThat(client.getIndexedListeners(GA_3), is(Set.of(listener)));
+    }
+
+    @Test
+    public void testReRegisterKeepsOtherListeners() {
+        GroupAddressListener listener1 = listener(GA_1);
+        GroupAddressListener listener2 = listener(GA_1);
+        client.registerGroupAddressListener(listener1);
+        client.registerGroupAddressListener(listener2);
+
+        when(listener1.getGroupAddresses()).thenReturn(Set.of(GA_2));
+        client.registerGroupAddressListener(listener1);
+
+        assertThat(client.getIndexedListeners(GA_1), is(Set.of(listener2)));
+        assertThat(client.getIndexedListeners(GA_2), is(Set.of(listener1)));
+    }
+
+    @Test
+    public void testUnregister() {
+        GroupAddressListener listener1 = listener(GA_1, GA_2);
+        GroupAddressListener listener2 = listener(GA_2);
+        client.registerGroupAddressListener(listener1);
+        client.registerGroupAddressListener(listener2);
+
+        assertThat(client.unregisterGroupAddressListener(listener1), is(true));
+
+        assertThat(client.isIndexed(GA_1), is(false));
+        assertThat(client.getIndexedListeners(GA_2), is(Set.of(listener2)));
+
+        assertThat(client.unregisterGroupAddressListener(listener2), is(true));
+        assertThat(client.isIndexed(GA_2), is(false));
+        assertThat(client.unregisterGroupAddressListener(listener2), is(false));
+    }
+
+    @Test
+    public void testDispatchOnlyToIndexedListeners() {
+        GroupAddressListener listener1 = listener(GA_1);
+        GroupAddressListener listener2 = listener(GA_2);
+        GroupAddressListener unregistered = listener(GA_1);
+        client.registerGroupAddressListener(listener1);
+        client.registerGroupAddressListener(listener2);
+
+        client.dispatch(SOURCE, GA_1, ASDU, (listener, source, destination, asdu) -> {
+            listener.onGroupWrite(client, source, destination, asdu);
+        });
+
+        verify(listener1, timeout(DISPATCH_TIMEOUT_MILLIS)).onGroupWrite(client, SOURCE, GA_1, ASDU);
+        verify(listener2, after(100).never()).onGroupWrite(any(), any(), any(), any());
+        verify(unregistered, never()).onGroupWrite(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testNoDispatchAfterUnregister() {
+        GroupAddressListener listener = listener(GA_1);
+        client.registerGroupAddressListener(listener);
+        client.unregisterGroupAddressListener(listener);
+
+        client.dispatch(SOURCE, GA_1, ASDU, (l, source, destination, asdu) -> {
+            l.onGroupWrite(client, source, destination, asdu);
+        });
+
+        verify(listener, after(100).never()).onGroupWrite(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.client.KNXClient;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Channel;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.ChannelBuilder;
+import org.openhab.core.thing.type.ChannelTypeUID;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Tests the {@link DeviceThingHandler}.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class DeviceThingHandlerTest {
+
+    private static final ThingUID BRIDGE_UID = new ThingUID("knx:ip:bridge");
+    private static final ThingUID THING_UID = new ThingUID("knx:device:bridge:device");
+
+    @Test
+    public void testGroupAddressesAreKnownWhenRegistering() {
+        Channel channel = ChannelBuilder.create(new ChannelUID(THING_UID, "light"), "Switch")
+                .withType(new ChannelTypeUID("knx", "switch"))
+                .withConfiguration(new Configuration(Map.of("ga", "1/2/3+<1/2/4"))).build();
+        Thing thing = mock(Thing.class);
+        when(thing.getUID()).thenReturn(THING_UID);
+        when(thing.getBridgeUID()).thenReturn(BRIDGE_UID);
+        when(thing.getChannels()).thenReturn(List.of(channel));
+        when(thing.getConfiguration()).thenReturn(new Configuration(Map.of("readInterval", BigDecimal.ZERO)));
+
+        Set<GroupAddress> registeredGroupAddresses = new HashSet<>();
+        KNXClient client = mock(KNXClient.class);
+        when(client.isConnected()).thenReturn(true);
+        when(client.registerGroupAddressListener(any())).thenAnswer(i -> {
+            registeredGroupAddresses.addAll(i.<GroupAddressListener> getArgument(0).getGroupAddresses());
+            return true;
+        });
+        KNXBridgeBaseThingHandler bridgeHandler = mock(KNXBridgeBaseThingHandler.class);
+        when(bridgeHandler.getClient()).thenReturn(client);
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getHandler()).thenReturn(bridgeHandler);
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class);
+        when(callback.getBridge(BRIDGE_UID)).thenReturn(bridge);
+
+        DeviceThingHandler handler = new DeviceThingHandler(thing);
+        handler.setCallback(callback);
+        handler.initialize();
+
+        verify(client).registerGroupAddressListener(handler);
+        assertThat(registeredGroupAddresses, is(Set.of(new GroupAddress(1, 2, 3), new GroupAddress(1, 2, 4))));
+    }
+}
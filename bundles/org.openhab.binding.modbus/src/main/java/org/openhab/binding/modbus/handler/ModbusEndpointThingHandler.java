@@ -14,6 +14,7 @@ package org.openhab.binding.modbus.handler;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner;
 import org.openhab.core.common.registry.Identifiable;
 import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
 import org.openhab.core.thing.ThingUID;
@@ -50,4 +51,13 @@ public interface ModbusEndpointThingHandler extends Identifiable<ThingUID> {
      * @return boolean true if the discovery is enabled
      */
     public boolean isDiscoveryEnabled();
+
+    /**
+     * Get the planner merging the regular polls of this endpoint
+     *
+     * @return the poll planner, or <code>null</code> if polls are not merged
+     */
+    public default @Nullable ModbusPollPlanner getPollPlanner() {
+        return null;
+    }
 }
@@ -15,6 +15,7 @@ package org.openhab.binding.modbus.handler;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -22,6 +23,8 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.modbus.internal.AtomicStampedValue;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner.PlannedPoll;
 import org.openhab.binding.modbus.internal.config.ModbusPollerConfiguration;
 import org.openhab.binding.modbus.internal.handler.ModbusDataThingHandler;
 import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
@@ -189,6 +192,8 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
     private @NonNullByDefault({}) ModbusPollerConfiguration config;
     private long cacheMillis;
     private volatile @Nullable PollTask pollTask;
+    private volatile @Nullable ModbusPollPlanner pollPlanner;
+    private volatile @Nullable PlannedPoll plannedPoll;
     private volatile @Nullable ModbusReadRequestBlueprint request;
     private volatile boolean disposed;
     private volatile List<ModbusDataThingHandler> childCallbacks = new CopyOnWriteArrayList<>();
@@ -199,6 +204,9 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
 
     private @Nullable ModbusReadFunctionCode functionCode;
 
+    private final AtomicLong processedDataUpdates = new AtomicLong();
+    private final AtomicLong skippedDataUpdates = new AtomicLong();
+
     public ModbusPollerThingHandler(Bridge bridge) {
         super(bridge);
     }
@@ -289,7 +297,8 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
 
     @Override
     public synchronized void dispose() {
-        logger.debug("dispose()");
+        logger.debug("dispose(), data updates processed: {}, skipped as unchanged: {}", processedDataUpdates.get(),
+                skippedDataUpdates.get());
         // Mark handler as disposed as soon as possible to halt processing of callbacks
         disposed = true;
         unregisterPollTask();
@@ -313,7 +322,15 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
             logger.debug("Unregistering polling from ModbusManager");
             comms.unregisterRegularPoll(localPollTask);
         }
+        ModbusPollPlanner localPollPlanner = this.pollPlanner;
+        PlannedPoll localPlannedPoll = this.plannedPoll;
+        if (localPollPlanner != null && localPlannedPoll != null) {
+            logger.debug("Unregistering polling from the poll planner of the endpoint");
+            localPollPlanner.unregisterRegularPoll(localPlannedPoll);
+        }
         this.pollTask = null;
+        this.pollPlanner = null;
+        this.plannedPoll = null;
         request = null;
         comms = null;
         updateStatus(ThingStatus.OFFLINE);
@@ -328,7 +345,7 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
     @SuppressWarnings("null")
     private synchronized void registerPollTask() throws EndpointNotInitializedException {
         logger.trace("registerPollTask()");
-        if (pollTask != null) {
+        if (pollTask != null || plannedPoll != null) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR);
             logger.debug("pollTask should be unregistered before registering a new one!");
             return;
@@ -362,10 +379,19 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
             logger.debug("Not registering polling with ModbusManager since refresh disabled");
             updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, "Not polling");
         } else {
-            logger.debug("Registering polling with ModbusManager");
-            pollTask = localComms.registerRegularPoll(localRequest, config.getRefresh(), 0, callbackDelegator,
-                    callbackDelegator);
-            assert pollTask != null;
+            ModbusPollPlanner localPollPlanner = slaveEndpointThingHandler.getPollPlanner();
+            if (localPollPlanner != null) {
+                // the planner may merge the request with the requests of other pollers of the endpoint
+                logger.debug("Registering polling with the poll planner of the endpoint");
+                pollPlanner = localPollPlanner;
+                plannedPoll = localPollPlanner.registerRegularPoll(localRequest, config.getRefresh(),
+                        callbackDelegator, callbackDelegator);
+            } else {
+                logger.debug("Registering polling with ModbusManager");
+                pollTask = localComms.registerRegularPoll(localRequest, config.getRefresh(), 0, callbackDelegator,
+                        callbackDelegator);
+                assert pollTask != null;
+            }
             updateStatus(ThingStatus.ONLINE);
         }
     }
@@ -464,4 +490,35 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
     public AtomicReference<@Nullable ModbusRegisterArray> getLastPolledDataCache() {
         return lastPolledDataCache;
     }
+
+    /**
+     * Count a poll result handled by a child data thing
+     *
+     * @param skipped true if the data of the child thing had not changed and was not processed
+     */
+    public void countDataUpdate(boolean skipped) {
+        if (skipped) {
+            skippedDataUpdates.incrementAndGet();
+        } else {
+            processedDataUpdates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get number of poll results processed by the child data things
+     *
+     * @return number of processed updates
+     */
+    public long getProcessedDataUpdateCount() {
+        return processedDataUpdates.get();
+    }
+
+    /**
+     * Get number of poll results skipped by the child data things, since their data had not changed
+     *
+     * @return number of skipped updates
+     */
+    public long getSkippedDataUpdateCount() {
+        return skippedDataUpdates.get();
+    }
 }
@@ -0,0 +1,329 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusConstants;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.PollTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the regular polls of an endpoint. Polls with the same function code, slave id, poll period and maximum tries
+ * are merged into one request when their address ranges are adjacent or at most <code>maxGap</code> registers (or
+ * bits) apart, up to the maximum length allowed by the protocol. The response of a merged request is sliced and
+ * passed to the callbacks of every poll as if it had been polled on its own.
+ *
+ * The polls of a group are planned again whenever a poll is registered or unregistered.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPollPlanner {
+
+    /**
+     * Regular poll registered with the planner
+     */
+    public static class PlannedPoll {
+        private final ModbusReadRequestBlueprint request;
+        private final long pollPeriodMillis;
+        private final ModbusReadCallback resultCallback;
+        private final ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback;
+
+        private PlannedPoll(ModbusReadRequestBlueprint request, long pollPeriodMillis,
+                ModbusReadCallback resultCallback, ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback) {
+            this.request = request;
+            this.pollPeriodMillis = pollPeriodMillis;
+            this.resultCallback = resultCallback;
+            this.failureCallback = failureCallback;
+        }
+
+        public ModbusReadRequestBlueprint getRequest() {
+            return request;
+        }
+
+        private int getStart() {
+            return request.getReference();
+        }
+
+        private int getEnd() {
+            return request.getReference() + request.getDataLength();
+        }
+    }
+
+    /**
+     * Properties which must be equal for polls to be merged
+     */
+    private static class GroupKey {
+        private final int slaveId;
+        private final ModbusReadFunctionCode functionCode;
+        private final long pollPeriodMillis;
+        private final int maxTries;
+
+        private GroupKey(PlannedPoll poll) {
+            this.slaveId = poll.request.getUnitID();
+            this.functionCode = poll.request.getFunctionCode();
+            this.pollPeriodMillis = poll.pollPeriodMillis;
+            this.maxTries = poll.request.getMaxTries();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slaveId, functionCode, pollPeriodMillis, maxTries);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return slaveId == other.slaveId && functionCode == other.functionCode
+                    && pollPeriodMillis == other.pollPeriodMillis && maxTries == other.maxTries;
+        }
+
+        @Override
+        public String toString() {
+            return "GroupKey(slaveId=" + slaveId + ", functionCode=" + functionCode + ", pollPeriodMillis="
+                    + pollPeriodMillis + ", maxTries=" + maxTries + ")";
+        }
+    }
+
+    /**
+     * Request polled on the wire, covering the requests of one or more planned polls
+     */
+    private class MergedPoll {
+        private final ModbusReadRequestBlueprint request;
+        private final List<PlannedPoll> members;
+        private @Nullable PollTask task;
+
+        private MergedPoll(ModbusReadRequestBlueprint request, List<PlannedPoll> members) {
+            this.request = request;
+            this.members = members;
+        }
+
+        private void handleResult(AsyncModbusReadResult result) {
+            Optional<ModbusRegisterArray> registers = result.getRegisters();
+            Optional<BitArray> bits = result.getBits();
+            for (PlannedPoll member : members) {
+                int offset = member.getStart() - request.getReference();
+                int length = member.request.getDataLength();
+                AsyncModbusReadResult slice;
+                if (registers.isPresent()) {
+                    byte[] bytes = registers.get().getBytes();
+                    if ((offset + length) * 2 > bytes.length) {
+                        logger.debug("Response {} too short for request {}, skipping", result, member.request);
+                        continue;
+                    }
+                    slice = new AsyncModbusReadResult(member.request,
+                            new ModbusRegisterArray(Arrays.copyOfRange(bytes, offset * 2, (offset + length) * 2)));
+                } else if (bits.isPresent()) {
+                    BitArray allBits = bits.get();
+                    if (offset + length > allBits.size()) {
+                        logger.debug("Response {} too short for request {}, skipping", result, member.request);
+                        continue;
+                    }
+                    BitArray memberBits = new BitArray(length);
+                    for (int i = 0; i < length; i++) {
+                        memberBits.setBit(i, allBits.getBit(offset + i));
+                    }
+                    slice = new AsyncModbusReadResult(member.request, memberBits);
+                } else {
+                    continue;
+                }
+                try {
+                    member.resultCallback.handle(slice);
+                } catch (RuntimeException e) {
+                    logger.warn("Error handling the response of request {}: {}", member.request, e.getMessage(), e);
+                }
+            }
+        }
+
+        private void handleFailure(AsyncModbusFailure<ModbusReadRequestBlueprint> failure) {
+            for (PlannedPoll member : members) {
+                try {
+                    member.failureCallback.handle(new AsyncModbusFailure<>(member.request, failure.getCause()));
+                } catch (RuntimeException e) {
+                    logger.warn("Error handling the failure of request {}: {}", member.request, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusPollPlanner.class);
+
+    private final ModbusCommunicationInterface comms;
+    private final int maxGap;
+    private final Map<GroupKey, List<PlannedPoll>> polls = new HashMap<>();
+    private final Map<GroupKey, List<MergedPoll>> mergedPolls = new HashMap<>();
+    private boolean disposed;
+
+    /**
+     * @param comms communication interface of the endpoint
+     * @param maxGap maximum number of registers (or bits) between two requests which are merged
+     */
+    public ModbusPollPlanner(ModbusCommunicationInterface comms, int maxGap) {
+        this.comms = comms;
+        this.maxGap = Math.max(0, maxGap);
+    }
+
+    /**
+     * Register a regular poll, merged with other polls if possible
+     *
+     * @param request request to poll
+     * @param pollPeriodMillis poll period in milliseconds
+     * @param resultCallback callback receiving the data of the request
+     * @param failureCallback callback receiving the errors of the request
+     * @return the registered poll
+     */
+    public synchronized PlannedPoll registerRegularPoll(ModbusReadRequestBlueprint request, long pollPeriodMillis,
+            ModbusReadCallback resultCallback, ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback) {
+        PlannedPoll poll = new PlannedPoll(request, pollPeriodMillis, resultCallback, failureCallback);
+        GroupKey key = new GroupKey(poll);
+        polls.computeIfAbsent(key, k -> new ArrayList<>()).add(poll);
+        replan(key);
+        return poll;
+    }
+
+    /**
+     * Unregister a regular poll. No-op if the poll is not registered.
+     *
+     * @param poll the poll to unregister
+     */
+    public synchronized void unregisterRegularPoll(PlannedPoll poll) {
+        GroupKey key = new GroupKey(poll);
+        List<PlannedPoll> group = polls.get(key);
+        if (group == null || !group.remove(poll)) {
+            return;
+        }
+        if (group.isEmpty()) {
+            polls.remove(key);
+        }
+        replan(key);
+    }
+
+    /**
+     * Unregister all polls from the communication interface
+     */
+    public synchronized void dispose() {
+        disposed = true;
+        mergedPolls.values().forEach(merged -> merged.forEach(this::unregister));
+        mergedPolls.clear();
+        polls.clear();
+    }
+
+    /**
+     * Get the requests polled on the wire
+     *
+     * @return requests of all merged polls
+     */
+    public synchronized List<ModbusReadRequestBlueprint> getPolledRequests() {
+        List<ModbusReadRequestBlueprint> requests = new ArrayList<>();
+        mergedPolls.values().forEach(merged -> merged.forEach(poll -> requests.add(poll.request)));
+        return requests;
+    }
+
+    private void replan(GroupKey key) {
+        List<MergedPoll> previous = mergedPolls.remove(key);
+        if (previous != null) {
+            previous.forEach(this::unregister);
+        }
+        List<PlannedPoll> group = polls.get(key);
+        if (disposed || group == null) {
+            return;
+        }
+        List<MergedPoll> merged = merge(key, group);
+        for (MergedPoll poll : merged) {
+            if (poll.members.size() == 1) {
+                // nothing to slice, the callbacks receive the data directly
+                PlannedPoll member = poll.members.get(0);
+                poll.task = comms.registerRegularPoll(member.request, key.pollPeriodMillis, 0, member.resultCallback,
+                        member.failureCallback);
+            } else {
+                poll.task = comms.registerRegularPoll(poll.request, key.pollPeriodMillis, 0, poll::handleResult,
+                        poll::handleFailure);
+            }
+        }
+        mergedPolls.put(key, merged);
+        logger.debug("Polls of {} planned: {} requests polled as {}", key, group.size(), merged.size());
+    }
+
+    private List<MergedPoll> merge(GroupKey key, List<PlannedPoll> group) {
+        int maxLength = key.functionCode == ModbusReadFunctionCode.READ_COILS
+                || key.functionCode == ModbusReadFunctionCode.READ_INPUT_DISCRETES
+                        ? ModbusConstants.MAX_BITS_READ_COUNT
+                        : ModbusConstants.MAX_REGISTERS_READ_COUNT;
+        List<PlannedPoll> sorted = new ArrayList<>(group);
+        sorted.sort(Comparator.comparingInt(PlannedPoll::getStart));
+
+        List<MergedPoll> merged = new ArrayList<>();
+        List<PlannedPoll> members = new ArrayList<>();
+        int start = 0;
+        int end = 0;
+        for (PlannedPoll poll : sorted) {
+            if (!members.isEmpty() && poll.getStart() <= end + maxGap
+                    && Math.max(end, poll.getEnd()) - start <= maxLength) {
+                members.add(poll);
+                end = Math.max(end, poll.getEnd());
+                continue;
+            }
+            if (!members.isEmpty()) {
+                merged.add(newMergedPoll(key, start, end, members));
+            }
+            members = new ArrayList<>();
+            members.add(poll);
+            start = poll.getStart();
+            end = poll.getEnd();
+        }
+        if (!members.isEmpty()) {
+            merged.add(newMergedPoll(key, start, end, members));
+        }
+        return merged;
+    }
+
+    private MergedPoll newMergedPoll(GroupKey key, int start, int end, List<PlannedPoll> members) {
+        return new MergedPoll(
+                new ModbusReadRequestBlueprint(key.slaveId, key.functionCode, start, end - start, key.maxTries),
+                members);
+    }
+
+    private void unregister(MergedPoll poll) {
+        PollTask task = poll.task;
+        if (task != null) {
+            comms.unregisterRegularPoll(task);
+            poll.task = null;
+        }
+    }
+}
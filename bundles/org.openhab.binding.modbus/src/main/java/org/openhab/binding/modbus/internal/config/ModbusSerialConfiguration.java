@@ -38,6 +38,7 @@ public class ModbusSerialConfiguration {
     private int connectMaxTries = 1;
     private int connectTimeoutMillis = 10_000;
     private boolean enableDiscovery;
+    private int coalescePollsMaxGap = -1;
 
     public @Nullable String getPort() {
         return port;
@@ -158,4 +159,12 @@ public class ModbusSerialConfiguration {
     public void setDiscoveryEnabled(boolean enableDiscovery) {
         this.enableDiscovery = enableDiscovery;
     }
+
+    public int getCoalescePollsMaxGap() {
+        return coalescePollsMaxGap;
+    }
+
+    public void setCoalescePollsMaxGap(int coalescePollsMaxGap) {
+        this.coalescePollsMaxGap = coalescePollsMaxGap;
+    }
 }
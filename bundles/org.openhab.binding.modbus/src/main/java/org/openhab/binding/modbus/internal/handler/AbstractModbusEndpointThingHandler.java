@@ -17,6 +17,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.modbus.handler.EndpointNotInitializedException;
 import org.openhab.binding.modbus.handler.ModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner;
 import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
 import org.openhab.core.io.transport.modbus.ModbusManager;
 import org.openhab.core.io.transport.modbus.endpoint.EndpointPoolConfiguration;
@@ -46,8 +47,11 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
     protected volatile @Nullable E endpoint;
     protected ModbusManager modbusManager;
     protected volatile @NonNullByDefault({}) EndpointPoolConfiguration poolConfiguration;
+    /* maximum gap between merged polls, negative to poll every request on its own */
+    protected volatile int coalescePollsMaxGap = -1;
     private final Logger logger = LoggerFactory.getLogger(AbstractModbusEndpointThingHandler.class);
     private @NonNullByDefault({}) ModbusCommunicationInterface comms;
+    private volatile @Nullable ModbusPollPlanner pollPlanner;
 
     public AbstractModbusEndpointThingHandler(Bridge bridge, ModbusManager modbusManager) {
         super(bridge);
@@ -76,6 +80,7 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
                 }
                 try {
                     comms = modbusManager.newModbusCommunicationInterface(endpoint, poolConfiguration);
+                    pollPlanner = coalescePollsMaxGap >= 0 ? new ModbusPollPlanner(comms, coalescePollsMaxGap) : null;
                     updateStatus(ThingStatus.ONLINE);
                 } catch (IllegalArgumentException e) {
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
@@ -93,6 +98,11 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
 
     @Override
     public void dispose() {
+        ModbusPollPlanner localPollPlanner = pollPlanner;
+        if (localPollPlanner != null) {
+            localPollPlanner.dispose();
+            pollPlanner = null;
+        }
         try {
             ModbusCommunicationInterface localComms = comms;
             if (localComms != null) {
@@ -110,6 +120,11 @@ public abstract class AbstractModbusEndpointThingHandler<E extends ModbusSlaveEn
         return comms;
     }
 
+    @Override
+    public @Nullable ModbusPollPlanner getPollPlanner() {
+        return pollPlanner;
+    }
+
     @Nullable
     public E getEndpoint() {
         return endpoint;
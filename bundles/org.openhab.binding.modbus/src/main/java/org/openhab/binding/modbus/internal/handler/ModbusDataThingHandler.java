@@ -17,6 +17,7 @@ import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -94,6 +95,9 @@ import org.slf4j.LoggerFactory;
  * synchronized
  * to avoid data race conditions.
  *
+ * The polled data of this thing is remembered. Polls returning the same data skip the conversion and transformation
+ * until the channels need the update configured with updateUnchangedValuesEveryMillis.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @NonNullByDefault
@@ -151,6 +155,8 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    private volatile byte @Nullable [] lastReadData;
+    private volatile long lastReadDataProcessedMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -177,6 +183,8 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 // There is no data to update
                 return;
             }
+            // The refreshed data must be processed even if it has not changed
+            lastReadData = null;
             // We *schedule* the REFRESH to avoid dead-lock situation where poller is trying update this
             // data thing with cached data (resulting in deadlock in two synchronized methods: this (handleCommand) and
             // onRegisters.
@@ -484,6 +492,8 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        lastReadData = null;
+        lastReadDataProcessedMillis = 0;
     }
 
     @Override
@@ -838,6 +848,14 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
+        // registers of the value, e.g. 2 registers with 32bit types and the register containing the 8bit value
+        int registerIndex = readIndex.get() - pollStart;
+        int registerCount = Math.max(1, readValueType.getBits() / 16);
+        byte[] bytes = registers.getBytes();
+        if ((registerIndex + registerCount) * 2 <= bytes.length
+                && isUnchangedReadData(bytes, registerIndex * 2, (registerIndex + registerCount) * 2)) {
+            return;
+        }
         numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
                 .map(state -> (State) state).orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
@@ -855,6 +873,9 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (isUnchangedReadData(new byte[] { (byte) (boolValue ? 1 : 0) }, 0, 1)) {
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -862,6 +883,41 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 thing.getUID(), values, readValueType, readIndex, numericState, boolValue, bits, request);
     }
 
+    /**
+     * Checks whether the polled data of this thing is the same as with the last processed poll, and the channels do
+     * not need to be updated with unchanged values yet. In that case only the thing status and the last read success
+     * channel are updated. Otherwise the data is remembered for the next poll.
+     *
+     * @param data polled data
+     * @param from index of the first byte of this thing
+     * @param to index after the last byte of this thing
+     * @return true if the data has not changed and does not need to be processed
+     */
+    private boolean isUnchangedReadData(byte[] data, int from, int to) {
+        long now = System.currentTimeMillis();
+        byte[] localLastReadData = lastReadData;
+        boolean unchanged = localLastReadData != null && updateUnchangedValuesEveryMillis > 0L
+                && now - lastReadDataProcessedMillis <= updateUnchangedValuesEveryMillis
+                && Arrays.equals(localLastReadData, 0, localLastReadData.length, data, from, to);
+        ModbusPollerThingHandler localPollerHandler = pollerHandler;
+        if (localPollerHandler != null) {
+            localPollerHandler.countDataUpdate(unchanged);
+        }
+        if (unchanged) {
+            logger.trace("Thing {} polled data has not changed, skipping channel updates", thing.getUID());
+            updateStatusIfChanged(ThingStatus.ONLINE);
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            if (isLinked(lastReadSuccessUID)) {
+                tryUpdateState(lastReadSuccessUID, new DateTimeType());
+                channelLastUpdated.put(lastReadSuccessUID, now);
+            }
+        } else {
+            lastReadData = Arrays.copyOfRange(data, from, to);
+            lastReadDataProcessedMillis = now;
+        }
+        return unchanged;
+    }
+
     private synchronized void onError(ModbusReadRequestBlueprint request, Exception error) {
         if (hasConfigurationError()) {
             return;
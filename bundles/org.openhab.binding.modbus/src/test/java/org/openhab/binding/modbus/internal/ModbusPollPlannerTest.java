@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner.PlannedPoll;
+import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.PollTask;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPollPlannerTest {
+
+    private @NonNullByDefault({}) ModbusCommunicationInterface comms;
+    private final List<AsyncModbusReadResult> results = new ArrayList<>();
+    private final List<AsyncModbusFailure<ModbusReadRequestBlueprint>> failures = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        comms = mock(ModbusCommunicationInterface.class);
+        doAnswer(invocation -> mock(PollTask.class)).when(comms).registerRegularPoll(any(), anyLong(), anyLong(),
+                any(), any());
+    }
+
+    private PlannedPoll register(ModbusPollPlanner planner, ModbusReadFunctionCode functionCode, int start,
+            int length, long refresh) {
+        return planner.registerRegularPoll(new ModbusReadRequestBlueprint(1, functionCode, start, length, 3), refresh,
+                results::add, failures::add);
+    }
+
+    private List<ModbusReadRequestBlueprint> polledRequests(ModbusPollPlanner planner) {
+        List<ModbusReadRequestBlueprint> requests = planner.getPolledRequests();
+        requests.sort(Comparator.comparingInt(ModbusReadRequestBlueprint::getReference));
+        return requests;
+    }
+
+    @Test
+    public void testAdjacentAndGapPollsAreMerged() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 2);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 3, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 7, 1, 1000);
+        // gap of 3 registers is too large
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 11, 1, 1000);
+
+        List<ModbusReadRequestBlueprint> requests = polledRequests(planner);
+        assertEquals(2, requests.size());
+        assertEquals(0, requests.get(0).getReference());
+        assertEquals(8, requests.get(0).getDataLength());
+        assertEquals(11, requests.get(1).getReference());
+        assertEquals(1, requests.get(1).getDataLength());
+    }
+
+    @Test
+    public void testDifferentRefreshOrFunctionCodeIsNotMerged() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, 500);
+        register(planner, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 4, 2, 1000);
+
+        assertEquals(3, planner.getPolledRequests().size());
+    }
+
+    @Test
+    public void testMaximumLengthIsRespected() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 100, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 25, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 125, 1, 1000);
+
+        List<ModbusReadRequestBlueprint> requests = polledRequests(planner);
+        assertEquals(2, requests.size());
+        assertEquals(125, requests.get(0).getDataLength());
+        assertEquals(125, requests.get(1).getReference());
+    }
+
+    @Test
+    public void testRegistersAreSliced() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 1);
+        PlannedPoll first = register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2, 1000);
+        PlannedPoll second = register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 13, 1, 1000);
+
+        ArgumentCaptor<ModbusReadRequestBlueprint> request = ArgumentCaptor.forClass(ModbusReadRequestBlueprint.class);
+        ArgumentCaptor<ModbusReadCallback> callback = ArgumentCaptor.forClass(ModbusReadCallback.class);
+        verify(comms, atLeastOnce()).registerRegularPoll(request.capture(), eq(1000L), eq(0L), callback.capture(),
+                any());
+        assertEquals(4, request.getValue().getDataLength());
+
+        callback.getValue().handle(new AsyncModbusReadResult(request.getValue(),
+                new ModbusRegisterArray(new byte[] { 0, 1, 0, 2, 0, 3, 0, 4 })));
+
+        assertEquals(2, results.size());
+        assertSame(first.getRequest(), results.get(0).getRequest());
+        assertArrayEquals(new byte[] { 0, 1, 0, 2 }, results.get(0).getRegisters().get().getBytes());
+        assertSame(second.getRequest(), results.get(1).getRequest());
+        assertArrayEquals(new byte[] { 0, 4 }, results.get(1).getRegisters().get().getBytes());
+    }
+
+    @Test
+    public void testBitsAreSliced() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0);
+        register(planner, ModbusReadFunctionCode.READ_COILS, 0, 2, 1000);
+        register(planner, ModbusReadFunctionCode.READ_COILS, 2, 2, 1000);
+
+        ArgumentCaptor<ModbusReadRequestBlueprint> request = ArgumentCaptor.forClass(ModbusReadRequestBlueprint.class);
+        ArgumentCaptor<ModbusReadCallback> callback = ArgumentCaptor.forClass(ModbusReadCallback.class);
+        verify(comms, atLeastOnce()).registerRegularPoll(request.capture(), anyLong(), anyLong(), callback.capture(),
+                any());
+        BitArray bits = new BitArray(4);
+        bits.setBit(1, true);
+        bits.setBit(2, true);
+        callback.getValue().handle(new AsyncModbusReadResult(request.getValue(), bits));
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).getBits().get().getBit(0));
+        assertTrue(results.get(0).getBits().get().getBit(1));
+        assertTrue(results.get(1).getBits().get().getBit(0));
+        assertFalse(results.get(1).getBits().get().getBit(1));
+    }
+
+    @Test
+    public void testFailureIsPassedToAllPolls() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1, 1000);
+
+        ArgumentCaptor<ModbusReadRequestBlueprint> request = ArgumentCaptor.forClass(ModbusReadRequestBlueprint.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ModbusFailureCallback<ModbusReadRequestBlueprint>> callback = ArgumentCaptor
+                .forClass(ModbusFailureCallback.class);
+        verify(comms, atLeastOnce()).registerRegularPoll(request.capture(), anyLong(), anyLong(), any(),
+                callback.capture());
+        Exception error = new Exception("timeout");
+        callback.getValue().handle(new AsyncModbusFailure<>(request.getValue(), error));
+
+        assertEquals(2, failures.size());
+        assertSame(error, failures.get(0).getCause());
+        assertEquals(1, failures.get(1).getRequest().getReference());
+    }
+
+    @Test
+    public void testUnregisterPlansAgain() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1, 1000);
+        PlannedPoll middle = register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1, 1000);
+        register(planner, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 1, 1000);
+        assertEquals(1, planner.getPolledRequests().size());
+
+        planner.unregisterRegularPoll(middle);
+        assertEquals(2, planner.getPolledRequests().size());
+
+        planner.dispose();
+        assertEquals(0, planner.getPolledRequests().size());
+        // every registered poll has been unregistered again
+        verify(comms, times(5)).registerRegularPoll(any(), anyLong(), anyLong(), any(), any());
+        verify(comms, times(5)).unregisterRegularPoll(any());
+    }
+}
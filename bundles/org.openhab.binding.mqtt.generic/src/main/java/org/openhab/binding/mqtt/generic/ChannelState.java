@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.generic;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.IllegalFormatException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -30,7 +31,7 @@ import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.types.Command;
-import org.openhab.core.types.TypeParser;
+import org.openhab.core.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +62,9 @@ public class ChannelState implements MqttMessageSubscriber {
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = CompletableFuture.completedFuture(null);
     private final Object futureLock = new Object();
+    // the last payload and the resulting state, to skip the processing of repeated payloads
+    private byte @Nullable [] lastPayload;
+    private @Nullable State lastPayloadState;
 
     /**
      * Creates a new channel state.
@@ -152,6 +156,16 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
+        // Same payload as before and the value has not been changed in the meantime: Same result as before
+        final byte[] lastPayload = this.lastPayload;
+        if (lastPayload != null && lastPayloadState == cachedValue.getChannelState()
+                && Arrays.equals(lastPayload, payload)) {
+            publishChannelState(channelStateUpdateListener);
+            receivedOrTimeout();
+            return;
+        }
+        this.lastPayload = null;
+
         // String value: Apply transformations
         String strValue = new String(payload, StandardCharsets.UTF_8);
         for (ChannelStateTransformation t : transformationsIn) {
@@ -172,7 +186,7 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
-        Command command = TypeParser.parseCommand(cachedValue.getSupportedCommandTypes(), strValue);
+        Command command = cachedValue.parseCommand(strValue);
         if (command == null) {
             logger.warn("Incoming payload '{}' not supported by type '{}'", strValue,
                     cachedValue.getClass().getSimpleName());
@@ -197,12 +211,22 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
+        // Only absolute values lead to the same state again, unlike e.g. INCREASE
+        if (command instanceof State) {
+            this.lastPayload = payload.clone();
+            this.lastPayloadState = cachedValue.getChannelState();
+        }
+
+        publishChannelState(channelStateUpdateListener);
+        receivedOrTimeout();
+    }
+
+    private void publishChannelState(ChannelStateUpdateListener channelStateUpdateListener) {
         if (config.postCommand) {
             channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
         } else {
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
         }
-        receivedOrTimeout();
     }
 
     /**
@@ -254,6 +278,8 @@ public class ChannelState implements MqttMessageSubscriber {
         this.connection = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
+        lastPayload = null;
+        lastPayloadState = null;
         cachedValue.resetState();
     }
 
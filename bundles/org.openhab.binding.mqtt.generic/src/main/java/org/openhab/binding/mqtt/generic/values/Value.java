@@ -14,8 +14,16 @@ package org.openhab.binding.mqtt.generic.values;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -51,13 +59,69 @@ import org.openhab.core.types.UnDefType;
  */
 @NonNullByDefault
 public abstract class Value {
+    // the valueOf(String) methods of the command types, resolved once for all values
+    private static final Map<Class<?>, MethodHandle> VALUE_OF_HANDLES = new ConcurrentHashMap<>();
+    private static final MethodType VALUE_OF_TYPE = MethodType.methodType(Object.class, String.class);
+
     protected State state = UnDefType.UNDEF;
     protected final List<Class<? extends Command>> commandTypes;
     private final String itemType;
+    private final List<MethodHandle> commandParsers;
 
     protected Value(String itemType, List<Class<? extends Command>> commandTypes) {
         this.itemType = itemType;
         this.commandTypes = commandTypes;
+        this.commandParsers = new ArrayList<>(commandTypes.size());
+        for (Class<? extends Command> commandType : commandTypes) {
+            MethodHandle parser = getValueOfHandle(commandType);
+            if (parser != null) {
+                commandParsers.add(parser);
+            }
+        }
+    }
+
+    private static @Nullable MethodHandle getValueOfHandle(Class<?> type) {
+        MethodHandle handle = VALUE_OF_HANDLES.get(type);
+        if (handle == null) {
+            try {
+                Method method = type.getMethod("valueOf", String.class);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    return null;
+                }
+                handle = MethodHandles.publicLookup().unreflect(method).asType(VALUE_OF_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+            MethodHandle existing = VALUE_OF_HANDLES.putIfAbsent(type, handle);
+            if (existing != null) {
+                handle = existing;
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Parses an incoming MQTT value into the first of the supported command types, which accepts it.
+     * This gives the same result as {@link org.openhab.core.types.TypeParser#parseCommand(List, String)}, but the
+     * parse methods are only looked up once per command type.
+     *
+     * @param value The MQTT value
+     * @return The command or null if none of the supported command types accepts the value
+     */
+    public @Nullable Command parseCommand(String value) {
+        for (MethodHandle parser : commandParsers) {
+            try {
+                Object command = (Object) parser.invokeExact(value);
+                if (command instanceof Command) {
+                    return (Command) command;
+                }
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // try the next type, like the TypeParser does
+            }
+        }
+        return null;
     }
 
     /**
@@ -53,6 +53,7 @@ import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.RawType;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.types.Command;
 
 /**
  * Tests the {@link ChannelState} class.
@@ -154,6 +155,36 @@ public class ChannelStateTests {
         verify(channelStateUpdateListener).updateChannelState(eq(channelUID), any());
     }
 
+    @Test
+    public void receiveRepeatedStringTest() {
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "A TEST".getBytes());
+        c.processMessage("state", "A TEST".getBytes());
+        assertThat(textValue.getChannelState().toString(), is("A TEST"));
+        verify(textValue, times(1)).update(any(Command.class));
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), eq(new StringType("A TEST")));
+
+        // the value has been changed in the meantime, the payload is processed again
+        c.publishValue(new StringType("UPDATE"));
+        c.processMessage("state", "A TEST".getBytes());
+        assertThat(textValue.getChannelState().toString(), is("A TEST"));
+        verify(channelStateUpdateListener, times(3)).updateChannelState(eq(channelUID), eq(new StringType("A TEST")));
+    }
+
+    @Test
+    public void receiveRepeatedIncreaseTest() {
+        NumberValue value = new NumberValue(null, null, new BigDecimal(10), null);
+        ChannelState c = spy(new ChannelState(config, channelUID, value, channelStateUpdateListener));
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "15".getBytes());
+        c.processMessage("state", "INCREASE".getBytes());
+        c.processMessage("state", "INCREASE".getBytes());
+        assertThat(value.getChannelState().toString(), is("35"));
+    }
+
     @Test
     public void receiveDecimalTest() {
         NumberValue value = new NumberValue(null, null, new BigDecimal(10), null);
@@ -72,6 +72,19 @@ public class ValueTests {
         assertThat(((HSBType) v.getChannelState()).getBrightness().intValue(), is(1));
     }
 
+    @Test
+    public void parseCommandLikeTypeParser() {
+        Value[] values = { new NumberValue(null, null, null, null), new OnOffValue(null, null),
+                new PercentageValue(null, null, null, null, null), new ColorValue(ColorMode.RGB, null, null, 10),
+                new TextValue() };
+        String[] inputs = { "15", "ON", "OFF", "INCREASE", "UP", "12,34,56", "abc", "" };
+        for (Value v : values) {
+            for (String input : inputs) {
+                assertEquals(p(v, input), v.parseCommand(input), v.getClass().getSimpleName() + " " + input);
+            }
+        }
+    }
+
     @Test
     public void illegalColorUpdate() {
         ColorValue v = new ColorValue(ColorMode.RGB, null, null, 10);
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Parses the JSON payloads of state topics once for all channels reading the same state topic.
+ * <br>
+ * Devices like Zigbee2MQTT publish all their values on one state topic and every channel picks its value
+ * with its own template. The last payload of each topic is kept together with the parsed document, so the
+ * channels receiving the same message share one parsed document.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class StateTopicPayloads {
+    private static final int MAX_TOPICS = 512;
+    private static final StateTopicPayloads SHARED = new StateTopicPayloads(MAX_TOPICS);
+
+    // the adapter does not make the reader lenient, unlike JsonParser
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+    private final Map<String, ParsedPayload> payloads;
+
+    /**
+     * @param maxTopics The number of topics for which the last payload is kept
+     */
+    StateTopicPayloads(int maxTopics) {
+        payloads = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, ParsedPayload> eldest) {
+                return size() > maxTopics;
+            }
+        };
+    }
+
+    /**
+     * Returns the instance shared by all Home Assistant channels.
+     */
+    public static StateTopicPayloads getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the parsed JSON document of a payload received on a state topic.
+     *
+     * @param topic The state topic
+     * @param payload The payload received on the topic
+     * @return The parsed document or null if the payload is not valid JSON
+     */
+    public @Nullable JsonElement parse(String topic, String payload) {
+        ParsedPayload parsed;
+        synchronized (payloads) {
+            parsed = payloads.get(topic);
+        }
+        if (parsed == null || !parsed.payload.equals(payload)) {
+            parsed = new ParsedPayload(payload, parse(payload));
+            synchronized (payloads) {
+                payloads.put(topic, parsed);
+            }
+        }
+        return parsed.json;
+    }
+
+    private static @Nullable JsonElement parse(String payload) {
+        try {
+            return JSON_ELEMENT_ADAPTER.read(new JsonReader(new StringReader(payload)));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static class ParsedPayload {
+        private final String payload;
+        private final @Nullable JsonElement json;
+
+        private ParsedPayload(String payload, @Nullable JsonElement json) {
+            this.payload = payload;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.generic.ChannelStateTransformation;
+import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * The transformation of a Home Assistant value template.
+ * <br>
+ * Most templates only pick one value of a JSON payload, like <code>{{ value_json.temperature }}</code>. Those are
+ * evaluated directly on the document parsed by {@link StateTopicPayloads}, which is shared by all channels of the
+ * state topic, and render the same as the JINJA transformation. All other templates, and values which are neither
+ * strings nor numbers, are rendered by the JINJA transformation.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class ValueTemplateTransformation extends ChannelStateTransformation {
+    public static final String JINJA = "JINJA";
+
+    // .key, ['key'], ["key"] or [index]
+    private static final String ACCESSOR = "\\.([A-Za-z_][A-Za-z0-9_]*)|\\['([^'\\\\]*)'\\]"
+            + "|\\[\"([^\"\\\\]*)\"\\]|\\[(\\d{1,9})\\]";
+    private static final Pattern ACCESSOR_PATTERN = Pattern.compile(ACCESSOR);
+    private static final Pattern TEMPLATE_PATTERN = Pattern
+            .compile("\\{\\{\\s*(value|value_json)((?:" + ACCESSOR + ")*)\\s*\\}\\}");
+    // names which are operators or literals in template expressions
+    private static final Set<String> KEYWORDS = Set.of("and", "or", "not", "eq", "ne", "lt", "gt", "le", "ge",
+            "true", "false", "null", "empty", "div", "mod", "instanceof");
+
+    private final String stateTopic;
+    private final StateTopicPayloads payloads;
+    // keys and indices of the picked value, empty for the plain value, null if rendered by JINJA
+    private final @Nullable List<Object> path;
+
+    /**
+     * @param template The value template
+     * @param stateTopic The state topic the template is applied to
+     * @param provider The transformation service provider
+     */
+    public ValueTemplateTransformation(String template, String stateTopic, TransformationServiceProvider provider) {
+        this(template, stateTopic, provider, StateTopicPayloads.getShared());
+    }
+
+    ValueTemplateTransformation(String template, String stateTopic, TransformationServiceProvider provider,
+            StateTopicPayloads payloads) {
+        super(JINJA, template, provider);
+        this.stateTopic = stateTopic;
+        this.payloads = payloads;
+        this.path = parsePath(template);
+    }
+
+    private static @Nullable List<Object> parsePath(String template) {
+        Matcher matcher = TEMPLATE_PATTERN.matcher(template);
+        if (!matcher.matches()) {
+            return null;
+        }
+        boolean json = "value_json".equals(matcher.group(1));
+        String accessors = matcher.group(2);
+        if (json == accessors.isEmpty()) {
+            // whole documents are rendered by JINJA, and the plain value has no keys
+            return null;
+        }
+        List<Object> path = new ArrayList<>();
+        Matcher accessor = ACCESSOR_PATTERN.matcher(accessors);
+        while (accessor.find()) {
+            if (accessor.group(1) != null) {
+                if (KEYWORDS.contains(accessor.group(1))) {
+                    return null;
+                }
+                path.add(accessor.group(1));
+            } else if (accessor.group(2) != null) {
+                path.add(accessor.group(2));
+            } else if (accessor.group(3) != null) {
+                path.add(accessor.group(3));
+            } else {
+                path.add(Integer.valueOf(accessor.group(4)));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns true if the template is evaluated without the JINJA transformation, as long as the value is found.
+     */
+    public boolean isDirectlyEvaluated() {
+        return path != null;
+    }
+
+    @Override
+    protected @Nullable String processValue(String value) {
+        final List<Object> path = this.path;
+        if (path != null) {
+            if (path.isEmpty()) {
+                return value;
+            }
+            JsonElement json = payloads.parse(stateTopic, value);
+            if (json != null) {
+                String result = evaluate(path, json);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return super.processValue(value);
+    }
+
+    private static @Nullable String evaluate(List<Object> path, JsonElement json) {
+        JsonElement element = json;
+        for (Object key : path) {
+            if (key instanceof Integer) {
+                if (!element.isJsonArray()) {
+                    return null;
+                }
+                JsonArray array = element.getAsJsonArray();
+                int index = (Integer) key;
+                if (index >= array.size()) {
+                    return null;
+                }
+                element = array.get(index);
+            } else {
+                if (!element.isJsonObject()) {
+                    return null;
+                }
+                element = element.getAsJsonObject().get((String) key);
+                if (element == null) {
+                    return null;
+                }
+            }
+        }
+        if (!element.isJsonPrimitive()) {
+            return null;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isString()) {
+            return primitive.getAsString();
+        } else if (primitive.isNumber()) {
+            return formatNumber(primitive.getAsString());
+        }
+        return null;
+    }
+
+    /**
+     * Formats a JSON number like the JINJA transformation, which reads integers exactly and all other numbers as
+     * double values.
+     */
+    private static @Nullable String formatNumber(String number) {
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                return new BigDecimal(number).toString();
+            }
+            return BigDecimal.valueOf(Double.parseDouble(number)).toString();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.core.transform.TransformationService;
+
+/**
+ * Tests the {@link ValueTemplateTransformation} and the shared parsing of the {@link StateTopicPayloads}.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class ValueTemplateTransformationTests {
+    private static final String TOPIC = "zigbee2mqtt/0x00158d0001a2b3c4";
+    private static final String PAYLOAD = "{\"battery\":97,\"voltage\":3005,\"temperature\":21.50,\"humidity\":48.3,"
+            + "\"pressure\":1013.2,\"linkquality\":115,\"occupancy\":false,\"illuminance\":381,\"illuminance_lux\":381,"
+            + "\"power_outage_count\":2,\"device_temperature\":28,\"update_available\":false,\"action\":\"single\","
+            + "\"update\":{\"state\":\"idle\"},\"last_seen\":\"2021-03-14T10:15:30+01:00\",\"color\":{\"x\":0.3,"
+            + "\"y\":0.32},\"scenes\":[\"morning\",\"evening\"],\"big\":1.5e3}";
+
+    private final List<String> jinjaCalls = new ArrayList<>();
+    private final TransformationService jinja = new TransformationService() {
+        @Override
+        public @Nullable String transform(String template, String value) {
+            jinjaCalls.add(template);
+            return "JINJA";
+        }
+    };
+    private final TransformationServiceProvider provider = type -> ValueTemplateTransformation.JINJA.equals(type)
+            ? jinja
+            : null;
+    private final StateTopicPayloads payloads = new StateTopicPayloads(16);
+
+    private ValueTemplateTransformation transformation(String template) {
+        return new ValueTemplateTransformation(template, TOPIC, provider, payloads);
+    }
+
+    // every channel decodes the payload on its own
+    private static String receive() {
+        return new String(PAYLOAD.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void zigbee2mqttTemplatesAreEvaluatedDirectly() {
+        Map<String, String> expected = Map.ofEntries(Map.entry("{{ value_json.battery }}", "97"),
+                Map.entry("{{ value_json.voltage }}", "3005"), Map.entry("{{ value_json.temperature }}", "21.5"),
+                Map.entry("{{ value_json.humidity }}", "48.3"), Map.entry("{{ value_json.pressure }}", "1013.2"),
+                Map.entry("{{ value_json.linkquality }}", "115"), Map.entry("{{value_json.illuminance}}", "381"),
+                Map.entry("{{ value_json['illuminance_lux'] }}", "381"),
+                Map.entry("{{ value_json[\"power_outage_count\"] }}", "2"),
+                Map.entry("{{ value_json.device_temperature }}", "28"), Map.entry("{{ value_json.action }}", "single"),
+                Map.entry("{{ value_json.update.state }}", "idle"),
+                Map.entry("{{ value_json.last_seen }}", "2021-03-14T10:15:30+01:00"),
+                Map.entry("{{ value_json.color.y }}", "0.32"), Map.entry("{{ value_json.scenes[1] }}", "evening"),
+                Map.entry("{{ value_json.big }}", "1500.0"), Map.entry("{{ value }}", PAYLOAD));
+
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            ValueTemplateTransformation transformation = transformation(entry.getKey());
+            assertThat(entry.getKey(), transformation.isDirectlyEvaluated(), is(true));
+            assertThat(entry.getKey(), transformation.processValue(receive()), is(entry.getValue()));
+        }
+        assertThat(jinjaCalls, is(List.of()));
+    }
+
+    @Test
+    public void payloadIsParsedOncePerMessage() {
+        Object first = payloads.parse(TOPIC, receive());
+        assertThat(first, is(notNullValue()));
+        assertThat(payloads.parse(TOPIC, receive()), is(sameInstance(first)));
+        assertThat(payloads.parse(TOPIC, "{\"battery\":96}"), is(not(sameInstance(first))));
+        assertThat(payloads.parse(TOPIC, "no json"), is(nullValue()));
+    }
+
+    @Test
+    public void otherTemplatesAreRenderedByJinja() {
+        String[] templates = { "{{ value_json.temperature | float }}", "{{ value_json }}", "{{ value.x }}",
+                "Temperature: {{ value_json.temperature }}", "{{ value_json.true }}",
+                "{% if value_json.occupancy %}ON{% else %}OFF{% endif %}" };
+        for (String template : templates) {
+            ValueTemplateTransformation transformation = transformation(template);
+            assertThat(template, transformation.isDirectlyEvaluated(), is(false));
+            assertThat(template, transformation.processValue(receive()), is("JINJA"));
+        }
+        assertThat(jinjaCalls, is(List.of(templates)));
+    }
+
+    @Test
+    public void valuesWhichAreNoStringsOrNumbersAreRenderedByJinja() {
+        String[] templates = { "{{ value_json.occupancy }}", "{{ value_json.update }}", "{{ value_json.scenes }}",
+                "{{ value_json.missing }}", "{{ value_json.scenes[2] }}", "{{ value_json.battery.level }}" };
+        for (String template : templates) {
+            assertThat(template, transformation(template).processValue(receive()), is("JINJA"));
+        }
+        assertThat(transformation("{{ value_json.battery }}").processValue("ON"), is("JINJA"));
+        assertThat(jinjaCalls.size(), is(templates.length + 1));
+    }
+}
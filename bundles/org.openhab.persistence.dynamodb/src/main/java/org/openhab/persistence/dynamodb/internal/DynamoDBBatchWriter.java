@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Buffers PutItem requests and writes them with BatchWriteItem requests of up to 25 items.
+ *
+ * Items left unprocessed by DynamoDB are sent again after a jittered exponential backoff. When DynamoDB throttles the
+ * writes, the delay between the flushes is doubled, up to {@link #MAX_FLUSH_DELAY}, and only one batch is written per
+ * flush. Every fully processed batch halves the delay again, down to the configured flush interval.
+ *
+ * Batches for a table that does not exist yet are written item by item with {@link TableCreatingPutItem}, which
+ * creates the table.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriter {
+    // maximum number of items of one BatchWriteItem request
+    static final int MAX_BATCH_SIZE = 25;
+    static final long MAX_FLUSH_DELAY = 60_000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long MIN_BACKOFF = 50;
+    private static final long MAX_BACKOFF = 5_000;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBBatchWriter.class);
+
+    private final DynamoDBPersistenceService service;
+    private final long flushInterval;
+    private final BlockingDeque<TableCreatingPutItem<?>> queue;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("dynamodb-writer"));
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean stopped;
+    private volatile long flushDelay;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported;
+
+    /**
+     * @param service the service providing the client
+     * @param flushInterval interval in milliseconds in which queued items are written, unless throttled
+     * @param maxQueueSize maximum number of items kept in memory, the oldest items are dropped when exceeded
+     */
+    public DynamoDBBatchWriter(DynamoDBPersistenceService service, long flushInterval, int maxQueueSize) {
+        this.service = service;
+        this.flushInterval = Math.max(1, flushInterval);
+        this.flushDelay = this.flushInterval;
+        this.queue = new LinkedBlockingDeque<>(Math.max(MAX_BATCH_SIZE, maxQueueSize));
+        scheduler.schedule(this::scheduledFlush, flushDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues an item for writing.
+     *
+     * @param putItem request of the item, also used to create the table if it does not exist
+     */
+    public void enqueue(TableCreatingPutItem<?> putItem) {
+        queued.incrementAndGet();
+        if (stopped) {
+            // a store which raced the deactivation of the service, the queue is not written anymore
+            dropped.incrementAndGet();
+            logger.debug("DynamoDB batch writer is stopped, dropping an item");
+            return;
+        }
+        // make room for the new item
+        while (!queue.offerLast(putItem)) {
+            if (queue.pollFirst() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+        // full batches are written right away, unless DynamoDB is throttling the writes
+        if (queue.size() >= MAX_BATCH_SIZE && flushDelay == flushInterval
+                && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> flush(Integer.MAX_VALUE));
+            } catch (RejectedExecutionException e) {
+                // stopped, the queue is written by stop()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes all queued items. Stops at the first batch which could not be written, the remaining items are written
+     * with the next flush.
+     */
+    public void flush() {
+        flush(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stops the periodic flush and tries to write the items still queued, after a flush in progress has completed.
+     * Items which cannot be written are dropped.
+     */
+    public void stop() {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("The running DynamoDB write did not complete within {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        List<TableCreatingPutItem<?>> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            dropped.addAndGet(remaining.size());
+            logger.warn("{} items could not be written to DynamoDB and have been dropped, {}", remaining.size(),
+                    this);
+        }
+        logger.debug("DynamoDB batch writer stopped: {}", this);
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush(flushDelay == flushInterval ? Integer.MAX_VALUE : 1);
+        } finally {
+            try {
+                scheduler.schedule(this::scheduledFlush, flushDelay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // stopped
+            }
+        }
+    }
+
+    private synchronized void flush(int maxBatches) {
+        flushScheduled.set(false);
+        for (int i = 0; i < maxBatches && !queue.isEmpty(); i++) {
+            List<TableCreatingPutItem<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            queue.drainTo(batch, MAX_BATCH_SIZE);
+            if (!write(batch)) {
+                break;
+            }
+        }
+        long droppedCount = dropped.get();
+        if (droppedCount != droppedReported) {
+            logger.warn("{} items could not be written to DynamoDB and have been dropped, {}",
+                    droppedCount - droppedReported, this);
+            droppedReported = droppedCount;
+        }
+    }
+
+    /**
+     * Writes a batch, sending unprocessed items again with backoff.
+     *
+     * @return false if items of the batch have been queued again to be retried later
+     */
+    private boolean write(List<TableCreatingPutItem<?>> batch) {
+        DynamoDbAsyncClient client = service.getLowLevelClient();
+        if (client == null) {
+            keepForRetry(batch);
+            return false;
+        }
+
+        Map<WriteRequest, TableCreatingPutItem<?>> pending = new LinkedHashMap<>();
+        Map<String, List<WriteRequest>> requestItems = new HashMap<>();
+        for (TableCreatingPutItem<?> putItem : deduplicate(batch)) {
+            WriteRequest request = putItem.toWriteRequest();
+            pending.put(request, putItem);
+            requestItems.computeIfAbsent(putItem.getTableName(), table -> new ArrayList<>()).add(request);
+        }
+
+        for (int attempt = 1;; attempt++) {
+            requests.incrementAndGet();
+            BatchWriteItemResponse response;
+            try {
+                Map<String, List<WriteRequest>> localRequestItems = requestItems;
+                response = client.batchWriteItem(
+                        req -> req.requestItems(localRequestItems).overrideConfiguration(service::overrideConfig))
+                        .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                keepForRetry(pending.values());
+                return false;
+            } catch (ExecutionException e) {
+                return handleFailure(e, pending.values());
+            }
+
+            Map<String, List<WriteRequest>> unprocessed = response.unprocessedItems();
+            Map<WriteRequest, TableCreatingPutItem<?>> remaining = new LinkedHashMap<>();
+            for (List<WriteRequest> unprocessedRequests : unprocessed.values()) {
+                for (WriteRequest request : unprocessedRequests) {
+                    TableCreatingPutItem<?> putItem = pending.get(request);
+                    if (putItem != null) {
+                        remaining.put(request, putItem);
+                    }
+                }
+            }
+            written.addAndGet(pending.size() - remaining.size());
+            if (remaining.isEmpty()) {
+                speedUp();
+                return true;
+            }
+
+            // unprocessed items are the response to exceeded throughput, too
+            throttled.incrementAndGet();
+            slowDown();
+            if (attempt >= MAX_ATTEMPTS) {
+                logger.debug("BatchWriteItem: {} items still unprocessed after {} attempts, retrying later",
+                        remaining.size(), attempt);
+                keepForRetry(remaining.values());
+                return false;
+            }
+            retried.addAndGet(remaining.size());
+            pending = remaining;
+            requestItems = unprocessed;
+            try {
+                Thread.sleep(getBackoff(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                keepForRetry(pending.values());
+                return false;
+            }
+        }
+    }
+
+    private boolean handleFailure(ExecutionException e, Collection<TableCreatingPutItem<?>> pending) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ResourceNotFoundException) {
+            // at least one of the tables does not exist (yet), PutItem creates it
+            logger.trace("BatchWriteItem: table not found, writing {} items with PutItem", pending.size());
+            pending.forEach(this::putItemCreatingTable);
+            return true;
+        } else if (cause instanceof ProvisionedThroughputExceededException
+                || (cause instanceof SdkServiceException && ((SdkServiceException) cause).isThrottlingException())) {
+            throttled.incrementAndGet();
+            slowDown();
+            keepForRetry(pending);
+            return false;
+        } else if (cause instanceof SdkClientException) {
+            logger.debug("BatchWriteItem: failed with {}, retrying later", cause.getMessage());
+            keepForRetry(pending);
+            return false;
+        }
+        logger.warn("BatchWriteItem: failed (final) with {} {}. Aborting.",
+                cause == null ? e.getClass().getSimpleName() : cause.getClass().getSimpleName(),
+                cause == null ? e.getMessage() : cause.getMessage());
+        dropped.addAndGet(pending.size());
+        return true;
+    }
+
+    private void putItemCreatingTable(TableCreatingPutItem<?> putItem) {
+        putItem.putItemAsync().whenComplete((result, exception) -> {
+            if (exception == null) {
+                written.incrementAndGet();
+            } else {
+                dropped.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * A BatchWriteItem request must not contain the same key twice. The last state wins, as with consecutive PutItem
+     * requests.
+     */
+    private Collection<TableCreatingPutItem<?>> deduplicate(List<TableCreatingPutItem<?>> batch) {
+        Map<String, Map<Key, TableCreatingPutItem<?>>> itemsByTable = new LinkedHashMap<>();
+        for (TableCreatingPutItem<?> putItem : batch) {
+            if (itemsByTable.computeIfAbsent(putItem.getTableName(), table -> new LinkedHashMap<>())
+                    .put(putItem.getKey(), putItem) != null) {
+                written.incrementAndGet();
+            }
+        }
+        List<TableCreatingPutItem<?>> unique = new ArrayList<>(batch.size());
+        itemsByTable.values().forEach(items -> unique.addAll(items.values()));
+        return unique;
+    }
+
+    private void keepForRetry(Collection<TableCreatingPutItem<?>> putItems) {
+        // back to the head of the queue in their original order, dropping them if new items took their place
+        List<TableCreatingPutItem<?>> items = new ArrayList<>(putItems);
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(items.get(i))) {
+                dropped.addAndGet(i + 1);
+                break;
+            }
+        }
+    }
+
+    private void slowDown() {
+        long delay = flushDelay;
+        if (delay < MAX_FLUSH_DELAY) {
+            flushDelay = Math.min(MAX_FLUSH_DELAY, delay * 2);
+            logger.debug("DynamoDB throttles the writes, flushing every {} ms", flushDelay);
+        }
+    }
+
+    private void speedUp() {
+        long delay = flushDelay;
+        if (delay > flushInterval) {
+            flushDelay = Math.max(flushInterval, delay / 2);
+            logger.debug("DynamoDB accepts the writes again, flushing every {} ms", flushDelay);
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter, so that retries of several instances do not collide again
+     */
+    private long getBackoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF, MIN_BACKOFF << attempt);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getFlushDelay() {
+        return flushDelay;
+    }
+
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DynamoDBBatchWriter{" + "queueSize=" + getQueueSize() + ", flushDelay=" + getFlushDelay()
+                + ", queued=" + getQueuedCount() + ", written=" + getWrittenCount() + ", requests="
+                + getRequestCount() + ", retried=" + getRetriedCount() + ", throttled=" + getThrottledCount()
+                + ", dropped=" + getDroppedCount() + '}';
+    }
+}
@@ -50,6 +50,8 @@ public class DynamoDBConfig {
     public static final long DEFAULT_READ_CAPACITY_UNITS = 1;
     public static final long DEFAULT_WRITE_CAPACITY_UNITS = 1;
     public static final RetryMode DEFAULT_RETRY_MODE = RetryMode.STANDARD;
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
     private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBConfig.class);
 
     private long readCapacityUnits;
@@ -61,6 +63,8 @@ public class DynamoDBConfig {
     private String table;
     private String tablePrefixLegacy;
     private @Nullable Integer expireDays;
+    private long flushInterval;
+    private int maxQueueSize;
 
     /**
      *
@@ -166,24 +170,56 @@ public class DynamoDBConfig {
                 }
             }
 
+            final long flushInterval;
+            String flushIntervalParam = (String) config.get("flushInterval");
+            if (flushIntervalParam == null || flushIntervalParam.isBlank()) {
+                flushInterval = DEFAULT_FLUSH_INTERVAL;
+            } else {
+                flushInterval = Long.parseLong(flushIntervalParam);
+                if (flushInterval <= 0) {
+                    LOGGER.error("flushInterval should be positive integer");
+                    return null;
+                }
+            }
+
+            final int maxQueueSize;
+            String maxQueueSizeParam = (String) config.get("maxQueueSize");
+            if (maxQueueSizeParam == null || maxQueueSizeParam.isBlank()) {
+                maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+            } else {
+                maxQueueSize = Integer.parseInt(maxQueueSizeParam);
+                if (maxQueueSize <= 0) {
+                    LOGGER.error("maxQueueSize should be positive integer");
+                    return null;
+                }
+            }
+
+            final DynamoDBConfig dbConfig;
             switch (tableRevision) {
                 case NEW:
                     LOGGER.debug("Using new DynamoDB table schema");
-                    return DynamoDBConfig.newSchema(region, credentials, AwsRetryPolicy.forRetryMode(retryMode), table,
-                            readCapacityUnits, writeCapacityUnits, expireDays);
+                    dbConfig = DynamoDBConfig.newSchema(region, credentials, AwsRetryPolicy.forRetryMode(retryMode),
+                            table, readCapacityUnits, writeCapacityUnits, expireDays);
+                    break;
                 case LEGACY:
                     LOGGER.warn(
                             "Using legacy DynamoDB table schema. It is recommended to transition to new schema by defining 'table' parameter and not configuring 'tablePrefix'");
-                    return DynamoDBConfig.legacySchema(region, credentials, AwsRetryPolicy.forRetryMode(retryMode),
+                    dbConfig = DynamoDBConfig.legacySchema(region, credentials, AwsRetryPolicy.forRetryMode(retryMode),
                             tablePrefixLegacy, readCapacityUnits, writeCapacityUnits);
+                    break;
                 case MAYBE_LEGACY:
                     LOGGER.debug(
                             "Unclear whether we should use new legacy DynamoDB table schema. It is recommended to explicitly define new 'table' parameter. The correct table schema will be detected at runtime.");
-                    return DynamoDBConfig.maybeLegacySchema(region, credentials, AwsRetryPolicy.forRetryMode(retryMode),
-                            table, tablePrefixLegacy, readCapacityUnits, writeCapacityUnits, expireDays);
+                    dbConfig = DynamoDBConfig.maybeLegacySchema(region, credentials,
+                            AwsRetryPolicy.forRetryMode(retryMode), table, tablePrefixLegacy, readCapacityUnits,
+                            writeCapacityUnits, expireDays);
+                    break;
                 default:
                     throw new IllegalStateException("Unhandled enum. Bug");
             }
+            dbConfig.flushInterval = flushInterval;
+            dbConfig.maxQueueSize = maxQueueSize;
+            return dbConfig;
         } catch (Exception e) {
             LOGGER.error("Error with configuration: {} {}", e.getClass().getSimpleName(), e.getMessage());
             return null;
@@ -221,6 +257,8 @@ public class DynamoDBConfig {
         this.readCapacityUnits = readCapacityUnits;
         this.writeCapacityUnits = writeCapacityUnits;
         this.expireDays = expireDays;
+        this.flushInterval = DEFAULT_FLUSH_INTERVAL;
+        this.maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
     }
 
     public AwsCredentials getCredentials() {
@@ -258,4 +296,12 @@ public class DynamoDBConfig {
     public @Nullable Integer getExpireDays() {
         return expireDays;
     }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
 }
@@ -109,6 +109,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     private boolean isProperlyConfigured;
     private @Nullable DynamoDBConfig dbConfig;
     private @Nullable DynamoDBTableNameResolver tableNameResolver;
+    private volatile @Nullable DynamoDBBatchWriter batchWriter;
     private final ExecutorService executor = ThreadPoolManager.getPool(DYNAMODB_THREADPOOL_NAME);
     private static final Duration TIMEOUT_API_CALL = Duration.ofSeconds(60);
     private static final Duration TIMEOUT_API_CALL_ATTEMPT = Duration.ofSeconds(5);
@@ -169,6 +170,14 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         return dbConfig;
     }
 
+    /**
+     * For tests
+     */
+    @Nullable
+    DynamoDBBatchWriter getBatchWriter() {
+        return batchWriter;
+    }
+
     @Activate
     public void activate(final @Nullable BundleContext bundleContext, final Map<String, Object> config) {
         disconnect();
@@ -190,6 +199,7 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        batchWriter = new DynamoDBBatchWriter(this, localDbConfig.getFlushInterval(), localDbConfig.getMaxQueueSize());
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
     }
@@ -309,6 +319,12 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     }
 
     private void disconnect() {
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            // no new items, then write the queued items while the client is still open
+            batchWriter = null;
+            localBatchWriter.stop();
+        }
         DynamoDbAsyncClient localLowLevelClient = lowLevelClient;
         if (client == null || localLowLevelClient == null) {
             return;
@@ -377,6 +393,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
                     cause == null ? e.getMessage() : cause.getMessage());
             return Collections.emptyList();
         }
+        DynamoDBBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            // items which have been stored before are expected in the result
+            localBatchWriter.flush();
+        }
         try {
             //
             // Proceed with query
@@ -529,8 +550,9 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             DynamoDbAsyncClient localLowlevelClient = lowLevelClient;
             DynamoDBConfig localConfig = dbConfig;
             DynamoDBTableNameResolver localTableNameResolver = tableNameResolver;
+            DynamoDBBatchWriter localBatchWriter = batchWriter;
             if (!isProperlyConfigured || localClient == null || localLowlevelClient == null || localConfig == null
-                    || localTableNameResolver == null) {
+                    || localTableNameResolver == null || localBatchWriter == null) {
                 logger.warn("Not ready to store (config error?), not storing item {}.", item.getName());
                 return;
             }
@@ -550,21 +572,24 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             }
             logger.trace("store() called with item {} {} '{}', which was converted to DTO {}",
                     copiedItem.getClass().getSimpleName(), effectiveName, copiedItem.getState(), dto);
-            dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
-                        DynamoDBBigDecimalItem dynamoBigDecimalItem) {
-                    return new TableCreatingPutItem<DynamoDBBigDecimalItem>(DynamoDBPersistenceService.this,
-                            dynamoBigDecimalItem, getTable(DynamoDBBigDecimalItem.class));
-                }
-
-                @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBStringItem dynamoStringItem) {
-                    return new TableCreatingPutItem<DynamoDBStringItem>(DynamoDBPersistenceService.this,
-                            dynamoStringItem, getTable(DynamoDBStringItem.class));
-                }
-            }).putItemAsync();
+            TableCreatingPutItem<? extends DynamoDBItem<?>> putItem = dto
+                    .accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
+
+                        @Override
+                        public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
+                                DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                            return new TableCreatingPutItem<DynamoDBBigDecimalItem>(DynamoDBPersistenceService.this,
+                                    dynamoBigDecimalItem, getTable(DynamoDBBigDecimalItem.class));
+                        }
+
+                        @Override
+                        public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
+                                DynamoDBStringItem dynamoStringItem) {
+                            return new TableCreatingPutItem<DynamoDBStringItem>(DynamoDBPersistenceService.this,
+                                    dynamoStringItem, getTable(DynamoDBStringItem.class));
+                        }
+                    });
+            localBatchWriter.enqueue(putItem);
         }, executor).exceptionally(e -> {
             logger.error("Unexcepted error", e);
             return null;
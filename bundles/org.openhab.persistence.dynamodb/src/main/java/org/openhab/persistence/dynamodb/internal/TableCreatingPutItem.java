@@ -24,12 +24,15 @@ import org.slf4j.LoggerFactory;
 
 import software.amazon.awssdk.core.internal.waiters.ResponseOrException;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.CreateTableEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
 import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 /**
  * PutItem request which creates table if needed.
@@ -103,6 +106,24 @@ public class TableCreatingPutItem<T extends DynamoDBItem<?>> {
         tableNameResolver = localTableNameResolver;
     }
 
+    public String getTableName() {
+        return table.tableName();
+    }
+
+    public Key getKey() {
+        return table.keyFrom(dto);
+    }
+
+    /**
+     * Converts the DTO to a write request of a BatchWriteItem. Null attributes are left out, as with PutItem.
+     *
+     * @return put request of the DTO
+     */
+    public WriteRequest toWriteRequest() {
+        return WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(table.tableSchema().itemToMap(dto, true)).build()).build();
+    }
+
     public CompletableFuture<Void> putItemAsync() {
         start = Instant.now();
         return internalPutItemAsync(false, true);
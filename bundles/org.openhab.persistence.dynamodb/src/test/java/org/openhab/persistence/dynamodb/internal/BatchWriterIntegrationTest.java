@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Stores more states than fit into one BatchWriteItem request and checks that all of them are written in batches.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class BatchWriterIntegrationTest extends BaseIntegrationTest {
+
+    public static final boolean LEGACY_MODE = false;
+    private static final String NAME = "number";
+    private static final int STATE_COUNT = 3 * DynamoDBBatchWriter.MAX_BATCH_SIZE + 5;
+
+    private static @Nullable ZonedDateTime storeStart;
+
+    @SuppressWarnings("null")
+    @BeforeAll
+    public static void populateData() throws InterruptedException {
+        NumberItem item = (NumberItem) ITEMS.get(NAME);
+        // the first write creates the table, the following ones are batched
+        item.setState(new DecimalType(-1));
+        service.store(item);
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setItemName(NAME);
+        for (int i = 0; i < 100 && !service.query(criteria).iterator().hasNext(); i++) {
+            Thread.sleep(500);
+        }
+
+        storeStart = ZonedDateTime.now();
+        for (int i = 0; i < STATE_COUNT; i++) {
+            item.setState(new DecimalType(i));
+            // Add some delay to enforce different timestamps in ms accuracy
+            Thread.sleep(2);
+            service.store(item);
+        }
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testAllStatesWritten() {
+        waitForAssert(() -> {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME);
+            criteria.setBeginDate(storeStart);
+            criteria.setOrdering(Ordering.ASCENDING);
+            List<Integer> states = new ArrayList<>();
+            for (HistoricItem historicItem : service.query(criteria)) {
+                states.add(((DecimalType) historicItem.getState()).intValue());
+            }
+            assertEquals(STATE_COUNT, states.size());
+            for (int i = 0; i < STATE_COUNT; i++) {
+                assertEquals(i, states.get(i).intValue());
+            }
+        });
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testMetrics() {
+        waitForAssert(() -> {
+            DynamoDBBatchWriter batchWriter = service.getBatchWriter();
+            assertNotNull(batchWriter);
+            assertEquals(0, batchWriter.getQueueSize());
+            assertEquals(STATE_COUNT + 1, batchWriter.getQueuedCount());
+            assertEquals(STATE_COUNT + 1, batchWriter.getWrittenCount());
+            assertEquals(0, batchWriter.getDroppedCount());
+            // far less requests than items
+            assertTrue(batchWriter.getRequestCount() < STATE_COUNT / 2, batchWriter.toString());
+        });
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the accounting of the batch writer while it has no client, so nothing can be written.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriterTest {
+    // long enough to never flush periodically within a test
+    private static final long FLUSH_INTERVAL = 3600000;
+
+    private final DynamoDBPersistenceService service = mock(DynamoDBPersistenceService.class);
+
+    private static TableCreatingPutItem<?> putItem() {
+        return mock(TableCreatingPutItem.class);
+    }
+
+    @Test
+    public void itemsWhichCannotBeWrittenAreKeptForRetry() {
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, FLUSH_INTERVAL, 100);
+
+        writer.enqueue(putItem());
+        writer.enqueue(putItem());
+        writer.flush();
+
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(0, writer.getDroppedCount());
+        writer.stop();
+    }
+
+    @Test
+    public void itemsLeftAfterStopAreDropped() {
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, FLUSH_INTERVAL, 100);
+
+        writer.enqueue(putItem());
+        writer.enqueue(putItem());
+        writer.stop();
+
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(2, writer.getDroppedCount());
+    }
+
+    @Test
+    public void itemsEnqueuedAfterStopAreDropped() {
+        DynamoDBBatchWriter writer = new DynamoDBBatchWriter(service, FLUSH_INTERVAL, 100);
+        writer.stop();
+
+        for (int i = 0; i < DynamoDBBatchWriter.MAX_BATCH_SIZE; i++) {
+            writer.enqueue(putItem());
+        }
+
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(DynamoDBBatchWriter.MAX_BATCH_SIZE, writer.getDroppedCount());
+    }
+}
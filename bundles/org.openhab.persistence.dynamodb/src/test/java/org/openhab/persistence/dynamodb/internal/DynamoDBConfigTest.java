@@ -244,4 +244,31 @@ public class DynamoDBConfigTest {
         assertEquals(RetryMode.STANDARD, fromConfig.getRetryPolicy().retryMode());
         assertEquals(ExpectedTableSchema.MAYBE_LEGACY, fromConfig.getTableRevision());
     }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testBatchWriterDefaults() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig
+                .fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey", "secret1"));
+        assertEquals(1000, fromConfig.getFlushInterval());
+        assertEquals(10000, fromConfig.getMaxQueueSize());
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testBatchWriterSettings() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1",
+                "secretKey", "secret1", "table", "mytable", "flushInterval", "250", "maxQueueSize", "500"));
+        assertEquals(250, fromConfig.getFlushInterval());
+        assertEquals(500, fromConfig.getMaxQueueSize());
+        assertEquals(ExpectedTableSchema.NEW, fromConfig.getTableRevision());
+    }
+
+    @Test
+    public void testInvalidBatchWriterSettings() throws Exception {
+        assertNull(DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey",
+                "secret1", "flushInterval", "0")));
+        assertNull(DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey",
+                "secret1", "maxQueueSize", "-1")));
+    }
 }
@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.influxdb;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
@@ -20,13 +22,17 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.config.core.ConfigurableService;
+import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.MetadataRegistry;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
@@ -35,11 +41,14 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregation;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
+import org.openhab.persistence.influxdb.internal.InfluxDBLineProtocolUtils;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteBuffer;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
 import org.openhab.persistence.influxdb.internal.ItemToStorePointCreator;
@@ -94,6 +103,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     // Relax rules because can only be null if component is not active
     private @NonNullByDefault({}) ItemToStorePointCreator itemToStorePointCreator;
     private @NonNullByDefault({}) InfluxDBRepository influxDBRepository;
+    private volatile @NonNullByDefault({}) InfluxDBWriteBuffer writeBuffer;
 
     @Activate
     public InfluxDBPersistenceService(final @Reference ItemRegistry itemRegistry,
@@ -113,6 +123,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             itemToStorePointCreator = new ItemToStorePointCreator(configuration, metadataRegistry);
             influxDBRepository = createInfluxDBRepository();
             influxDBRepository.connect();
+            writeBuffer = createWriteBuffer();
         } else {
             logger.error("Cannot load configuration, persistence service wont work");
         }
@@ -125,12 +136,35 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
         return RepositoryFactory.createRepository(configuration);
     }
 
+    private InfluxDBWriteBuffer createWriteBuffer() {
+        String spillFile = configuration.getSpillFile();
+        // relative paths are resolved against the userdata folder
+        Path spillPath = spillFile.isEmpty() ? null : Path.of(OpenHAB.getUserDataFolder()).resolve(spillFile);
+        return new InfluxDBWriteBuffer(influxDBRepository, configuration.getBatchSize(),
+                configuration.getFlushInterval(), configuration.getMaxQueueSize(), spillPath);
+    }
+
+    /**
+     * Returns the buffer of the points to be written, e.g. to check its counters
+     *
+     * @return the buffer or null if the service is not active
+     */
+    public @Nullable InfluxDBWriteBuffer getWriteBuffer() {
+        return writeBuffer;
+    }
+
     /**
      * Disconnect from database when service is deactivated
      */
     @Deactivate
     public void deactivate() {
         logger.debug("InfluxDB persistence service deactivated");
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            // no new points, then write the points still queued before the connection is closed
+            writeBuffer = null;
+            buffer.stop();
+        }
         if (influxDBRepository != null) {
             influxDBRepository.disconnect();
             influxDBRepository = null;
@@ -202,21 +236,63 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     @Override
     public void store(Item item, @Nullable String alias) {
-        if (influxDBRepository != null && influxDBRepository.isConnected()) {
+        InfluxDBWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            // the buffer keeps the points while InfluxDB is not connected
             InfluxPoint point = itemToStorePointCreator.convert(item, alias);
             if (point != null) {
                 logger.trace("Storing item {} in InfluxDB point {}", item, point);
-                influxDBRepository.write(point);
+                buffer.enqueue(InfluxDBLineProtocolUtils.toLineProtocol(point));
             } else {
                 logger.trace("Ignoring item {} as is cannot be converted to a InfluxDB point", item);
             }
         } else {
-            logger.debug("store ignored, InfluxDB is not yet connected");
+            logger.debug("store ignored, InfluxDB persistence service is not active");
         }
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        return query(filter, 0, null);
+    }
+
+    /**
+     * Returns the values of the filter range aggregated by the database in time windows of the given length. The
+     * number of returned values depends on the number of windows instead of the number of stored values, which makes
+     * it suitable for charts over large time ranges.
+     *
+     * @param filter the filter, paging is not applied
+     * @param windowSeconds the length of a time window in seconds
+     * @param aggregation the aggregation of numeric items, other items always return the last value of a window
+     * @return the aggregated values
+     * @throws IllegalArgumentException if the filter has no begin date, the windows would not be bounded then
+     */
+    public Iterable<HistoricItem> queryAggregated(FilterCriteria filter, int windowSeconds,
+            InfluxDBAggregation aggregation) {
+        if (filter.getBeginDate() == null) {
+            throw new IllegalArgumentException("Aggregated queries need a begin date");
+        }
+        return query(filter, Math.max(1, windowSeconds), aggregation);
+    }
+
+    /**
+     * Returns the values of the filter range downsampled to at most the configured number of windows, aggregated with
+     * the configured function. Unlike {@link #query(FilterCriteria)}, which always returns the stored values, this is
+     * meant for callers which only need the shape of the series, like charts. If downsampling is not configured, the
+     * filter has no begin or end date or is paged, all values are returned.
+     *
+     * @param filter the filter to apply to the query
+     * @return the downsampled values
+     */
+    public Iterable<HistoricItem> queryDownsampled(FilterCriteria filter) {
+        return query(filter, getDownsampleWindowSeconds(filter), configuration.getDownsampleFunction());
+    }
+
+    /**
+     * @param windowSeconds the length of the windows to aggregate, or 0 to return the stored values
+     */
+    private Iterable<HistoricItem> query(FilterCriteria filter, int windowSeconds,
+            @Nullable InfluxDBAggregation aggregation) {
         logger.debug("Got a query for historic points!");
 
         if (influxDBRepository != null && influxDBRepository.isConnected()) {
@@ -225,17 +301,51 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
                     filter.getItemName(), filter.getOrdering().toString(), filter.getState(), filter.getOperator(),
                     filter.getBeginDate(), filter.getEndDate(), filter.getPageSize(), filter.getPageNumber());
 
-            String query = RepositoryFactory.createQueryCreator(configuration, metadataRegistry).createQuery(filter,
-                    configuration.getRetentionPolicy());
+            FilterCriteriaQueryCreator queryCreator = RepositoryFactory.createQueryCreator(configuration,
+                    metadataRegistry);
+            String query = aggregation != null && windowSeconds > 0
+                    ? queryCreator.createAggregatedQuery(filter, configuration.getRetentionPolicy(), windowSeconds,
+                            getAggregation(filter.getItemName(), aggregation))
+                    : queryCreator.createQuery(filter, configuration.getRetentionPolicy());
             logger.trace("Query {}", query);
-            List<InfluxRow> results = influxDBRepository.query(query);
-            return results.stream().map(this::mapRow2HistoricItem).collect(Collectors.toList());
+            // the rows are converted while the result is iterated
+            Iterable<InfluxRow> results = influxDBRepository.query(query);
+            return () -> StreamSupport.stream(results.spliterator(), false).map(this::mapRow2HistoricItem)
+                    .iterator();
         } else {
             logger.debug("query ignored, InfluxDB is not yet connected");
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Returns the window length for {@link #queryDownsampled(FilterCriteria)} of a begin and end date without paging, if
+     * the range covers more than the configured number of windows, or 0 to query all values.
+     */
+    private int getDownsampleWindowSeconds(FilterCriteria filter) {
+        int buckets = configuration.getDownsampleBuckets();
+        ZonedDateTime begin = filter.getBeginDate();
+        ZonedDateTime end = filter.getEndDate();
+        if (buckets <= 0 || begin == null || end == null || filter.getPageSize() != Integer.MAX_VALUE) {
+            return 0;
+        }
+        long seconds = Duration.between(begin, end).getSeconds();
+        long windowSeconds = (seconds + buckets - 1) / buckets;
+        // windows of a single second do not reduce the number of values noticeably
+        return windowSeconds < 2 ? 0 : (int) Math.min(Integer.MAX_VALUE, windowSeconds);
+    }
+
+    /**
+     * Numeric aggregations can only be applied to number items, all other items return the last value of a window.
+     */
+    private InfluxDBAggregation getAggregation(@Nullable String itemName, InfluxDBAggregation aggregation) {
+        Item item = itemName != null ? itemRegistry.get(itemName) : null;
+        if (item instanceof GroupItem) {
+            item = ((GroupItem) item).getBaseItem();
+        }
+        return item instanceof NumberItem ? aggregation : InfluxDBAggregation.LAST;
+    }
+
     private HistoricItem mapRow2HistoricItem(InfluxRow row) {
         State state = InfluxDBStateConvertUtils.objectToState(row.getValue(), row.getItemName(), itemRegistry);
         return new InfluxDBHistoricItem(row.getItemName(), state,
@@ -31,6 +31,20 @@ public interface FilterCriteriaQueryCreator {
      */
     String createQuery(FilterCriteria criteria, String retentionPolicy);
 
+    /**
+     * Create query from {@link FilterCriteria} whose values are aggregated by the database in time windows, which
+     * returns one value per window instead of all stored values
+     *
+     * @param criteria Criteria to create query from, paging is not applied
+     * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
+     * @param windowSeconds Length of a time window in seconds
+     * @param aggregation Function applied to the values of a time window
+     * @return Created query as an String
+     * @throws IllegalArgumentException if the criteria have no begin date
+     */
+    String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, int windowSeconds,
+            InfluxDBAggregation aggregation);
+
     default String getOperationSymbol(FilterCriteria.Operator operator, InfluxDBVersion version) {
         switch (operator) {
             case EQ:
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Aggregation functions for downsampled queries, applied by the database to all values within a time window.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public enum InfluxDBAggregation {
+    /** average of the values, numeric items only */
+    MEAN,
+    /** smallest value, numeric items only */
+    MIN,
+    /** largest value, numeric items only */
+    MAX,
+    /** last value of the window, used for all non numeric items */
+    LAST;
+
+    /**
+     * @return the name of the InfluxQL function
+     */
+    public String getInfluxQLFunction() {
+        return name();
+    }
+
+    /**
+     * @return the name of the Flux function
+     */
+    public String getFluxFunction() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -40,6 +40,12 @@ public class InfluxDBConfiguration {
     public static final String ADD_CATEGORY_TAG_PARAM = "addCategoryTag";
     public static final String ADD_LABEL_TAG_PARAM = "addLabelTag";
     public static final String ADD_TYPE_TAG_PARAM = "addTypeTag";
+    public static final String BATCH_SIZE_PARAM = "batchSize";
+    public static final String FLUSH_INTERVAL_PARAM = "flushInterval";
+    public static final String MAX_QUEUE_SIZE_PARAM = "maxQueueSize";
+    public static final String SPILL_FILE_PARAM = "spillFile";
+    public static final String DOWNSAMPLE_BUCKETS_PARAM = "downsampleBuckets";
+    public static final String DOWNSAMPLE_FUNCTION_PARAM = "downsampleFunction";
     public static InfluxDBConfiguration NO_CONFIGURATION = new InfluxDBConfiguration(Collections.emptyMap());
     private final Logger logger = LoggerFactory.getLogger(InfluxDBConfiguration.class);
     private final String url;
@@ -55,6 +61,14 @@ public class InfluxDBConfiguration {
     private final boolean addTypeTag;
     private final boolean addLabelTag;
 
+    private final int batchSize;
+    private final int flushInterval;
+    private final int maxQueueSize;
+    private final String spillFile;
+
+    private final int downsampleBuckets;
+    private final InfluxDBAggregation downsampleFunction;
+
     public InfluxDBConfiguration(Map<String, Object> config) {
         url = (String) config.getOrDefault(URL_PARAM, "http://127.0.0.1:8086");
         user = (String) config.getOrDefault(USER_PARAM, "openhab");
@@ -68,6 +82,29 @@ public class InfluxDBConfiguration {
         addCategoryTag = getConfigBooleanValue(config, ADD_CATEGORY_TAG_PARAM, false);
         addLabelTag = getConfigBooleanValue(config, ADD_LABEL_TAG_PARAM, false);
         addTypeTag = getConfigBooleanValue(config, ADD_TYPE_TAG_PARAM, false);
+
+        batchSize = getConfigIntValue(config, BATCH_SIZE_PARAM, 1000);
+        flushInterval = getConfigIntValue(config, FLUSH_INTERVAL_PARAM, 1000);
+        maxQueueSize = getConfigIntValue(config, MAX_QUEUE_SIZE_PARAM, 10000);
+        spillFile = ((String) config.getOrDefault(SPILL_FILE_PARAM, "")).trim();
+
+        downsampleBuckets = getConfigIntValue(config, DOWNSAMPLE_BUCKETS_PARAM, 0);
+        downsampleFunction = parseAggregation(
+                (String) config.getOrDefault(DOWNSAMPLE_FUNCTION_PARAM, InfluxDBAggregation.MEAN.name()));
+    }
+
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue) {
+        Object object = config.get(key);
+        try {
+            if (object instanceof Number) {
+                return ((Number) object).intValue();
+            } else if (object instanceof String && !((String) object).isBlank()) {
+                return Integer.parseInt(((String) object).trim());
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}, using {}", object, key, defaultValue);
+        }
+        return defaultValue;
     }
 
     private static boolean getConfigBooleanValue(Map<String, Object> config, String key, boolean defaultValue) {
@@ -81,6 +118,15 @@ public class InfluxDBConfiguration {
         }
     }
 
+    private InfluxDBAggregation parseAggregation(String value) {
+        try {
+            return InfluxDBAggregation.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid downsample function {}, using {}", value, InfluxDBAggregation.MEAN);
+            return InfluxDBAggregation.MEAN;
+        }
+    }
+
     private InfluxDBVersion parseInfluxVersion(@Nullable String value) {
         try {
             return Optional.ofNullable(value).map(InfluxDBVersion::valueOf).orElse(InfluxDBVersion.UNKNOWN);
@@ -169,13 +215,40 @@ public class InfluxDBConfiguration {
         return version;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public String getSpillFile() {
+        return spillFile;
+    }
+
+    public int getDownsampleBuckets() {
+        return downsampleBuckets;
+    }
+
+    public InfluxDBAggregation getDownsampleFunction() {
+        return downsampleFunction;
+    }
+
     @Override
     public String toString() {
         String sb = "InfluxDBConfiguration{" + "url='" + url + '\'' + ", user='" + user + '\'' + ", password='"
                 + password.length() + " chars" + '\'' + ", token='" + token.length() + " chars" + '\''
                 + ", databaseName='" + databaseName + '\'' + ", retentionPolicy='" + retentionPolicy + '\''
                 + ", version=" + version + ", replaceUnderscore=" + replaceUnderscore + ", addCategoryTag="
-                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + '}';
+                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + ", batchSize="
+                + batchSize + ", flushInterval=" + flushInterval + ", maxQueueSize=" + maxQueueSize + ", spillFile='"
+                + spillFile + '\'' + ", downsampleBuckets=" + downsampleBuckets + ", downsampleFunction="
+                + downsampleFunction + '}';
         return sb;
     }
 
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.FIELD_VALUE_NAME;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Encodes {@link InfluxPoint}s to the InfluxDB line protocol, which is understood by InfluxDB 1.X and 2.X. The values
+ * are encoded like the client libraries do, so the field types of existing measurements do not change.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBLineProtocolUtils {
+
+    /**
+     * Encodes a point with millisecond precision.
+     *
+     * @param point the point to encode
+     * @return the line protocol record, without line break
+     */
+    public static String toLineProtocol(InfluxPoint point) {
+        StringBuilder sb = new StringBuilder(64);
+        escape(sb, point.getMeasurementName(), false);
+        // sorted tags are recommended for the best write performance
+        for (Map.Entry<String, String> tag : new TreeMap<>(point.getTags()).entrySet()) {
+            if (tag.getValue().isEmpty()) {
+                // empty tag values are not allowed
+                continue;
+            }
+            sb.append(',');
+            escape(sb, tag.getKey(), true);
+            sb.append('=');
+            escape(sb, tag.getValue(), true);
+        }
+        sb.append(' ').append(FIELD_VALUE_NAME).append('=');
+        appendValue(sb, point.getValue());
+        sb.append(' ').append(point.getTime().toEpochMilli());
+        return sb.toString();
+    }
+
+    private static void appendValue(StringBuilder sb, @Nullable Object value) {
+        if (value instanceof BigDecimal) {
+            sb.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Double || value instanceof Float) {
+            sb.append(BigDecimal.valueOf(((Number) value).doubleValue()).toPlainString());
+        } else if (value instanceof Number) {
+            sb.append(value).append('i');
+        } else if (value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof String) {
+            sb.append('"');
+            String string = (String) value;
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        } else if (value == null) {
+            sb.append("\"\"");
+        } else {
+            throw new UnnexpectedConditionException("Not expected value type");
+        }
+    }
+
+    private static void escape(StringBuilder sb, String value, boolean escapeEquals) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == ' ' || (escapeEquals && c == '=')) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+    }
+}
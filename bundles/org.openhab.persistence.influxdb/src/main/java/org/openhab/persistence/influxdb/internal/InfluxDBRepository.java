@@ -61,14 +61,17 @@ public interface InfluxDBRepository {
      * Executes Flux query
      *
      * @param query Query
-     * @return Query results
+     * @return Query results, streamed from the database while they are iterated. Each iteration executes the query
+     *         again.
      */
-    List<InfluxRow> query(String query);
+    Iterable<InfluxRow> query(String query);
 
     /**
-     * Write point to database
+     * Write points to database with a single request
      *
-     * @param influxPoint Point to write
+     * @param records Points encoded in the line protocol with millisecond precision, see
+     *            {@link InfluxDBLineProtocolUtils}
+     * @return True if the points have been written, false if the write should be retried
      */
-    void write(InfluxPoint influxPoint);
+    boolean writeRecords(List<String> records);
 }
@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers points encoded in the line protocol and writes them in batches through an {@link InfluxDBRepository}, for
+ * InfluxDB 1.X and 2.X alike. A batch is written when the batch size is reached or the flush interval has passed.
+ *
+ * Points of a failed write are kept for the next flush: in the spill file, if one is configured, otherwise at the
+ * head of the queue. If the queue is full, new points go to the spill file or the oldest queued point is dropped.
+ * While the repository is not connected, no writes are attempted and the points are kept the same way.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteBuffer {
+    // limits the disk usage during long outages
+    static final long MAX_SPILL_FILE_SIZE = 100L * 1024 * 1024;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxDBWriteBuffer.class);
+
+    private final InfluxDBRepository repository;
+    private final int batchSize;
+    private final BlockingDeque<String> queue;
+    private final @Nullable Path spillFile;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("influxdb-writer"));
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean stopped;
+    private final Object spillLock = new Object();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private long droppedReported;
+
+    /**
+     * @param repository the repository the points are written to
+     * @param batchSize maximum number of points written with one request, also triggers a flush when reached
+     * @param flushInterval interval in milliseconds in which queued points are written
+     * @param maxQueueSize maximum number of points kept in memory
+     * @param spillFile file for points which cannot be kept in memory or written, <code>null</code> to drop them
+     */
+    public InfluxDBWriteBuffer(InfluxDBRepository repository, int batchSize, long flushInterval, int maxQueueSize,
+            @Nullable Path spillFile) {
+        this.repository = repository;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new LinkedBlockingDeque<>(Math.max(this.batchSize, maxQueueSize));
+        this.spillFile = spillFile;
+        long interval = Math.max(1, flushInterval);
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a point for writing.
+     *
+     * @param point the point encoded in the line protocol
+     */
+    public void enqueue(String point) {
+        queued.incrementAndGet();
+        if (stopped) {
+            // a store which raced the deactivation of the service, the queue is not written anymore
+            dropped.incrementAndGet();
+            logger.debug("InfluxDB write buffer is stopped, dropping point {}", point);
+            return;
+        }
+        if (!queue.offerLast(point) && !spill(List.of(point))) {
+            // make room for the new point
+            while (!queue.offerLast(point)) {
+                if (queue.pollFirst() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // stopped, the queue is written by stop()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the spilled and all queued points. Stops at the first failed write, the remaining points are retried with
+     * the next flush.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (!repository.isConnected()) {
+            logger.trace("InfluxDB is not connected, keeping {} queued points", queue.size());
+        } else if (writeSpilledPoints()) {
+            while (!queue.isEmpty()) {
+                List<String> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+                queue.drainTo(batch, batchSize);
+                if (!write(batch)) {
+                    keepForRetry(batch);
+                    break;
+                }
+            }
+        }
+        long droppedCount = dropped.get();
+        if (droppedCount != droppedReported) {
+            logger.warn("{} points could not be written to InfluxDB and have been dropped, {}",
+                    droppedCount - droppedReported, this);
+            droppedReported = droppedCount;
+        }
+    }
+
+    /**
+     * Stops the periodic flush and tries to write the points still queued, after a flush in progress has completed.
+     * Points which cannot be written are moved to the spill file or dropped.
+     */
+    public void stop() {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("The running InfluxDB write did not complete within {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        List<String> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty() && !spill(remaining)) {
+            dropped.addAndGet(remaining.size());
+            logger.warn("{} points could not be written to InfluxDB and have been dropped, {}", remaining.size(),
+                    this);
+        }
+        logger.debug("InfluxDB write buffer stopped: {}", this);
+    }
+
+    private boolean write(List<String> batch) {
+        try {
+            if (repository.writeRecords(batch)) {
+                written.addAndGet(batch.size());
+                return true;
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Writing {} points to InfluxDB failed: {}", batch.size(), e.getMessage());
+        }
+        retried.addAndGet(batch.size());
+        return false;
+    }
+
+    private void keepForRetry(List<String> batch) {
+        if (spill(batch)) {
+            return;
+        }
+        // back to the head of the queue in their original order, dropping them if new points took their place
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) {
+                dropped.addAndGet(i + 1);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Appends points to the spill file.
+     *
+     * @return false if there is no spill file or the points could not be written to it
+     */
+    private boolean spill(List<String> points) {
+        Path file = spillFile;
+        if (file == null) {
+            return false;
+        }
+        synchronized (spillLock) {
+            return spill(file, points);
+        }
+    }
+
+    private boolean spill(Path file, List<String> points) {
+        try {
+            if (Files.exists(file) && Files.size(file) > MAX_SPILL_FILE_SIZE) {
+                dropped.addAndGet(points.size());
+                return true;
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String point : points) {
+                    // the spill file has one point per line
+                    if (point.indexOf('\n') >= 0) {
+                        dropped.incrementAndGet();
+                        continue;
+                    }
+                    writer.write(point);
+                    writer.newLine();
+                    spilled.incrementAndGet();
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Cannot write points to spill file '{}': {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the spilled points in batches. The spill file is renamed before, so points can be spilled in the meantime.
+     *
+     * @return true if there are no spilled points left
+     */
+    private boolean writeSpilledPoints() {
+        Path file = spillFile;
+        if (file == null) {
+            return true;
+        }
+        Path sendingFile = file.resolveSibling(file.getFileName() + ".sending");
+        while (true) {
+            synchronized (spillLock) {
+                try {
+                    if (!Files.exists(sendingFile)) {
+                        if (!Files.exists(file)) {
+                            return true;
+                        }
+                        Files.move(file, sendingFile);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Cannot rename spill file '{}': {}", file, e.getMessage());
+                    return false;
+                }
+            }
+            if (!writeSpillFile(sendingFile)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes the points of a spill file in batches. The points not written yet stay in the file.
+     *
+     * @return true if all points have been written and the file has been deleted
+     */
+    private boolean writeSpillFile(Path file) {
+        Path remainingFile = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean complete = true;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> batch = readBatch(reader);
+            while (!batch.isEmpty()) {
+                if (!write(batch)) {
+                    complete = false;
+                    try (BufferedWriter writer = Files.newBufferedWriter(remainingFile, StandardCharsets.UTF_8)) {
+                        for (String point : batch) {
+                            writer.write(point);
+                            writer.newLine();
+                        }
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                    break;
+                }
+                batch = readBatch(reader);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read points from spill file '{}': {}", file, e.getMessage());
+            return false;
+        }
+        try {
+            if (complete) {
+                Files.delete(file);
+                logger.info("Wrote all spilled points of '{}' to InfluxDB", file);
+            } else {
+                Files.move(remainingFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot update spill file '{}': {}", file, e.getMessage());
+            return false;
+        }
+        return complete;
+    }
+
+    private List<String> readBatch(BufferedReader reader) throws IOException {
+        List<String> batch = new ArrayList<>();
+        String line;
+        while (batch.size() < batchSize && (line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                batch.add(line);
+            }
+        }
+        return batch;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSpilledCount() {
+        return spilled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "InfluxDBWriteBuffer{" + "queueSize=" + getQueueSize() + ", queued=" + getQueuedCount() + ", written="
+                + getWrittenCount() + ", retried=" + getRetriedCount() + ", dropped=" + getDroppedCount()
+                + ", spilled=" + getSpilledCount() + '}';
+    }
+}
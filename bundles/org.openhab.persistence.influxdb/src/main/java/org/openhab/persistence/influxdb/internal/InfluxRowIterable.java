@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterable over the rows of a query, which are streamed from the client callbacks while they are iterated. Each
+ * iteration executes the query again. Only a limited number of rows is kept in memory: if the iteration is slower than
+ * the database, the client callback waits, and if the iteration is abandoned, the query is cancelled after a timeout.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxRowIterable implements Iterable<InfluxRow> {
+    static final int MAX_BUFFERED_ROWS = 1000;
+    private static final long TIMEOUT_MILLIS = 60000;
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxRowIterable.class);
+
+    /**
+     * Receives the rows of a streaming query from the client callbacks.
+     */
+    public interface RowSink {
+        /**
+         * @param row the next row
+         * @return false if the rows are not needed anymore, the query should be cancelled then
+         */
+        boolean next(InfluxRow row);
+
+        void complete();
+
+        void error(Throwable error);
+    }
+
+    /**
+     * Starts a streaming query, the rows are passed to the sink from the client callbacks.
+     */
+    @FunctionalInterface
+    public interface QueryStarter {
+        void start(RowSink sink);
+    }
+
+    private final String query;
+    private final QueryStarter starter;
+    private final long timeoutMillis;
+
+    /**
+     * @param query the query, for logging
+     * @param starter starts the query for each iteration
+     */
+    public InfluxRowIterable(String query, QueryStarter starter) {
+        this(query, starter, TIMEOUT_MILLIS);
+    }
+
+    // Visible for testing
+    InfluxRowIterable(String query, QueryStarter starter, long timeoutMillis) {
+        this.query = query;
+        this.starter = starter;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Iterator<InfluxRow> iterator() {
+        RowIterator iterator = new RowIterator();
+        try {
+            starter.start(iterator);
+        } catch (RuntimeException e) {
+            iterator.error(e);
+        }
+        return iterator;
+    }
+
+    private class RowIterator implements Iterator<InfluxRow>, RowSink {
+        // marks the end of the rows, the rows are never null
+        private final Object end = new Object();
+        private final BlockingQueue<Object> rows = new LinkedBlockingQueue<>(MAX_BUFFERED_ROWS);
+        private volatile boolean abandoned;
+        private @Nullable InfluxRow next;
+        private boolean done;
+
+        @Override
+        public boolean next(InfluxRow row) {
+            try {
+                if (!abandoned && rows.offer(row, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!abandoned) {
+                logger.debug("Rows of query '{}' have not been read for {} ms, cancelling it", query, timeoutMillis);
+                abandoned = true;
+            }
+            return false;
+        }
+
+        @Override
+        public void complete() {
+            finish();
+        }
+
+        @Override
+        public void error(Throwable error) {
+            logger.warn("Query '{}' failed: {}", query, error.getMessage());
+            finish();
+        }
+
+        private void finish() {
+            try {
+                // the end marker must not be lost, unless the iteration has been abandoned
+                while (!abandoned && !rows.offer(end, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    abandoned = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (done) {
+                return false;
+            }
+            try {
+                Object row = rows.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                if (row == null) {
+                    logger.warn("Query '{}' returned no rows for {} ms, stopping", query, timeoutMillis);
+                } else if (row != end) {
+                    next = (InfluxRow) row;
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done = true;
+            abandoned = true;
+            rows.clear();
+            return false;
+        }
+
+        @Override
+        public InfluxRow next() {
+            InfluxRow row = next;
+            if (row == null && hasNext()) {
+                row = next;
+            }
+            if (row == null) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            return row;
+        }
+    }
+}
@@ -13,6 +13,7 @@
 package org.openhab.persistence.influxdb.internal.influx1;
 
 import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.*;
+import static org.influxdb.querybuilder.time.DurationLiteral.SECOND;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
@@ -22,11 +23,13 @@ import org.influxdb.dto.Query;
 import org.influxdb.querybuilder.Appender;
 import org.influxdb.querybuilder.BuiltQuery;
 import org.influxdb.querybuilder.Select;
+import org.influxdb.querybuilder.SelectionQueryImpl;
 import org.influxdb.querybuilder.Where;
 import org.influxdb.querybuilder.clauses.SimpleClause;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregation;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataUtils;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
@@ -50,15 +53,37 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
 
     @Override
     public String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        return createQuery(criteria, retentionPolicy, 0, null);
+    }
+
+    @Override
+    public String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, int windowSeconds,
+            InfluxDBAggregation aggregation) {
+        if (criteria.getBeginDate() == null) {
+            // the windows would start at the epoch
+            throw new IllegalArgumentException("Aggregated queries need a begin date");
+        }
+        return createQuery(criteria, retentionPolicy, Math.max(1, windowSeconds), aggregation);
+    }
+
+    private String createQuery(FilterCriteria criteria, String retentionPolicy, int windowSeconds,
+            @Nullable InfluxDBAggregation aggregation) {
         final String tableName;
         final String itemName = criteria.getItemName();
         boolean hasCriteriaName = itemName != null;
 
         tableName = calculateTableName(itemName);
 
-        Select select = select().column("\"" + COLUMN_VALUE_NAME_V1 + "\"::field")
-                .column("\"" + TAG_ITEM_NAME + "\"::tag")
-                .fromRaw(null, fullQualifiedTableName(retentionPolicy, tableName, hasCriteriaName));
+        SelectionQueryImpl selection;
+        if (aggregation != null) {
+            // the item name is returned as tag of the series, as tags cannot be selected together with aggregations
+            selection = select().raw(aggregation.getInfluxQLFunction() + "(\"" + COLUMN_VALUE_NAME_V1 + "\") AS \""
+                    + COLUMN_VALUE_NAME_V1 + "\"");
+        } else {
+            selection = select().column("\"" + COLUMN_VALUE_NAME_V1 + "\"::field")
+                    .column("\"" + TAG_ITEM_NAME + "\"::tag");
+        }
+        Select select = selection.fromRaw(null, fullQualifiedTableName(retentionPolicy, tableName, hasCriteriaName));
 
         Where where = select.where();
 
@@ -81,13 +106,17 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
                     stateToObject(criteria.getState())));
         }
 
+        if (aggregation != null) {
+            select = select.groupBy(time((long) windowSeconds, SECOND), TAG_ITEM_NAME);
+        }
+
         if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
             select = select.orderBy(desc());
         } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
             select = select.orderBy(asc());
         }
 
-        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+        if (aggregation == null && criteria.getPageSize() != Integer.MAX_VALUE) {
             if (criteria.getPageNumber() != 0) {
                 select = select.limit(criteria.getPageSize(), criteria.getPageSize() * criteria.getPageNumber());
             } else {
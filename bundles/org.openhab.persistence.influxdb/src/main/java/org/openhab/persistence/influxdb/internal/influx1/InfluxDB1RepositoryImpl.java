@@ -14,11 +14,9 @@ package org.openhab.persistence.influxdb.internal.influx1;
 
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.COLUMN_TIME_NAME_V1;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.COLUMN_VALUE_NAME_V1;
-import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.FIELD_VALUE_NAME;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.TAG_ITEM_NAME;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -30,15 +28,14 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.influxdb.InfluxDB;
 import org.influxdb.InfluxDBFactory;
-import org.influxdb.dto.Point;
 import org.influxdb.dto.Pong;
 import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
-import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
-import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
+import org.openhab.persistence.influxdb.internal.InfluxRowIterable;
+import org.openhab.persistence.influxdb.internal.InfluxRowIterable.RowSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +49,11 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
+    // number of points the server sends with one chunk of a streaming query
+    private static final int QUERY_CHUNK_SIZE = 1000;
+    // the client ends chunked results with a result of this error
+    private static final String QUERY_DONE = "DONE";
+
     private final Logger logger = LoggerFactory.getLogger(InfluxDB1RepositoryImpl.class);
     private InfluxDBConfiguration configuration;
     @Nullable
@@ -72,7 +74,7 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                 configuration.getPassword());
         createdClient.setDatabase(configuration.getDatabaseName());
         createdClient.setRetentionPolicy(configuration.getRetentionPolicy());
-        createdClient.enableBatch(200, 100, TimeUnit.MILLISECONDS);
+        // points are batched by the InfluxDBWriteBuffer
         this.client = createdClient;
         return checkConnectionStatus();
     }
@@ -115,105 +117,136 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     }
 
     @Override
-    public void write(InfluxPoint point) {
+    public boolean writeRecords(List<String> records) {
         final InfluxDB currentClient = this.client;
         if (currentClient != null) {
-            Point clientPoint = convertPointToClientFormat(point);
-            currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(), clientPoint);
-        } else {
-            logger.warn("Write point {} ignored due to client isn't connected", point);
-        }
-    }
-
-    private Point convertPointToClientFormat(InfluxPoint point) {
-        Point.Builder clientPoint = Point.measurement(point.getMeasurementName()).time(point.getTime().toEpochMilli(),
-                TimeUnit.MILLISECONDS);
-        setPointValue(point.getValue(), clientPoint);
-        point.getTags().entrySet().forEach(e -> clientPoint.tag(e.getKey(), e.getValue()));
-        return clientPoint.build();
-    }
-
-    private void setPointValue(@Nullable Object value, Point.Builder point) {
-        if (value instanceof String) {
-            point.addField(FIELD_VALUE_NAME, (String) value);
-        } else if (value instanceof Number) {
-            point.addField(FIELD_VALUE_NAME, (Number) value);
-        } else if (value instanceof Boolean) {
-            point.addField(FIELD_VALUE_NAME, (Boolean) value);
-        } else if (value == null) {
-            point.addField(FIELD_VALUE_NAME, (String) null);
+            try {
+                currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(),
+                        InfluxDB.ConsistencyLevel.ONE, TimeUnit.MILLISECONDS, records);
+                return true;
+            } catch (RuntimeException e) {
+                handleDatabaseException(e);
+                return false;
+            }
         } else {
-            throw new UnnexpectedConditionException("Not expected value type");
+            logger.warn("Write of {} points ignored due to client isn't connected", records.size());
+            return false;
         }
     }
 
     @Override
-    public List<InfluxRow> query(String query) {
+    public Iterable<InfluxRow> query(String query) {
         final InfluxDB currentClient = client;
         if (currentClient != null) {
             Query parsedQuery = new Query(query, configuration.getDatabaseName());
-            List<QueryResult.Result> results = currentClient.query(parsedQuery, TimeUnit.MILLISECONDS).getResults();
-            return convertClientResutToRepository(results);
+            return new InfluxRowIterable(query,
+                    sink -> currentClient.query(parsedQuery, QUERY_CHUNK_SIZE, (cancellable, queryResult) -> {
+                        if (!convertClientResultToRepository(queryResult, sink)) {
+                            cancellable.cancel();
+                        }
+                    }, sink::complete, sink::error));
         } else {
             logger.warn("Returning empty list because queryAPI isn't present");
             return Collections.emptyList();
         }
     }
 
-    private List<InfluxRow> convertClientResutToRepository(List<QueryResult.Result> results) {
-        List<InfluxRow> rows = new ArrayList<>();
-        for (QueryResult.Result result : results) {
-            List<QueryResult.Series> seriess = result.getSeries();
-            if (result.getError() != null) {
-                logger.warn("{}", result.getError());
-                continue;
-            }
-            if (seriess == null) {
-                logger.debug("query returned no series");
-            } else {
-                for (QueryResult.Series series : seriess) {
-                    logger.trace("series {}", series.toString());
-                    List<List<@Nullable Object>> valuess = series.getValues();
-                    if (valuess == null) {
-                        logger.debug("query returned no values");
-                    } else {
-                        List<String> columns = series.getColumns();
-                        logger.trace("columns {}", columns);
-                        if (columns != null) {
-                            Integer timestampColumn = null;
-                            Integer valueColumn = null;
-                            Integer itemNameColumn = null;
-                            for (int i = 0; i < columns.size(); i++) {
-                                String columnName = columns.get(i);
-                                if (columnName.equals(COLUMN_TIME_NAME_V1)) {
-                                    timestampColumn = i;
-                                } else if (columnName.equals(COLUMN_VALUE_NAME_V1)) {
-                                    valueColumn = i;
-                                } else if (columnName.equals(TAG_ITEM_NAME)) {
-                                    itemNameColumn = i;
-                                }
-                            }
-                            if (valueColumn == null || timestampColumn == null) {
-                                throw new IllegalStateException("missing column");
-                            }
-                            for (int i = 0; i < valuess.size(); i++) {
-                                Double rawTime = (Double) Objects.requireNonNull(valuess.get(i).get(timestampColumn));
-                                Instant time = Instant.ofEpochMilli(rawTime.longValue());
-                                @Nullable
-                                Object value = valuess.get(i).get(valueColumn);
-                                var currentI = i;
-                                String itemName = Optional.ofNullable(itemNameColumn)
-                                        .flatMap(inc -> Optional.ofNullable((String) valuess.get(currentI).get(inc)))
-                                        .orElse(series.getName());
-                                logger.trace("adding historic item {}: time {} value {}", itemName, time, value);
-                                rows.add(new InfluxRow(time, itemName, value));
-                            }
+    /**
+     * Passes the rows of a chunk to the sink
+     *
+     * @return false if the query should be cancelled
+     */
+    private boolean convertClientResultToRepository(QueryResult queryResult, RowSink sink) {
+        String error = queryResult.getError();
+        if (QUERY_DONE.equals(error)) {
+            // the onComplete callback follows
+            return true;
+        } else if (error != null) {
+            sink.error(new IllegalStateException(error));
+            return false;
+        }
+        List<QueryResult.Result> results = queryResult.getResults();
+        if (results == null) {
+            return true;
+        }
+        try {
+            for (QueryResult.Result result : results) {
+                List<QueryResult.Series> seriess = result.getSeries();
+                if (result.getError() != null) {
+                    logger.warn("{}", result.getError());
+                    continue;
+                }
+                if (seriess == null) {
+                    logger.debug("query returned no series");
+                } else {
+                    for (QueryResult.Series series : seriess) {
+                        if (!convertSeries(series, sink)) {
+                            return false;
                         }
                     }
                 }
             }
+        } catch (RuntimeException e) {
+            sink.error(e);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean convertSeries(QueryResult.Series series, RowSink sink) {
+        logger.trace("series {}", series.toString());
+        List<List<@Nullable Object>> valuess = series.getValues();
+        List<String> columns = series.getColumns();
+        logger.trace("columns {}", columns);
+        if (valuess == null || columns == null) {
+            logger.debug("query returned no values");
+            return true;
+        }
+        Integer timestampColumn = null;
+        Integer valueColumn = null;
+        Integer itemNameColumn = null;
+        for (int i = 0; i < columns.size(); i++) {
+            String columnName = columns.get(i);
+            if (columnName.equals(COLUMN_TIME_NAME_V1)) {
+                timestampColumn = i;
+            } else if (columnName.equals(COLUMN_VALUE_NAME_V1)) {
+                valueColumn = i;
+            } else if (columnName.equals(TAG_ITEM_NAME)) {
+                itemNameColumn = i;
+            }
+        }
+        if (valueColumn == null || timestampColumn == null) {
+            throw new IllegalStateException("missing column");
+        }
+        // aggregated queries are grouped by the item tag instead of returning it as column
+        Map<String, String> tags = series.getTags();
+        @Nullable
+        String tagItemName = tags != null ? tags.get(TAG_ITEM_NAME) : null;
+        String seriesItemName = tagItemName != null ? tagItemName : series.getName();
+        for (List<@Nullable Object> values : valuess) {
+            @Nullable
+            Object value = values.get(valueColumn);
+            if (value == null) {
+                // empty windows of aggregated queries have no value
+                continue;
+            }
+            Instant time = parseTime(Objects.requireNonNull(values.get(timestampColumn)));
+            String itemName = Optional.ofNullable(itemNameColumn)
+                    .flatMap(inc -> Optional.ofNullable((String) values.get(inc))).orElse(seriesItemName);
+            logger.trace("adding historic item {}: time {} value {}", itemName, time, value);
+            if (!sink.next(new InfluxRow(time, itemName, value))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Instant parseTime(Object rawTime) {
+        // chunked queries return the time in RFC3339 format instead of the requested precision
+        if (rawTime instanceof Number) {
+            return Instant.ofEpochMilli(((Number) rawTime).longValue());
         }
-        return rows;
+        return Instant.parse(rawTime.toString());
     }
 
     @Override
@@ -20,9 +20,11 @@ import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtil
 import java.time.temporal.ChronoUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.MetadataRegistry;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
+import org.openhab.persistence.influxdb.internal.InfluxDBAggregation;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataUtils;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
@@ -50,6 +52,21 @@ public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
 
     @Override
     public String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        return createQuery(criteria, retentionPolicy, 0, null);
+    }
+
+    @Override
+    public String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, int windowSeconds,
+            InfluxDBAggregation aggregation) {
+        if (criteria.getBeginDate() == null) {
+            // the windows would start at the epoch
+            throw new IllegalArgumentException("Aggregated queries need a begin date");
+        }
+        return createQuery(criteria, retentionPolicy, Math.max(1, windowSeconds), aggregation);
+    }
+
+    private String createQuery(FilterCriteria criteria, String retentionPolicy, int windowSeconds,
+            @Nullable InfluxDBAggregation aggregation) {
         Flux flux = Flux.from(retentionPolicy);
 
         RangeFlux range = flux.range();
@@ -79,12 +96,16 @@ public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
             flux = flux.filter(restrictions);
         }
 
+        if (aggregation != null) {
+            flux = flux.aggregateWindow((long) windowSeconds, ChronoUnit.SECONDS, aggregation.getFluxFunction());
+        }
+
         if (criteria.getOrdering() != null) {
             boolean desc = criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING;
             flux = flux.sort().withDesc(desc).withColumns(new String[] { COLUMN_TIME_NAME_V2 });
         }
 
-        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+        if (aggregation == null && criteria.getPageSize() != Integer.MAX_VALUE) {
             flux = flux.limit(criteria.getPageSize()).withPropertyValue("offset",
                     criteria.getPageNumber() * criteria.getPageSize());
         }
@@ -19,17 +19,14 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBConstants;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
-import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
-import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
+import org.openhab.persistence.influxdb.internal.InfluxRowIterable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,10 +34,10 @@ import com.influxdb.client.InfluxDBClient;
 import com.influxdb.client.InfluxDBClientFactory;
 import com.influxdb.client.InfluxDBClientOptions;
 import com.influxdb.client.QueryApi;
-import com.influxdb.client.WriteApi;
+import com.influxdb.client.WriteApiBlocking;
 import com.influxdb.client.domain.Ready;
 import com.influxdb.client.domain.WritePrecision;
-import com.influxdb.client.write.Point;
+import com.influxdb.query.FluxRecord;
 import com.influxdb.query.FluxTable;
 
 /**
@@ -57,7 +54,7 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     @Nullable
     private QueryApi queryAPI;
     @Nullable
-    private WriteApi writeAPI;
+    private WriteApiBlocking writeAPI;
 
     public InfluxDB2RepositoryImpl(InfluxDBConfiguration configuration) {
         this.configuration = configuration;
@@ -94,7 +91,8 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         this.client = createdClient;
         logger.debug("Succesfully connected to InfluxDB. Instance ready={}", createdClient.ready());
         queryAPI = createdClient.getQueryApi();
-        writeAPI = createdClient.getWriteApi();
+        // points are batched by the InfluxDBWriteBuffer, so failed writes are reported to it
+        writeAPI = createdClient.getWriteApiBlocking();
         return checkConnectionStatus();
     }
 
@@ -134,70 +132,54 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     }
 
     /**
-     * Write point to database
+     * Write points to database
      *
-     * @param point
+     * @param records
      */
     @Override
-    public void write(InfluxPoint point) {
-        final WriteApi currentWriteAPI = writeAPI;
+    public boolean writeRecords(List<String> records) {
+        final WriteApiBlocking currentWriteAPI = writeAPI;
         if (currentWriteAPI != null) {
-            currentWriteAPI.writePoint(convertPointToClientFormat(point));
-        } else {
-            logger.warn("Write point {} ignored due to writeAPI isn't present", point);
-        }
-    }
-
-    private Point convertPointToClientFormat(InfluxPoint point) {
-        Point clientPoint = Point.measurement(point.getMeasurementName()).time(point.getTime(), WritePrecision.MS);
-        setPointValue(point.getValue(), clientPoint);
-        point.getTags().entrySet().forEach(e -> clientPoint.addTag(e.getKey(), e.getValue()));
-        return clientPoint;
-    }
-
-    private void setPointValue(@Nullable Object value, Point point) {
-        if (value instanceof String) {
-            point.addField(FIELD_VALUE_NAME, (String) value);
-        } else if (value instanceof Number) {
-            point.addField(FIELD_VALUE_NAME, (Number) value);
-        } else if (value instanceof Boolean) {
-            point.addField(FIELD_VALUE_NAME, (Boolean) value);
-        } else if (value == null) {
-            point.addField(FIELD_VALUE_NAME, (String) null);
+            try {
+                currentWriteAPI.writeRecords(WritePrecision.MS, records);
+                return true;
+            } catch (RuntimeException e) {
+                logger.warn("database error: {}", e.getMessage());
+                return false;
+            }
         } else {
-            throw new UnnexpectedConditionException("Not expected value type");
+            logger.warn("Write of {} points ignored due to writeAPI isn't present", records.size());
+            return false;
         }
     }
 
     /**
-     * Executes Flux query
+     * Executes Flux query, the records are streamed while the result is iterated
      *
      * @param query Query
      * @return Query results
      */
     @Override
-    public List<InfluxRow> query(String query) {
+    public Iterable<InfluxRow> query(String query) {
         final QueryApi currentQueryAPI = queryAPI;
         if (currentQueryAPI != null) {
-            List<FluxTable> clientResult = currentQueryAPI.query(query);
-            return convertClientResutToRepository(clientResult);
+            return new InfluxRowIterable(query, sink -> currentQueryAPI.query(query, (cancellable, record) -> {
+                // empty windows of aggregated queries have no value
+                if (record.getValueByKey(COLUMN_VALUE_NAME_V2) != null && !sink.next(convertRecord(record))) {
+                    cancellable.cancel();
+                }
+            }, sink::error, sink::complete));
         } else {
             logger.warn("Returning empty list because queryAPI isn't present");
             return Collections.emptyList();
         }
     }
 
-    private List<InfluxRow> convertClientResutToRepository(List<FluxTable> clientResult) {
-        return clientResult.stream().flatMap(this::mapRawResultToHistoric).collect(Collectors.toList());
-    }
-
-    private Stream<InfluxRow> mapRawResultToHistoric(FluxTable rawRow) {
-        return rawRow.getRecords().stream().map(r -> {
-            String itemName = (String) r.getValueByKey(InfluxDBConstants.TAG_ITEM_NAME);
-            Object value = r.getValueByKey(COLUMN_VALUE_NAME_V2);
-            Instant time = (Instant) r.getValueByKey(COLUMN_TIME_NAME_V2);
-            return new InfluxRow(time, itemName, value);
-        });
+    private InfluxRow convertRecord(FluxRecord record) {
+        String itemName = (String) record.getValueByKey(InfluxDBConstants.TAG_ITEM_NAME);
+        Object value = record.getValueByKey(COLUMN_VALUE_NAME_V2);
+        Instant time = (Instant) record.getValueByKey(COLUMN_TIME_NAME_V2);
+        return new InfluxRow(time, itemName, value);
     }
 
     /**
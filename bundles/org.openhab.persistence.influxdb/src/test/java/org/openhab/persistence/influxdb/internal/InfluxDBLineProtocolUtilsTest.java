@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBLineProtocolUtilsTest {
+    private static final Instant TIME = Instant.ofEpochMilli(1558302027124L);
+
+    @Test
+    public void decimalValueIsWrittenAsFloat() {
+        InfluxPoint point = InfluxPoint.newBuilder("speedtest").withTime(TIME).withValue(new BigDecimal("5.50"))
+                .withTag("item", "speedtest").build();
+
+        assertThat(InfluxDBLineProtocolUtils.toLineProtocol(point),
+                equalTo("speedtest,item=speedtest value=5.50 1558302027124"));
+    }
+
+    @Test
+    public void integerValueIsWrittenAsInteger() {
+        InfluxPoint point = InfluxPoint.newBuilder("switch").withTime(TIME).withValue(1).withTag("item", "switch")
+                .build();
+
+        assertThat(InfluxDBLineProtocolUtils.toLineProtocol(point),
+                equalTo("switch,item=switch value=1i 1558302027124"));
+    }
+
+    @Test
+    public void stringValueIsQuotedAndEscaped() {
+        InfluxPoint point = InfluxPoint.newBuilder("text").withTime(TIME).withValue("say \"hi\" C:\\").build();
+
+        assertThat(InfluxDBLineProtocolUtils.toLineProtocol(point),
+                equalTo("text value=\"say \\\"hi\\\" C:\\\\\" 1558302027124"));
+    }
+
+    @Test
+    public void tagsAreSortedAndEscaped() {
+        InfluxPoint point = InfluxPoint.newBuilder("living room,temp").withTime(TIME).withValue(new BigDecimal("21"))
+                .withTag("item", "temp").withTag("floor", "ground floor").withTag("a=b", "c,d").withTag("empty", "")
+                .build();
+
+        assertThat(InfluxDBLineProtocolUtils.toLineProtocol(point), equalTo(
+                "living\\ room\\,temp,a\\=b=c\\,d,floor=ground\\ floor,item=temp value=21 1558302027124"));
+    }
+}
@@ -12,10 +12,13 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jdt.annotation.DefaultLocation;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -93,14 +96,30 @@ public class InfluxDBPersistenceServiceTest {
         instance.activate(validConfig);
         when(influxDBRepository.isConnected()).thenReturn(true);
         instance.store(ItemTestHelper.createNumberItem("number", 5));
-        verify(influxDBRepository).write(any());
+        // deactivation writes the buffered points
+        instance.deactivate();
+        verify(influxDBRepository).writeRecords(anyList());
     }
 
     @Test
-    public void storeItemWithDisconnectedRepositoryIsIgnored() {
+    public void storeItemWithDisconnectedRepositoryIsWrittenAfterReconnect() {
+        AtomicBoolean connected = new AtomicBoolean(false);
+        when(influxDBRepository.isConnected()).thenAnswer(invocation -> connected.get());
+        when(influxDBRepository.writeRecords(anyList())).thenReturn(true);
         instance.activate(validConfig);
-        when(influxDBRepository.isConnected()).thenReturn(false);
+        InfluxDBWriteBuffer writeBuffer = instance.getWriteBuffer();
+
         instance.store(ItemTestHelper.createNumberItem("number", 5));
-        verify(influxDBRepository, never()).write(any());
+        instance.store(ItemTestHelper.createNumberItem("number", 6));
+        writeBuffer.flush();
+        verify(influxDBRepository, never()).writeRecords(anyList());
+        assertThat(writeBuffer.getQueueSize(), is(2));
+
+        connected.set(true);
+        writeBuffer.flush();
+        verify(influxDBRepository, atLeastOnce()).writeRecords(anyList());
+        assertThat(writeBuffer.getWrittenCount(), is(2L));
+        assertThat(writeBuffer.getDroppedCount(), is(0L));
+        instance.deactivate();
     }
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteBufferTest {
+    // long enough to never flush periodically within a test
+    private static final long FLUSH_INTERVAL = 3600000;
+
+    private final InfluxDBRepository repository = mock(InfluxDBRepository.class);
+
+    private InfluxDBWriteBuffer createBuffer(int batchSize) {
+        when(repository.isConnected()).thenReturn(true);
+        return new InfluxDBWriteBuffer(repository, batchSize, FLUSH_INTERVAL, 100, null);
+    }
+
+    @Test
+    public void stopWritesQueuedPoints() {
+        when(repository.writeRecords(anyList())).thenReturn(true);
+        InfluxDBWriteBuffer buffer = createBuffer(10);
+
+        buffer.enqueue("a");
+        buffer.enqueue("b");
+        buffer.stop();
+
+        verify(repository).writeRecords(List.of("a", "b"));
+        assertThat(buffer.getWrittenCount(), is(2L));
+        assertThat(buffer.getQueueSize(), is(0));
+    }
+
+    @Test
+    public void pointsWhichCannotBeWrittenOnStopAreDropped() {
+        when(repository.writeRecords(anyList())).thenReturn(false);
+        InfluxDBWriteBuffer buffer = createBuffer(10);
+
+        buffer.enqueue("a");
+        buffer.enqueue("b");
+        buffer.stop();
+
+        assertThat(buffer.getDroppedCount(), is(2L));
+        assertThat(buffer.getQueueSize(), is(0));
+    }
+
+    @Test
+    public void pointsEnqueuedAfterStopAreDropped() {
+        InfluxDBWriteBuffer buffer = createBuffer(1);
+        buffer.stop();
+
+        // reaching the batch size must not fail on the stopped scheduler
+        buffer.enqueue("a");
+
+        assertThat(buffer.getDroppedCount(), is(1L));
+        assertThat(buffer.getQueueSize(), is(0));
+        verify(repository, never()).writeRecords(anyList());
+    }
+}
@@ -14,6 +14,7 @@ package org.openhab.persistence.influxdb.internal;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import java.time.ZoneId;
@@ -162,6 +163,37 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                         + "|> sort(desc:false, columns:[\"_time\"])"));
     }
 
+    @Test
+    public void testAggregatedQuery() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        criteria.setBeginDate(now);
+        criteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+        criteria.setPageSize(10);
+
+        String query = instanceV1.createAggregatedQuery(criteria, RETENTION_POLICY, 60, InfluxDBAggregation.MEAN);
+        assertThat(query,
+                equalTo(String.format("SELECT MEAN(\"value\") AS \"value\" FROM origin.sampleItem WHERE time >= '%s' "
+                        + "GROUP BY time(60s),item ORDER BY time ASC;", now.toInstant())));
+
+        String queryV2 = instanceV2.createAggregatedQuery(criteria, RETENTION_POLICY, 60, InfluxDBAggregation.MEAN);
+        assertThat(queryV2, equalTo(String.format("from(bucket:\"origin\")\n\t" + "|> range(start:%s)\n\t"
+                + "|> filter(fn: (r) => r[\"_measurement\"] == \"sampleItem\")\n\t"
+                + "|> aggregateWindow(every:60s, fn:mean)\n\t" + "|> sort(desc:false, columns:[\"_time\"])",
+                INFLUX2_DATE_FORMATTER.format(now.toInstant()))));
+    }
+
+    @Test
+    public void testAggregatedQueryNeedsBeginDate() {
+        FilterCriteria criteria = createBaseCriteria();
+        criteria.setEndDate(ZonedDateTime.now());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> instanceV1.createAggregatedQuery(criteria, RETENTION_POLICY, 60, InfluxDBAggregation.MEAN));
+        assertThrows(IllegalArgumentException.class,
+                () -> instanceV2.createAggregatedQuery(criteria, RETENTION_POLICY, 60, InfluxDBAggregation.MEAN));
+    }
+
     private FilterCriteria createBaseCriteria() {
         return createBaseCriteria(ITEM_NAME);
     }
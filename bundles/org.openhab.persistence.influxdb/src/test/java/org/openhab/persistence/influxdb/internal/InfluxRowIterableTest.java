@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.influxdb.internal.InfluxRowIterable.RowSink;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxRowIterableTest {
+    private static final String QUERY = "SELECT value FROM item";
+    private static final int CHUNKS = 3;
+    private static final int CHUNK_SIZE = InfluxRowIterable.MAX_BUFFERED_ROWS;
+
+    @Test
+    public void rowsOfAllChunksAreStreamedInOrder() {
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY,
+                sink -> CompletableFuture.runAsync(() -> produce(sink, CHUNKS * CHUNK_SIZE, new AtomicInteger())));
+
+        List<Integer> values = new ArrayList<>();
+        for (InfluxRow row : iterable) {
+            values.add((Integer) row.getValue());
+        }
+
+        assertThat(values.size(), is(CHUNKS * CHUNK_SIZE));
+        for (int i = 0; i < values.size(); i++) {
+            assertThat(values.get(i), is(i));
+        }
+    }
+
+    @Test
+    public void iterationEndsWithTheStream() {
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY, sink -> {
+            sink.next(row(0));
+            sink.complete();
+        });
+
+        Iterator<InfluxRow> iterator = iterable.iterator();
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next().getValue(), is(0));
+        assertThat(iterator.hasNext(), is(false));
+        assertThat(iterator.hasNext(), is(false));
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void iterationEndsOnError() {
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY, sink -> {
+            sink.next(row(0));
+            sink.error(new IllegalStateException("query failed"));
+        });
+
+        Iterator<InfluxRow> iterator = iterable.iterator();
+        assertThat(iterator.next().getValue(), is(0));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test
+    public void emptyStream() {
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY, RowSink::complete);
+
+        assertThat(iterable.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void eachIterationExecutesTheQueryAgain() {
+        AtomicInteger starts = new AtomicInteger();
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY, sink -> {
+            starts.incrementAndGet();
+            sink.next(row(0));
+            sink.complete();
+        });
+
+        assertThat(iterable.iterator().next().getValue(), is(0));
+        assertThat(iterable.iterator().next().getValue(), is(0));
+        assertThat(starts.get(), is(2));
+    }
+
+    @Test
+    public void abandonedIterationCancelsTheQuery() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        CompletableFuture<Void> producer = new CompletableFuture<>();
+        InfluxRowIterable iterable = new InfluxRowIterable(QUERY, sink -> CompletableFuture.runAsync(() -> {
+            produce(sink, CHUNKS * CHUNK_SIZE, produced);
+            producer.complete(null);
+        }), 100);
+
+        Iterator<InfluxRow> iterator = iterable.iterator();
+        assertThat(iterator.next().getValue(), is(0));
+
+        // the producer gives up once the buffer is full and no more rows are read
+        producer.get(10, TimeUnit.SECONDS);
+        assertThat(produced.get(), is(lessThanOrEqualTo(CHUNK_SIZE + 2)));
+    }
+
+    /**
+     * Passes rows to the sink like the client callbacks, until the sink cancels the query.
+     */
+    private void produce(RowSink sink, int count, AtomicInteger produced) {
+        for (int i = 0; i < count; i++) {
+            produced.incrementAndGet();
+            if (!sink.next(row(i))) {
+                return;
+            }
+        }
+        sink.complete();
+    }
+
+    private InfluxRow row(int value) {
+        return new InfluxRow(Instant.ofEpochMilli(value), "item", value);
+    }
+}
@@ -13,15 +13,25 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
@@ -52,8 +62,10 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
 import org.openhab.persistence.jdbc.dto.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.utils.DbMetaData;
+import org.openhab.persistence.jdbc.utils.ResultSetIterable;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,6 +82,19 @@ public class JdbcBaseDAO {
     protected String urlSuffix = "";
     public final Map<String, String> sqlTypes = new HashMap<>();
 
+    // Generated statements per table; values are always bound as parameters, so the statement texts stay the same
+    // and can be reused from the prepared statement caches of the drivers and databases. The multi-row inserts add one
+    // entry per table and chunk size, so the least recently used statements are evicted.
+    private static final int MAX_CACHED_SQL = 512;
+    private final Map<String, String> sqlCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CACHED_SQL;
+        }
+    };
+
     // Get Database Meta data
     protected DbMetaData dbMeta;
 
@@ -83,6 +108,11 @@ public class JdbcBaseDAO {
     protected String sqlGetItemTables;
     protected String sqlCreateItemTable;
     protected String sqlInsertItemValue;
+    protected String sqlInsertItemValues;
+    protected String sqlInsertItemValueRow;
+    // Expression of the time column which is equal for all rows within the same bucket, '?' is the bucket length in
+    // seconds
+    protected String sqlTimeBucket;
 
     /********
      * INIT *
@@ -142,6 +172,9 @@ public class JdbcBaseDAO {
         sqlGetItemTables = "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE' AND table_schema='#jdbcUriDatabaseName#' AND NOT table_name='#itemsManageTable#'";
         sqlCreateItemTable = "CREATE TABLE IF NOT EXISTS #tableName# (time #tablePrimaryKey# NOT NULL, value #dbType#, PRIMARY KEY(time))";
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
+        sqlInsertItemValues = "INSERT INTO #tableName# (TIME, VALUE) VALUES #valueRows# ON DUPLICATE KEY UPDATE VALUE=VALUES(VALUE)";
+        sqlInsertItemValueRow = "( ?, ? )";
+        sqlTimeBucket = "FLOOR(UNIX_TIMESTAMP(time) / ?)";
     }
 
     /**
@@ -325,19 +358,54 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, ItemVO vo) {
         ItemVO storedVO = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(storedVO);
         Object[] params = new Object[] { storedVO.getValue(), storedVO.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
         Yank.execute(sql, params);
     }
 
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
+    }
+
+    /**
+     * Converts the current state of the item into the value to be stored, together with the current time.
+     * Used for the batched writing, where the value is written later on by {@link #doStoreItemValues(String, List)}.
+     */
+    public ItemVO doPrepareItemValue(Item item, ItemVO vo) {
+        ItemVO storedVO = storeItemValueProvider(item, vo);
+        storedVO.setTime(new Date());
+        return storedVO;
+    }
+
+    /**
+     * Stores multiple prepared values of one item table with a single statement.
+     */
+    public void doStoreItemValues(String tableName, List<ItemVO> vol) {
+        if (vol.isEmpty()) {
+            return;
+        }
+        String dbType = vol.get(0).getDbType();
+        String sql = cachedSql("insertValues:" + tableName + ":" + dbType + ":" + vol.size(),
+                k -> insertItemValuesProvider(tableName, dbType, vol.size()));
+        Object[] params = new Object[vol.size() * 2];
+        int i = 0;
+        for (ItemVO vo : vol) {
+            params[i++] = timestampParameter(vo.getTime());
+            params[i++] = vo.getValue();
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, vol.size());
+        Yank.execute(sql, params);
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+        String sql = histItemFilterQuerySql(filter, numberDecimalcount, table, name, timeZone);
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterQuery sql={} params={}", sql, Arrays.toString(params));
+        List<Object[]> m = Yank.queryObjectArrays(sql, params);
         // we already retrieve the unit here once as it is a very costly operation
         String itemName = item.getName();
         Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
@@ -345,11 +413,101 @@ public class JdbcBaseDAO {
                 .collect(Collectors.<HistoricItem> toList());
     }
 
+    /**
+     * Returns the values of the filter without holding all of them in memory. The rows are read in chunks of the fetch
+     * size and converted while iterating, see {@link ResultSetIterable}.
+     */
+    public Iterable<HistoricItem> doGetHistItemFilterQueryStream(Item item, FilterCriteria filter,
+            int numberDecimalcount, String table, String name, ZoneId timeZone, int fetchSize) {
+        String sql = histItemFilterQuerySql(filter, numberDecimalcount, table, name, timeZone);
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterQueryStream sql={} params={} fetchSize={}", sql,
+                Arrays.toString(params), fetchSize);
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
+        return new ResultSetIterable<HistoricItem>(sql, params,
+                (connection, statement) -> prepareStreamingStatement(connection, statement, fetchSize),
+                o -> new JdbcHistoricItem(itemName, getState(item, unit, o[1]), objectAsDate(o[0])));
+    }
+
+    /**
+     * Returns the values of the filter range downsampled to buckets of the given length, so the size of the result
+     * depends on the number of buckets instead of the number of stored rows. Numeric items are aggregated with the
+     * given function, all other items with {@link JdbcAggregation#LAST}. Paging of the filter is not applied.
+     */
+    public List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, String name, ZoneId timeZone, int bucketSeconds, JdbcAggregation aggregation) {
+        JdbcAggregation function = item instanceof NumberItem ? aggregation : JdbcAggregation.LAST;
+        String key = "aggregate:" + table + ":" + function + ":" + (filter.getBeginDate() != null) + ":"
+                + (filter.getEndDate() != null) + ":" + filter.getOrdering();
+        String sql = cachedSql(key, k -> histItemAggregateQueryProvider(filter, table, function));
+        List<Object> params = histItemDateParams(filter, timeZone);
+        params.add(bucketSeconds);
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={} params={}", sql, params);
+        List<Object[]> m = Yank.queryObjectArrays(sql, params.toArray());
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
+        return m.stream().filter(o -> o[1] != null)
+                .map(o -> new JdbcHistoricItem(itemName,
+                        function == JdbcAggregation.LAST ? getState(item, unit, o[1])
+                                : getAggregatedState(unit, o[1], numberDecimalcount),
+                        objectAsDate(o[0])))
+                .collect(Collectors.<HistoricItem> toList());
+    }
+
+    private String cachedSql(String key, Function<String, String> provider) {
+        synchronized (sqlCache) {
+            return sqlCache.computeIfAbsent(key, provider);
+        }
+    }
+
     /*************
      * Providers *
      *************/
     static final DateTimeFormatter JDBC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    protected String insertItemValueSql(ItemVO vo) {
+        return cachedSql("insert:" + vo.getTableName() + ":" + vo.getDbType(),
+                k -> insertItemValueProvider(vo));
+    }
+
+    /**
+     * Returns the (cached) query for the filter. The statement only depends on the table and the shape of the filter,
+     * the dates and paging values are bound by {@link #histItemFilterQueryParams(FilterCriteria, ZoneId)}.
+     */
+    protected String histItemFilterQuerySql(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName, ZoneId timeZone) {
+        String key = "hist:" + table + ":" + simpleName + ":" + numberDecimalcount + ":"
+                + (filter.getBeginDate() != null) + ":" + (filter.getEndDate() != null) + ":" + filter.getOrdering()
+                + ":" + (filter.getPageSize() != 0x7fffffff);
+        return cachedSql(key,
+                k -> histItemFilterQueryProvider(filter, numberDecimalcount, table, simpleName, timeZone));
+    }
+
+    /**
+     * Returns the parameters for the placeholders of {@link #histItemFilterQueryProvider}, in the order of their
+     * appearance: begin date, end date, then the paging values.
+     */
+    protected Object[] histItemFilterQueryParams(FilterCriteria filter, ZoneId timeZone) {
+        List<Object> params = histItemDateParams(filter, timeZone);
+        if (filter.getPageSize() != 0x7fffffff) {
+            params.add(filter.getPageNumber() * filter.getPageSize());
+            params.add(filter.getPageSize());
+        }
+        return params.toArray();
+    }
+
+    protected List<Object> histItemDateParams(FilterCriteria filter, ZoneId timeZone) {
+        List<Object> params = new ArrayList<>(4);
+        if (filter.getBeginDate() != null) {
+            params.add(filterTimeParameter(filter.getBeginDate(), timeZone));
+        }
+        if (filter.getEndDate() != null) {
+            params.add(filterTimeParameter(filter.getEndDate(), timeZone));
+        }
+        return params;
+    }
+
     protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
             String simpleName, ZoneId timeZone) {
         logger.debug(
@@ -359,19 +517,17 @@ public class JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>?";
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<?";
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC ";
         if (filter.getPageSize() != 0x7fffffff) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
+            filterString += " LIMIT ?,?";
         }
-        // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 0,1
+        // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT ?,?
         // rounding HALF UP
         String queryString = "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
                 ? "SELECT time, ROUND(value," + numberDecimalcount + ") FROM " + table
@@ -383,6 +539,46 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Returns the query for {@link #doGetHistItemAggregateQuery}. The placeholders are the begin date, the end date and
+     * the bucket length in seconds. The time of an aggregated value is the time of the first value in its bucket, the
+     * time of a {@link JdbcAggregation#LAST} value is its own time.
+     */
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, String table, JdbcAggregation aggregation) {
+        String filterString = "";
+        if (filter.getBeginDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " TIME>?";
+        }
+        if (filter.getEndDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " TIME<?";
+        }
+        String groupBy = " GROUP BY " + sqlTimeBucket;
+        String order = (filter.getOrdering() == Ordering.ASCENDING) ? " ASC" : " DESC";
+        String queryString;
+        if (aggregation == JdbcAggregation.LAST) {
+            // SELECT time, value FROM number_item_0114 WHERE time IN (SELECT MAX(time) FROM number_item_0114 WHERE
+            // TIME>? AND TIME<? GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?)) ORDER BY time ASC
+            queryString = "SELECT time, value FROM " + table + " WHERE time IN (SELECT MAX(time) FROM " + table
+                    + filterString + groupBy + ") ORDER BY time" + order;
+        } else {
+            // SELECT MIN(time), AVG(value) FROM number_item_0114 WHERE TIME>? AND TIME<? GROUP BY
+            // FLOOR(UNIX_TIMESTAMP(time) / ?) ORDER BY 1 ASC
+            queryString = "SELECT MIN(time), " + aggregation.name() + "(value) FROM " + table + filterString + groupBy
+                    + " ORDER BY 1" + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    protected String insertItemValuesProvider(String tableName, String dbType, int rowCount) {
+        String row = StringUtilsExt.replaceArrayMerge(sqlInsertItemValueRow, new String[] { "#dbType#" },
+                new String[] { dbType });
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValues, new String[] { "#tableName#", "#valueRows#" },
+                new String[] { tableName, String.join(", ", Collections.nCopies(rowCount, row)) });
+    }
+
     private String updateItemTableNamesProvider(List<ItemVO> namesList) {
         logger.debug("JDBC::updateItemTableNamesProvider namesList.size = {}", namesList.size());
         String queryString = "";
@@ -517,6 +713,43 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Prepares a query statement to read its rows in chunks of the fetch size instead of all at once.
+     */
+    protected void prepareStreamingStatement(Connection connection, PreparedStatement statement, int fetchSize)
+            throws SQLException {
+        statement.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Converts an aggregated numeric value. Depending on the database and the column type the aggregate functions
+     * return other types than the column itself, so every kind of number is accepted here.
+     */
+    protected State getAggregatedState(@Nullable Unit<? extends Quantity<?>> unit, Object v, int numberDecimalcount) {
+        BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v
+                : v instanceof Number ? BigDecimal.valueOf(((Number) v).doubleValue())
+                        : new BigDecimal(v.toString().trim());
+        if (numberDecimalcount > -1) {
+            value = value.setScale(numberDecimalcount, RoundingMode.HALF_UP);
+        }
+        return unit == null ? new DecimalType(value) : QuantityType.valueOf(value.doubleValue(), unit);
+    }
+
+    /**
+     * Returns the time of a prepared value as a statement parameter for the time column.
+     */
+    protected Object timestampParameter(Date time) {
+        return new Timestamp(time.getTime());
+    }
+
+    /**
+     * Returns a date of a filter as a statement parameter. The date is converted to the configured time zone, like
+     * the former string literals in the query.
+     */
+    protected Object filterTimeParameter(ZonedDateTime date, ZoneId timeZone) {
+        return Timestamp.valueOf(date.withZoneSameInstant(timeZone).toLocalDateTime());
+    }
+
     protected ZonedDateTime objectAsDate(Object v) {
         if (v instanceof java.lang.String) {
             return ZonedDateTime.ofInstant(Timestamp.valueOf(v.toString()).toInstant(), ZoneId.systemDefault());
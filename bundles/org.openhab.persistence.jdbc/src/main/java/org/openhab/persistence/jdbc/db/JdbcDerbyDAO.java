@@ -27,6 +27,7 @@ import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
 import org.openhab.persistence.jdbc.dto.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -62,6 +63,8 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         // Prevent error against duplicate time value (seldom): No powerful Merge found:
         // http://www.codeproject.com/Questions/162627/how-to-insert-new-record-in-my-table-if-not-exists
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        // no epoch function available, TIMESTAMPDIFF in seconds is an INTEGER
+        sqlTimeBucket = "{fn TIMESTAMPDIFF(SQL_TSI_SECOND, TIMESTAMP('1970-01-01 00:00:00'), time)} / CAST(? AS INTEGER)";
     }
 
     private void initSqlTypes() {
@@ -150,19 +153,52 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
     @Override
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName().toUpperCase(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(vo);
         Object[] params = new Object[] { vo.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName().toUpperCase(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+    }
+
+    /**
+     * Derby has no upsert statement, so the values are written as a JDBC batch of single inserts.
+     */
+    @Override
+    public void doStoreItemValues(String tableName, List<ItemVO> vol) {
+        if (vol.isEmpty()) {
+            return;
+        }
+        String sql = insertItemValuesProvider(tableName, vol.get(0).getDbType(), vol.size());
+        Object[][] params = new Object[vol.size()][];
+        for (int i = 0; i < vol.size(); i++) {
+            ItemVO vo = vol.get(i);
+            params[i] = new Object[] { timestampParameter(vo.getTime()), vo.getValue() };
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, vol.size());
+        Yank.executeBatch(sql, params);
+    }
+
+    /**
+     * Returns the single row insert which is executed once per row of the batch, the row count is ignored.
+     */
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType, int rowCount) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { tableName.toUpperCase(), dbType, "?" });
+    }
+
     @Override
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+        String sql = histItemFilterQuerySql(filter, numberDecimalcount, table, name, timeZone);
+        List<Object[]> m = Yank.queryObjectArrays(sql, histItemFilterQueryParams(filter, timeZone));
         logger.debug("JDBC::doGetHistItemFilterQuery got Array length={}", m.size());
         // we already retrieve the unit here once as it is a very costly operation
         String itemName = item.getName();
@@ -177,6 +213,22 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
      * SQL generation Providers *
      ****************************/
 
+    @Override
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, String table, JdbcAggregation aggregation) {
+        return super.histItemAggregateQueryProvider(filter, table.toUpperCase(), aggregation);
+    }
+
+    @Override
+    protected Object[] histItemFilterQueryParams(FilterCriteria filter, ZoneId timeZone) {
+        Object[] params = super.histItemFilterQueryParams(filter, timeZone);
+        if (filter.getPageSize() != 0x7fffffff) {
+            // OFFSET and FETCH FIRST values as used before the query had been parameterized
+            params[params.length - 2] = filter.getPageSize();
+            params[params.length - 1] = filter.getPageNumber() * filter.getPageSize() + 1;
+        }
+        return params;
+    }
+
     @Override
     protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
             String simpleName, ZoneId timeZone) {
@@ -187,13 +239,11 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>?";
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<?";
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC";
         if (filter.getPageSize() != 0x7fffffff) {
@@ -205,8 +255,7 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
             // filterString += " OFFSET " + filter.getPageSize() +" ROWS FETCH
             // FIRST||NEXT " + filter.getPageNumber() * filter.getPageSize() + "
             // ROWS ONLY";
-            filterString += " OFFSET " + filter.getPageSize() + " ROWS FETCH FIRST "
-                    + (filter.getPageNumber() * filter.getPageSize() + 1) + " ROWS ONLY";
+            filterString += " OFFSET ? ROWS FETCH FIRST ? ROWS ONLY";
         }
 
         // http://www.seemoredata.com/en/showthread.php?132-Round-function-in-Apache-Derby
@@ -216,15 +265,16 @@ public class JdbcDerbyDAO extends JdbcBaseDAO {
         String queryString = "SELECT time,";
         if ("NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1) {
             // rounding HALF UP
-            queryString += "CAST(value 0.";
+            queryString += " CAST(value + 0.";
             for (int i = 0; i < numberDecimalcount; i++) {
                 queryString += "0";
             }
             queryString += "5 AS DECIMAL(31," + numberDecimalcount + "))"; // 31 is DECIMAL max precision
                                                                            // https://db.apache.org/derby/docs/10.0/manuals/develop/develop151.html
         } else {
-            queryString += " value FROM " + table.toUpperCase();
+            queryString += " value";
         }
+        queryString += " FROM " + table.toUpperCase();
 
         if (!filterString.isEmpty()) {
             queryString += filterString;
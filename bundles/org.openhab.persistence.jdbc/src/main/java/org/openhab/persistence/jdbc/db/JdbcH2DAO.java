@@ -45,6 +45,9 @@ public class JdbcH2DAO extends JdbcBaseDAO {
         // SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( NOW(), CAST( ? as #dbType#) )";
         // http://stackoverflow.com/questions/19768051/h2-sql-database-insert-if-the-record-does-not-exist
         sqlInsertItemValue = "MERGE INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        sqlInsertItemValues = "MERGE INTO #tableName# (TIME, VALUE) KEY (TIME) VALUES #valueRows#";
+        sqlInsertItemValueRow = "( ?, CAST( ? as #dbType#) )";
+        sqlTimeBucket = "DATEDIFF('SECOND', TIMESTAMP '1970-01-01 00:00:00', time) / ?";
     }
 
     /**
@@ -59,6 +62,8 @@ public class JdbcH2DAO extends JdbcBaseDAO {
     private void initDbProps() {
         // Properties for HikariCP
         databaseProps.setProperty("driverClassName", "org.h2.Driver");
+        // number of parsed statements cached per session
+        databaseProps.setProperty("dataSource.QUERY_CACHE_SIZE", "64");
         // driverClassName OR BETTER USE dataSourceClassName
         // databaseProps.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
     }
@@ -73,14 +78,19 @@ public class JdbcH2DAO extends JdbcBaseDAO {
     @Override
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(vo);
         Object[] params = new Object[] { vo.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
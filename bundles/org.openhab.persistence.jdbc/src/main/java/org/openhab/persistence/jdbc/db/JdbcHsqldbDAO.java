@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.util.Collections;
+
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.dto.ItemVO;
@@ -54,6 +56,10 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
         sqlInsertItemValue = "MERGE INTO #tableName# "
                 + "USING (VALUES #tablePrimaryValue#, CAST( ? as #dbType#)) temp (TIME, VALUE) ON (#tableName#.TIME=temp.TIME) "
                 + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)";
+        sqlInsertItemValues = "MERGE INTO #tableName# USING (VALUES #valueRows#) temp (TIME, VALUE) ON (#tableName#.TIME=temp.TIME) "
+                + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)";
+        sqlInsertItemValueRow = "( CAST( ? as TIMESTAMP), CAST( ? as #dbType#) )";
+        sqlTimeBucket = "UNIX_TIMESTAMP(time) / CAST( ? as INTEGER)";
     }
 
     /**
@@ -103,17 +109,30 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
     @Override
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" }, new String[] {
-                        vo.getTableName(), vo.getDbType(), vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(vo);
         Object[] params = new Object[] { vo.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" }, new String[] {
+                        vo.getTableName(), vo.getDbType(), vo.getTableName(), sqlTypes.get("tablePrimaryValue") });
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
+    @Override
+    protected String insertItemValuesProvider(String tableName, String dbType, int rowCount) {
+        String row = StringUtilsExt.replaceArrayMerge(sqlInsertItemValueRow, new String[] { "#dbType#" },
+                new String[] { dbType });
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValues,
+                new String[] { "#tableName#", "#valueRows#", "#tableName#" },
+                new String[] { tableName, String.join(", ", Collections.nCopies(rowCount, row)), tableName });
+    }
 
     /*****************
      * H E L P E R S *
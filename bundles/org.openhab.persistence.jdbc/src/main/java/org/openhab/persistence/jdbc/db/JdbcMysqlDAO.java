@@ -12,6 +12,10 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.knowm.yank.Yank;
 import org.openhab.persistence.jdbc.utils.DbMetaData;
@@ -63,6 +67,7 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
         databaseProps.setProperty("dataSource.cachePrepStmts", "true");
         databaseProps.setProperty("dataSource.prepStmtCacheSize", "250");
         databaseProps.setProperty("dataSource.prepStmtCacheSqlLimit", "2048");
+        databaseProps.setProperty("dataSource.useServerPrepStmts", "true");
         databaseProps.setProperty("dataSource.jdbcCompliantTruncation", "false");// jdbc standard max varchar max length
                                                                                  // of 21845
 
@@ -106,6 +111,12 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
     /*****************
      * H E L P E R S *
      *****************/
+    @Override
+    protected void prepareStreamingStatement(Connection connection, PreparedStatement statement, int fetchSize)
+            throws SQLException {
+        // Connector/J only streams the rows with this special fetch size, any other size reads all rows at once
+        statement.setFetchSize(Integer.MIN_VALUE);
+    }
 
     /******************************
      * public Getters and Setters *
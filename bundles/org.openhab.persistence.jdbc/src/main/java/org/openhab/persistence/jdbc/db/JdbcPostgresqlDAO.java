@@ -12,6 +12,9 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.List;
 
@@ -58,6 +61,10 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
         // SQL_INSERT_ITEM_VALUE = "INSERT INTO #tableName# (TIME, VALUE) VALUES( NOW(), CAST( ? as #dbType#) ) ON
         // CONFLICT DO NOTHING";
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        // ON CONFLICT requires PostgreSQL 9.5 or newer
+        sqlInsertItemValues = "INSERT INTO #tableName# (TIME, VALUE) VALUES #valueRows# ON CONFLICT (TIME) DO UPDATE SET VALUE=EXCLUDED.VALUE";
+        sqlInsertItemValueRow = "( ?, CAST( ? as #dbType#) )";
+        sqlTimeBucket = "FLOOR(EXTRACT(EPOCH FROM time) / ?)";
     }
 
     /**
@@ -91,6 +98,8 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
 
         // Properties for HikariCP
         databaseProps.setProperty("driverClassName", "org.postgresql.Driver");
+        // use server side prepared statements from the first execution on
+        databaseProps.setProperty("dataSource.prepareThreshold", "1");
         // driverClassName OR BETTER USE dataSourceClassName
         // databaseProps.setProperty("dataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
         // databaseProps.setProperty("maximumPoolSize", "3");
@@ -133,14 +142,19 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
     @Override
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(vo);
         Object[] params = new Object[] { vo.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
@@ -155,20 +169,17 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>?";
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<?";
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC";
         if (filter.getPageSize() != 0x7fffffff) {
             // see:
             // http://www.jooq.org/doc/3.5/manual/sql-building/sql-statements/select-statement/limit-clause/
-            filterString += " OFFSET " + filter.getPageNumber() * filter.getPageSize() + " LIMIT "
-                    + filter.getPageSize();
+            filterString += " OFFSET ? LIMIT ?";
         }
         String queryString = "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
                 ? "SELECT time, ROUND(CAST (value AS numeric)," + numberDecimalcount + ") FROM " + table
@@ -183,6 +194,14 @@ public class JdbcPostgresqlDAO extends JdbcBaseDAO {
     /*****************
      * H E L P E R S *
      *****************/
+    @Override
+    protected void prepareStreamingStatement(Connection connection, PreparedStatement statement, int fetchSize)
+            throws SQLException {
+        // the driver only uses a cursor for the fetch size outside of auto-commit mode, the ResultSetIterable restores
+        // the mode before it releases the connection
+        connection.setAutoCommit(false);
+        super.prepareStreamingStatement(connection, statement, fetchSize);
+    }
 
     /******************************
      * public Getters and Setters *
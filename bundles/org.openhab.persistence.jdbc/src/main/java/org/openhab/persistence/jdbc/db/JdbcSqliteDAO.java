@@ -12,6 +12,11 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.dto.ItemVO;
@@ -30,6 +35,9 @@ import org.slf4j.LoggerFactory;
 public class JdbcSqliteDAO extends JdbcBaseDAO {
     private final Logger logger = LoggerFactory.getLogger(JdbcSqliteDAO.class);
 
+    private static final DateTimeFormatter SQLITE_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
     /********
      * INIT *
      ********/
@@ -47,6 +55,10 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
         sqlIfTableExists = "SELECT name FROM sqlite_master WHERE type='table' AND name='#searchTable#'";
         sqlCreateItemsTableIfNot = "CREATE TABLE IF NOT EXISTS #itemsManageTable# (ItemId INTEGER PRIMARY KEY AUTOINCREMENT, #colname# #coltype# NOT NULL)";
         sqlInsertItemValue = "INSERT OR IGNORE INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, CAST( ? as #dbType#) )";
+        sqlInsertItemValues = "INSERT OR IGNORE INTO #tableName# (TIME, VALUE) VALUES #valueRows#";
+        sqlInsertItemValueRow = "( ?, CAST( ? as #dbType#) )";
+        // the local time strings are read as UTC, which is fine for bucketing
+        sqlTimeBucket = "CAST(strftime('%s', time) AS INTEGER) / ?";
     }
 
     /**
@@ -92,14 +104,19 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
     @Override
     public void doStoreItemValue(Item item, ItemVO vo) {
         vo = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
-                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+        String sql = insertItemValueSql(vo);
         Object[] params = new Object[] { vo.getValue() };
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, vo.getValue());
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String insertItemValueProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), sqlTypes.get("tablePrimaryValue") });
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
@@ -108,6 +125,22 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
      * H E L P E R S *
      *****************/
 
+    /**
+     * The time is stored as text in the same format as produced by the default 'tablePrimaryValue'.
+     */
+    @Override
+    protected Object timestampParameter(Date time) {
+        return SQLITE_DATE_FORMAT.format(time.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * The time is stored as text, so the filter dates are compared as text as well.
+     */
+    @Override
+    protected Object filterTimeParameter(ZonedDateTime date, ZoneId timeZone) {
+        return JDBC_DATE_FORMAT.format(date.withZoneSameInstant(timeZone));
+    }
+
     /******************************
      * public Getters and Setters *
      ******************************/
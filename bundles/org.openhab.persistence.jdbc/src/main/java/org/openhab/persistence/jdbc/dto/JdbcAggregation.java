@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.dto;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Aggregation functions for downsampled queries, applied to all values within a time bucket.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public enum JdbcAggregation {
+    /** average of the values, numeric items only */
+    AVG,
+    /** smallest value, numeric items only */
+    MIN,
+    /** largest value, numeric items only */
+    MAX,
+    /** last value of the bucket, used for all non numeric items */
+    LAST
+}
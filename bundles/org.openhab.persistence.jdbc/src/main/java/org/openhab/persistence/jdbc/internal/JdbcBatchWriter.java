@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.persistence.jdbc.dto.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue for item values. Values are collected in a bounded queue and written per item table with one
+ * multi-row statement (or JDBC batch, depending on the database) when either the batch size is reached or the flush
+ * interval has passed.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+public class JdbcBatchWriter {
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    /**
+     * Defines what happens with a value if the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** the oldest queued value is dropped */
+        DROP_OLDEST,
+        /** the new value is dropped */
+        DROP_NEWEST,
+        /** the caller waits until there is space in the queue */
+        BLOCK
+    }
+
+    private final BlockingQueue<ItemVO> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final BiConsumer<String, List<ItemVO>> tableWriter;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("jdbc-batch"));
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+
+    /**
+     * @param batchSize maximum number of rows written with one statement, also triggers a flush when reached
+     * @param flushInterval interval in milliseconds in which queued values are written
+     * @param queueSize maximum number of queued values
+     * @param overflowPolicy what to do if the queue is full
+     * @param tableWriter writes a list of values to the given table
+     */
+    public JdbcBatchWriter(int batchSize, long flushInterval, int queueSize, OverflowPolicy overflowPolicy,
+            BiConsumer<String, List<ItemVO>> tableWriter) {
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, queueSize));
+        this.overflowPolicy = overflowPolicy;
+        this.tableWriter = tableWriter;
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(ItemVO vo) {
+        enqueued.incrementAndGet();
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(vo);
+                } catch (InterruptedException e) {
+                    dropped.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                break;
+            case DROP_NEWEST:
+                if (!queue.offer(vo)) {
+                    dropped.incrementAndGet();
+                    logger.debug("JDBC::enqueue: queue is full, dropping value for table '{}'", vo.getTableName());
+                }
+                break;
+            case DROP_OLDEST:
+            default:
+                while (!queue.offer(vo)) {
+                    ItemVO oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        logger.debug("JDBC::enqueue: queue is full, dropping oldest value for table '{}'",
+                                oldest.getTableName());
+                    }
+                }
+                break;
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // stopped, the queue is written by stop()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes all queued values. Values of the same table are written together, in chunks of the batch size.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        List<ItemVO> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+
+        // a table has one row per time, so only the last value of a time is written
+        Map<String, Map<Date, ItemVO>> valuesPerTable = new LinkedHashMap<>();
+        for (ItemVO vo : pending) {
+            Map<Date, ItemVO> values = valuesPerTable.computeIfAbsent(vo.getTableName(), t -> new LinkedHashMap<>());
+            if (values.put(vo.getTime(), vo) != null) {
+                // the replaced value is superseded, not lost
+                written.incrementAndGet();
+            }
+        }
+        for (Map.Entry<String, Map<Date, ItemVO>> entry : valuesPerTable.entrySet()) {
+            List<ItemVO> values = new ArrayList<>(entry.getValue().values());
+            for (int i = 0; i < values.size(); i += batchSize) {
+                writeChunk(entry.getKey(), values.subList(i, Math.min(values.size(), i + batchSize)));
+            }
+        }
+
+        long duration = System.currentTimeMillis() - timerStart;
+        flushes.incrementAndGet();
+        lastFlushMillis.set(duration);
+        maxFlushMillis.accumulateAndGet(duration, Math::max);
+        logger.debug("JDBC::flush: wrote {} values to {} tables in {} ms", pending.size(), valuesPerTable.size(),
+                duration);
+    }
+
+    /**
+     * Writes the queued values if there is a value for the given table, so a query of the table returns them.
+     *
+     * @param tableName the table to be queried
+     */
+    public void flush(String tableName) {
+        if (queue.stream().anyMatch(vo -> tableName.equals(vo.getTableName()))) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes a chunk of values with one statement. If that fails, the values are written one by one, so only the
+     * values which cannot be written are dropped.
+     */
+    private void writeChunk(String tableName, List<ItemVO> chunk) {
+        try {
+            tableWriter.accept(tableName, chunk);
+            written.addAndGet(chunk.size());
+            return;
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                dropped.incrementAndGet();
+                logger.warn("JDBC::flush: could not write a value to table '{}': {}", tableName, e.getMessage());
+                return;
+            }
+            logger.debug("JDBC::flush: could not write {} values to table '{}', writing them one by one: {}",
+                    chunk.size(), tableName, e.getMessage());
+        }
+        for (ItemVO vo : chunk) {
+            writeChunk(tableName, List.of(vo));
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes the values still queued, after a flush in progress has completed.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("JDBC::stop: the running flush did not complete within {} seconds",
+                        STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("JDBC::stop: {}", this);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis.get();
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis.get();
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcBatchWriter [queueDepth=" + getQueueDepth() + ", enqueued=" + getEnqueuedCount() + ", written="
+                + getWrittenCount() + ", dropped=" + getDroppedCount() + ", flushes=" + getFlushCount()
+                + ", lastFlushMillis=" + getLastFlushMillis() + ", maxFlushMillis=" + getMaxFlushMillis() + "]";
+    }
+}
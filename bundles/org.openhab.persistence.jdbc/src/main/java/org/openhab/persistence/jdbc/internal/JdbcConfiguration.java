@@ -22,6 +22,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openhab.persistence.jdbc.db.JdbcBaseDAO;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
 import org.openhab.persistence.jdbc.utils.MovingAverage;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
@@ -60,6 +61,16 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private int batchSize = 0;
+    private long batchInterval = 1000;
+    private int batchQueueSize = 10000;
+    private JdbcBatchWriter.OverflowPolicy batchOverflowPolicy = JdbcBatchWriter.OverflowPolicy.DROP_OLDEST;
+
+    private int downsampleBuckets = 0;
+    private JdbcAggregation downsampleFunction = JdbcAggregation.AVG;
+
+    private int queryFetchSize = 0;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -173,11 +184,67 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bs = (String) configuration.get("batchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String bi = (String) configuration.get("batchInterval");
+        if (bi != null && !bi.isBlank() && isNumericPattern.matcher(bi).matches() && Long.parseLong(bi) > 0) {
+            batchInterval = Long.parseLong(bi);
+            logger.debug("JDBC::updateConfig: batchInterval={}", batchInterval);
+        }
+
+        String bq = (String) configuration.get("batchQueueSize");
+        if (bq != null && !bq.isBlank() && isNumericPattern.matcher(bq).matches()) {
+            batchQueueSize = Integer.parseInt(bq);
+            logger.debug("JDBC::updateConfig: batchQueueSize={}", batchQueueSize);
+        }
+
+        String bo = (String) configuration.get("batchOverflowPolicy");
+        if (bo != null && !bo.isBlank()) {
+            try {
+                batchOverflowPolicy = JdbcBatchWriter.OverflowPolicy.valueOf(bo.trim().toUpperCase());
+                logger.debug("JDBC::updateConfig: batchOverflowPolicy={}", batchOverflowPolicy);
+            } catch (IllegalArgumentException e) {
+                logger.warn("JDBC::updateConfig: unknown batchOverflowPolicy '{}', using {}", bo, batchOverflowPolicy);
+            }
+        }
+
+        String db = (String) configuration.get("downsampleBuckets");
+        if (db != null && !db.isBlank() && isNumericPattern.matcher(db).matches()) {
+            downsampleBuckets = Integer.parseInt(db);
+            logger.debug("JDBC::updateConfig: downsampleBuckets={}", downsampleBuckets);
+        }
+
+        String df = (String) configuration.get("downsampleFunction");
+        if (df != null && !df.isBlank()) {
+            try {
+                downsampleFunction = JdbcAggregation.valueOf(df.trim().toUpperCase());
+                logger.debug("JDBC::updateConfig: downsampleFunction={}", downsampleFunction);
+            } catch (IllegalArgumentException e) {
+                logger.warn("JDBC::updateConfig: unknown downsampleFunction '{}', using {}", df, downsampleFunction);
+            }
+        }
+
+        String qf = (String) configuration.get("queryFetchSize");
+        if (qf != null && !qf.isBlank() && isNumericPattern.matcher(qf).matches()) {
+            queryFetchSize = Integer.parseInt(qf);
+            logger.debug("JDBC::updateConfig: queryFetchSize={}", queryFetchSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
             dBDAO.databaseProps.setProperty("maximumPoolSize", ac);
         }
+        if (queryFetchSize > 0 && getMaximumPoolSize() < 2) {
+            // a streamed result keeps its connection until it has been read, which would block all other statements
+            logger.warn(
+                    "JDBC::updateConfig: queryFetchSize is ignored, streaming results needs a connection pool with more than one connection");
+            queryFetchSize = 0;
+        }
 
         // undocumented
         String ic = (String) configuration.get("minimumIdle");
@@ -358,6 +425,49 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBatchInterval() {
+        return batchInterval;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public JdbcBatchWriter.OverflowPolicy getBatchOverflowPolicy() {
+        return batchOverflowPolicy;
+    }
+
+    public int getDownsampleBuckets() {
+        return downsampleBuckets;
+    }
+
+    public JdbcAggregation getDownsampleFunction() {
+        return downsampleFunction;
+    }
+
+    /**
+     * Returns the maximum size of the connection pool, the default of HikariCP if it is not set.
+     */
+    private int getMaximumPoolSize() {
+        String poolSize = dBDAO.databaseProps.getProperty("maximumPoolSize");
+        if (poolSize != null) {
+            try {
+                return Integer.parseInt(poolSize.trim());
+            } catch (NumberFormatException e) {
+                logger.debug("JDBC::getMaximumPoolSize: invalid maximumPoolSize '{}'", poolSize);
+            }
+        }
+        return 10;
+    }
+
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
@@ -27,6 +27,7 @@ import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.persistence.jdbc.dto.ItemVO;
 import org.openhab.persistence.jdbc.dto.ItemsVO;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
 import org.openhab.persistence.jdbc.dto.JdbcPersistenceItemInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ public class JdbcMapper {
     protected int errCnt;
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
+    protected volatile JdbcBatchWriter batchWriter = null;
     protected final Map<String, String> sqlTables = new HashMap<>();
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
@@ -152,6 +154,12 @@ public class JdbcMapper {
             logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
             return item;
         }
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            // the value is converted now, but written later on together with other values
+            writer.enqueue(conf.getDBDAO().doPrepareItemValue(item, new ItemVO(tableName, null)));
+            return item;
+        }
         long timerStart = System.currentTimeMillis();
         conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
         logTime("storeItemValue", timerStart, System.currentTimeMillis());
@@ -159,6 +167,36 @@ public class JdbcMapper {
         return item;
     }
 
+    public void storeItemValues(String tableName, List<ItemVO> vol) {
+        logger.debug("JDBC::storeItemValues: table={} rows={}", tableName, vol.size());
+        long timerStart = System.currentTimeMillis();
+        conf.getDBDAO().doStoreItemValues(tableName, vol);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+    }
+
+    /**
+     * Starts the write-behind queue if batching is configured and it is not running yet. It is started once the
+     * database has been reached, so batching also becomes active if the database was down at activation time.
+     */
+    protected synchronized void startBatchWriter() {
+        if (batchWriter == null && conf != null && conf.valid && conf.getBatchSize() > 0) {
+            logger.debug("JDBC::startBatchWriter: batchSize={} batchInterval={} batchQueueSize={} policy={}",
+                    conf.getBatchSize(), conf.getBatchInterval(), conf.getBatchQueueSize(),
+                    conf.getBatchOverflowPolicy());
+            batchWriter = new JdbcBatchWriter(conf.getBatchSize(), conf.getBatchInterval(), conf.getBatchQueueSize(),
+                    conf.getBatchOverflowPolicy(), this::storeItemValues);
+        }
+    }
+
+    protected synchronized void stopBatchWriter() {
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            batchWriter = null;
+            writer.stop();
+        }
+    }
+
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
@@ -177,6 +215,38 @@ public class JdbcMapper {
         return null;
     }
 
+    public Iterable<HistoricItem> getHistItemFilterQueryStream(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item, int fetchSize) {
+        logger.debug(
+                "JDBC::getHistItemFilterQueryStream numberDecimalcount='{}' table='{}' itemName='{}' fetchSize='{}'",
+                numberDecimalcount, table, item.getName(), fetchSize);
+        if (table != null) {
+            return conf.getDBDAO().doGetHistItemFilterQueryStream(item, filter, numberDecimalcount, table,
+                    item.getName(), timeZoneProvider.getTimeZone(), fetchSize);
+        } else {
+            logger.error("JDBC::getHistItemFilterQueryStream: TABLE is NULL; cannot get data from non-existent table.");
+        }
+        return null;
+    }
+
+    public List<HistoricItem> getHistItemAggregateQuery(FilterCriteria filter, int numberDecimalcount, String table,
+            Item item, int bucketSeconds, JdbcAggregation aggregation) {
+        logger.debug(
+                "JDBC::getHistItemAggregateQuery numberDecimalcount='{}' table='{}' itemName='{}' bucketSeconds='{}' aggregation='{}'",
+                numberDecimalcount, table, item.getName(), bucketSeconds, aggregation);
+        if (table != null) {
+            long timerStart = System.currentTimeMillis();
+            List<HistoricItem> result = conf.getDBDAO().doGetHistItemAggregateQuery(item, filter, numberDecimalcount,
+                    table, item.getName(), timeZoneProvider.getTimeZone(), bucketSeconds, aggregation);
+            logTime("getHistItemAggregateQuery", timerStart, System.currentTimeMillis());
+            errCnt = 0;
+            return result;
+        } else {
+            logger.error("JDBC::getHistItemAggregateQuery: TABLE is NULL; cannot get data from non-existent table.");
+        }
+        return null;
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -211,13 +281,16 @@ public class JdbcMapper {
         boolean p = pingDB();
         if (p) {
             logger.debug("JDBC::checkDBAcessability, first try connection: {}", p);
-            return (p && !(conf.getErrReconnectThreshold() > 0 && errCnt <= conf.getErrReconnectThreshold()));
         } else {
             // second
             p = pingDB();
             logger.debug("JDBC::checkDBAcessability, second try connection: {}", p);
-            return (p && !(conf.getErrReconnectThreshold() > 0 && errCnt <= conf.getErrReconnectThreshold()));
         }
+        boolean accessible = p && !(conf.getErrReconnectThreshold() > 0 && errCnt <= conf.getErrReconnectThreshold());
+        if (accessible) {
+            startBatchWriter();
+        }
+        return accessible;
     }
 
     /**************************
@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
@@ -104,6 +107,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopBatchWriter();
         initialized = false;
     }
 
@@ -160,6 +164,43 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
      */
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        return query(filter, 0, null);
+    }
+
+    /**
+     * Returns the values of the filter range downsampled to buckets of the given length, aggregated by the database.
+     * The number of returned values depends on the number of buckets instead of the number of stored values, which
+     * makes it suitable for charts and aggregate calculations over large time ranges.
+     *
+     * @param filter the filter, paging is not applied
+     * @param bucketSeconds the length of a bucket in seconds
+     * @param aggregation the aggregation of numeric items, other items always return the last value of a bucket
+     * @return the aggregated values
+     */
+    public Iterable<HistoricItem> queryAggregated(FilterCriteria filter, int bucketSeconds,
+            JdbcAggregation aggregation) {
+        return query(filter, Math.max(1, bucketSeconds), aggregation);
+    }
+
+    /**
+     * Returns the values of the filter range downsampled to at most the configured number of buckets, aggregated with
+     * the configured function. Unlike {@link #query(FilterCriteria)}, which always returns the stored values, this is
+     * meant for callers which only need the shape of the series, like charts. If downsampling is not configured, the
+     * filter has no begin or end date or is paged, all values are returned.
+     *
+     * @param filter the filter to apply to the query
+     * @return the downsampled values
+     */
+    public Iterable<HistoricItem> queryDownsampled(FilterCriteria filter) {
+        return query(filter, getDownsampleBucketSeconds(filter, conf.getDownsampleBuckets()),
+                conf.getDownsampleFunction());
+    }
+
+    /**
+     * @param bucketSeconds the length of the buckets to aggregate, or 0 to return the stored values
+     */
+    private Iterable<HistoricItem> query(FilterCriteria filter, int bucketSeconds,
+            @Nullable JdbcAggregation aggregation) {
         if (!checkDBAccessability()) {
             logger.warn("JDBC::query: database not connected, query aborted for item '{}'", filter.getItemName());
             return List.of();
@@ -201,8 +242,27 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             table = getTable(item);
         }
 
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null && table != null) {
+            // values which have been stored before are expected in the result
+            writer.flush(table);
+        }
+
+        int seconds = aggregation == null ? 0 : bucketSeconds;
+        JdbcAggregation function = aggregation == null ? JdbcAggregation.LAST : aggregation;
+
+        if (seconds <= 0 && conf.getQueryFetchSize() > 0) {
+            // the rows are read while the result is iterated
+            logger.debug("JDBC::query: streaming query for {} with fetch size {}", itemName, conf.getQueryFetchSize());
+            Iterable<HistoricItem> result = getHistItemFilterQueryStream(filter, conf.getNumberDecimalcount(), table,
+                    item, conf.getQueryFetchSize());
+            return result == null ? List.of() : result;
+        }
+
         long timerStart = System.currentTimeMillis();
-        List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        List<HistoricItem> items = seconds > 0
+                ? getHistItemAggregateQuery(filter, conf.getNumberDecimalcount(), table, item, seconds, function)
+                : getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
 
         logger.debug("JDBC::query: query for {} returned {} rows in {} ms", itemName, items.size(),
                 System.currentTimeMillis() - timerStart);
@@ -212,9 +272,26 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
         return items;
     }
 
+    /**
+     * Returns the bucket length for {@link #queryDownsampled(FilterCriteria)} of a begin and end date without paging, if
+     * the range covers more than the configured number of buckets, or 0 to query all values.
+     */
+    static int getDownsampleBucketSeconds(FilterCriteria filter, int buckets) {
+        ZonedDateTime begin = filter.getBeginDate();
+        ZonedDateTime end = filter.getEndDate();
+        if (buckets <= 0 || begin == null || end == null || filter.getPageSize() != Integer.MAX_VALUE) {
+            return 0;
+        }
+        long seconds = Duration.between(begin, end).getSeconds();
+        long bucketSeconds = (seconds + buckets - 1) / buckets;
+        // buckets of a single second do not reduce the number of values noticeably
+        return bucketSeconds < 2 ? 0 : (int) Math.min(Integer.MAX_VALUE, bucketSeconds);
+    }
+
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        stopBatchWriter();
         conf = new JdbcConfiguration(configuration);
         if (conf.valid && checkDBAccessability()) {
             checkDBSchema();
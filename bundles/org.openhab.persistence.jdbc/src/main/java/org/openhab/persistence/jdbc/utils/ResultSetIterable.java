@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.knowm.yank.Yank;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterable over the rows of a query, which are converted while they are read from the database. Each iteration executes
+ * the query again on its own connection of the pool. The connection is released as soon as the last row has been read,
+ * on errors, or, if no row has been read for {@link #IDLE_TIMEOUT_SECONDS}, because the pools only hold a few
+ * connections and an abandoned iteration must not block them. Reading from an iterator which has been closed on the
+ * timeout fails instead of silently ending the result.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+public class ResultSetIterable<T> implements Iterable<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultSetIterable.class);
+
+    static final long IDLE_TIMEOUT_SECONDS = 60;
+
+    private static final ScheduledExecutorService SCHEDULER = ThreadPoolManager.getScheduledPool("jdbc");
+
+    /**
+     * Applies driver specific settings to a statement before it is executed, e.g. the fetch size. Changes of the
+     * auto-commit mode of the connection are reverted when the connection is released.
+     */
+    @FunctionalInterface
+    public interface StatementPreparer {
+        void prepare(Connection connection, PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Takes a connection from the pool, which is given back by closing it.
+     */
+    @FunctionalInterface
+    interface ConnectionSupplier {
+        Connection getConnection() throws SQLException;
+    }
+
+    private final String sql;
+    private final Object[] params;
+    private final StatementPreparer preparer;
+    private final Function<Object[], T> rowMapper;
+    private final ConnectionSupplier connectionSupplier;
+    private final long idleTimeoutMillis;
+
+    /**
+     * @param sql the query
+     * @param params the parameters of the query
+     * @param preparer applies settings to the statement before it is executed
+     * @param rowMapper converts the columns of a row, read with {@link ResultSet#getObject(int)}
+     */
+    public ResultSetIterable(String sql, Object[] params, StatementPreparer preparer, Function<Object[], T> rowMapper) {
+        this(sql, params, preparer, rowMapper, () -> Yank.getDefaultConnectionPool().getConnection(),
+                TimeUnit.SECONDS.toMillis(IDLE_TIMEOUT_SECONDS));
+    }
+
+    // Visible for testing
+    ResultSetIterable(String sql, Object[] params, StatementPreparer preparer, Function<Object[], T> rowMapper,
+            ConnectionSupplier connectionSupplier, long idleTimeoutMillis) {
+        this.sql = sql;
+        this.params = params;
+        this.preparer = preparer;
+        this.rowMapper = rowMapper;
+        this.connectionSupplier = connectionSupplier;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Resources resources = new Resources();
+        try {
+            resources.connection = connectionSupplier.getConnection();
+            resources.autoCommit = resources.connection.getAutoCommit();
+            resources.statement = resources.connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            preparer.prepare(resources.connection, resources.statement);
+            for (int i = 0; i < params.length; i++) {
+                resources.statement.setObject(i + 1, params[i]);
+            }
+            resources.resultSet = resources.statement.executeQuery();
+            return new ResultIterator(resources);
+        } catch (SQLException e) {
+            LOGGER.warn("JDBC::ResultSetIterable: query failed sql={}: {}", sql, e.getMessage());
+            resources.close();
+            return Collections.emptyIterator();
+        }
+    }
+
+    private class ResultIterator implements Iterator<T>, AutoCloseable {
+        private final Resources resources;
+        private final int columnCount;
+        private T next;
+        private boolean done;
+        private boolean timedOut;
+        private long lastRead = System.nanoTime();
+        private ScheduledFuture<?> idleCheck;
+
+        private ResultIterator(Resources resources) throws SQLException {
+            this.resources = resources;
+            this.columnCount = resources.resultSet.getMetaData().getColumnCount();
+            this.idleCheck = SCHEDULER.schedule(this::checkIdle, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (timedOut) {
+                throw new IllegalStateException("The result of '" + sql + "' has been closed after "
+                        + idleTimeoutMillis + " ms without reading a row");
+            }
+            if (done) {
+                return false;
+            }
+            lastRead = System.nanoTime();
+            try {
+                if (resources.resultSet.next()) {
+                    Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = resources.resultSet.getObject(i + 1);
+                    }
+                    next = rowMapper.apply(row);
+                    return true;
+                }
+            } catch (SQLException e) {
+                close();
+                throw new IllegalStateException("Reading the result of '" + sql + "' failed: " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public synchronized T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!done) {
+                done = true;
+                idleCheck.cancel(false);
+                resources.close();
+            }
+        }
+
+        private synchronized void checkIdle() {
+            if (done) {
+                return;
+            }
+            long idleNanos = System.nanoTime() - lastRead;
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+            if (idleNanos >= timeoutNanos) {
+                LOGGER.debug("JDBC::ResultSetIterable: releasing the connection of an idle result sql={}", sql);
+                timedOut = true;
+                close();
+            } else {
+                idleCheck = SCHEDULER.schedule(this::checkIdle, timeoutNanos - idleNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static class Resources {
+        private Connection connection;
+        private boolean autoCommit;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+
+        private void close() {
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                if (statement != null) {
+                    statement.close();
+                }
+            } catch (SQLException e) {
+                LOGGER.debug("JDBC::ResultSetIterable: closing the statement failed: {}", e.getMessage());
+            } finally {
+                try {
+                    if (connection != null) {
+                        restoreAutoCommit();
+                        connection.close();
+                    }
+                } catch (SQLException e) {
+                    LOGGER.debug("JDBC::ResultSetIterable: releasing the connection failed: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void restoreAutoCommit() {
+            try {
+                if (connection.getAutoCommit() != autoCommit) {
+                    if (!connection.getAutoCommit()) {
+                        // only rows have been read, so there is nothing to keep
+                        connection.rollback();
+                    }
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                LOGGER.debug("JDBC::ResultSetIterable: restoring the auto-commit mode failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.persistence.jdbc.dto.JdbcAggregation;
+
+/**
+ * Tests the generated downsampling queries and the time bucket expressions of the dialects.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistItemAggregateQueryTest {
+
+    private static final String TABLE = "item0001";
+    private static final ZonedDateTime BEGIN = ZonedDateTime.of(2021, 3, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final ZonedDateTime END = BEGIN.plusDays(1);
+
+    private static FilterCriteria filter(@Nullable ZonedDateTime begin, @Nullable ZonedDateTime end,
+            Ordering ordering) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setBeginDate(begin);
+        filter.setEndDate(end);
+        filter.setOrdering(ordering);
+        return filter;
+    }
+
+    private static String averageQuery(JdbcBaseDAO dao) {
+        return dao.histItemAggregateQueryProvider(filter(BEGIN, END, Ordering.ASCENDING), TABLE, JdbcAggregation.AVG);
+    }
+
+    @Test
+    public void aggregateGroupsByBucketAndUsesFirstTimeOfBucket() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+
+        assertThat(averageQuery(dao), is("SELECT MIN(time), AVG(value) FROM item0001 WHERE TIME>? AND TIME<? "
+                + "GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?) ORDER BY 1 ASC"));
+        assertThat(
+                dao.histItemAggregateQueryProvider(filter(null, null, Ordering.DESCENDING), TABLE,
+                        JdbcAggregation.MAX),
+                is("SELECT MIN(time), MAX(value) FROM item0001 GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?) "
+                        + "ORDER BY 1 DESC"));
+    }
+
+    @Test
+    public void lastSelectsNewestRowOfEachBucket() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+
+        assertThat(
+                dao.histItemAggregateQueryProvider(filter(BEGIN, END, Ordering.ASCENDING), TABLE,
+                        JdbcAggregation.LAST),
+                is("SELECT time, value FROM item0001 WHERE time IN (SELECT MAX(time) FROM item0001 "
+                        + "WHERE TIME>? AND TIME<? GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?)) ORDER BY time ASC"));
+        assertThat(
+                dao.histItemAggregateQueryProvider(filter(null, END, Ordering.DESCENDING), TABLE,
+                        JdbcAggregation.LAST),
+                is("SELECT time, value FROM item0001 WHERE time IN (SELECT MAX(time) FROM item0001 "
+                        + "WHERE TIME<? GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?)) ORDER BY time DESC"));
+    }
+
+    @Test
+    public void mariadbUsesUnixTimestamp() {
+        assertThat(averageQuery(new JdbcMariadbDAO()), is("SELECT MIN(time), AVG(value) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY FLOOR(UNIX_TIMESTAMP(time) / ?) ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void postgresqlUsesEpoch() {
+        assertThat(averageQuery(new JdbcPostgresqlDAO()), is("SELECT MIN(time), AVG(value) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY FLOOR(EXTRACT(EPOCH FROM time) / ?) ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void h2UsesDateDiff() {
+        assertThat(averageQuery(new JdbcH2DAO()), is("SELECT MIN(time), AVG(value) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY DATEDIFF('SECOND', TIMESTAMP '1970-01-01 00:00:00', time) / ? "
+                + "ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void hsqldbUsesUnixTimestamp() {
+        assertThat(averageQuery(new JdbcHsqldbDAO()), is("SELECT MIN(time), AVG(value) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY UNIX_TIMESTAMP(time) / CAST( ? as INTEGER) ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void sqliteUsesStrftime() {
+        assertThat(averageQuery(new JdbcSqliteDAO()), is("SELECT MIN(time), AVG(value) FROM item0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY CAST(strftime('%s', time) AS INTEGER) / ? ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void derbyUsesTimestampDiffAndUpperCaseTable() {
+        assertThat(averageQuery(new JdbcDerbyDAO()), is("SELECT MIN(time), AVG(value) FROM ITEM0001 "
+                + "WHERE TIME>? AND TIME<? GROUP BY "
+                + "{fn TIMESTAMPDIFF(SQL_TSI_SECOND, TIMESTAMP('1970-01-01 00:00:00'), time)} / CAST(? AS INTEGER) "
+                + "ORDER BY 1 ASC"));
+    }
+
+    @Test
+    public void bucketLengthIsLastParameter() {
+        for (JdbcBaseDAO dao : List.of(new JdbcMysqlDAO(), new JdbcMariadbDAO(), new JdbcPostgresqlDAO(),
+                new JdbcH2DAO(), new JdbcHsqldbDAO(), new JdbcSqliteDAO(), new JdbcDerbyDAO())) {
+            for (JdbcAggregation aggregation : JdbcAggregation.values()) {
+                FilterCriteria filter = filter(BEGIN, END, Ordering.ASCENDING);
+                String sql = dao.histItemAggregateQueryProvider(filter, TABLE, aggregation);
+                // the dates, then the bucket length
+                assertThat(dao.getClass().getSimpleName() + ": " + sql, sql.chars().filter(c -> c == '?').count(),
+                        is((long) dao.histItemDateParams(filter, ZoneOffset.UTC).size() + 1));
+                assertThat(sql, sql.indexOf('?', sql.indexOf("GROUP BY")) > sql.lastIndexOf("TIME<?"), is(true));
+            }
+        }
+    }
+}
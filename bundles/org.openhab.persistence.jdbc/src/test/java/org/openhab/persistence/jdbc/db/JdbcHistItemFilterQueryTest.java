@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.emptyArray;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+
+/**
+ * Tests the generated history queries and the order of their parameters.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistItemFilterQueryTest {
+
+    private static final String TABLE = "item0001";
+    private static final ZoneId TIME_ZONE = ZoneOffset.UTC;
+    // one hour ahead of the configured time zone, so the conversion is visible in the parameters
+    private static final ZonedDateTime BEGIN = ZonedDateTime.of(2021, 3, 4, 6, 6, 7, 0, ZoneOffset.ofHours(1));
+    private static final ZonedDateTime END = ZonedDateTime.of(2021, 3, 5, 6, 6, 7, 0, ZoneOffset.ofHours(1));
+    private static final Timestamp BEGIN_TIMESTAMP = Timestamp.valueOf(LocalDateTime.of(2021, 3, 4, 5, 6, 7));
+    private static final Timestamp END_TIMESTAMP = Timestamp.valueOf(LocalDateTime.of(2021, 3, 5, 5, 6, 7));
+
+    private static FilterCriteria filter(@Nullable ZonedDateTime begin, @Nullable ZonedDateTime end,
+            Ordering ordering, boolean paged) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setBeginDate(begin);
+        filter.setEndDate(end);
+        filter.setOrdering(ordering);
+        if (paged) {
+            filter.setPageNumber(2);
+            filter.setPageSize(10);
+        }
+        return filter;
+    }
+
+    private static List<FilterCriteria> allFilters() {
+        List<FilterCriteria> filters = new ArrayList<>();
+        for (boolean hasBegin : new boolean[] { false, true }) {
+            for (boolean hasEnd : new boolean[] { false, true }) {
+                for (Ordering ordering : Ordering.values()) {
+                    filters.add(filter(hasBegin ? BEGIN : null, hasEnd ? END : null, ordering, false));
+                    filters.add(filter(hasBegin ? BEGIN : null, hasEnd ? END : null, ordering, true));
+                }
+            }
+        }
+        return filters;
+    }
+
+    private static List<JdbcBaseDAO> allDaos() {
+        return List.of(new JdbcMysqlDAO(), new JdbcMariadbDAO(), new JdbcPostgresqlDAO(), new JdbcH2DAO(),
+                new JdbcHsqldbDAO(), new JdbcSqliteDAO(), new JdbcDerbyDAO());
+    }
+
+    @Test
+    public void queryWithoutRangeHasNoParameters() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+        FilterCriteria filter = filter(null, null, Ordering.DESCENDING, false);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, 2, TABLE, "SWITCHITEM", TIME_ZONE),
+                is("SELECT time, value FROM item0001 ORDER BY time DESC "));
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE), is(emptyArray()));
+    }
+
+    @Test
+    public void queryWithBeginOnly() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+        FilterCriteria filter = filter(BEGIN, null, Ordering.ASCENDING, false);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, -1, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, value FROM item0001 WHERE TIME>? ORDER BY time ASC"));
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE), arrayContaining(BEGIN_TIMESTAMP));
+    }
+
+    @Test
+    public void queryWithEndOnly() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+        FilterCriteria filter = filter(null, END, Ordering.ASCENDING, false);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, -1, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, value FROM item0001 WHERE TIME<? ORDER BY time ASC"));
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE), arrayContaining(END_TIMESTAMP));
+    }
+
+    @Test
+    public void pagedQueryWithRangeAndRounding() {
+        JdbcBaseDAO dao = new JdbcMysqlDAO();
+        FilterCriteria filter = filter(BEGIN, END, Ordering.DESCENDING, true);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, 2, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, ROUND(value,2) FROM item0001 WHERE TIME>? AND TIME<? ORDER BY time DESC  LIMIT ?,?"));
+        // LIMIT offset, row count
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE),
+                arrayContaining(BEGIN_TIMESTAMP, END_TIMESTAMP, 20, 10));
+    }
+
+    @Test
+    public void postgresqlPagedQuery() {
+        JdbcBaseDAO dao = new JdbcPostgresqlDAO();
+        FilterCriteria filter = filter(BEGIN, END, Ordering.DESCENDING, true);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, 2, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, ROUND(CAST (value AS numeric),2) FROM item0001 WHERE TIME>? AND TIME<? "
+                        + "ORDER BY time DESC OFFSET ? LIMIT ?"));
+        // OFFSET offset LIMIT row count
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE),
+                arrayContaining(BEGIN_TIMESTAMP, END_TIMESTAMP, 20, 10));
+    }
+
+    @Test
+    public void derbyPagedQuery() {
+        JdbcBaseDAO dao = new JdbcDerbyDAO();
+        FilterCriteria filter = filter(BEGIN, END, Ordering.ASCENDING, true);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, -1, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, value FROM ITEM0001 WHERE TIME>? AND TIME<? ORDER BY time ASC "
+                        + "OFFSET ? ROWS FETCH FIRST ? ROWS ONLY"));
+        // the paging values are bound as they were inlined before the query had been parameterized
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE),
+                arrayContaining(BEGIN_TIMESTAMP, END_TIMESTAMP, 10, 21));
+    }
+
+    @Test
+    public void derbyRoundsWithCast() {
+        JdbcBaseDAO dao = new JdbcDerbyDAO();
+        FilterCriteria filter = filter(null, null, Ordering.ASCENDING, false);
+
+        assertThat(dao.histItemFilterQueryProvider(filter, 2, TABLE, "NUMBERITEM", TIME_ZONE),
+                is("SELECT time, CAST(value + 0.005 AS DECIMAL(31,2)) FROM ITEM0001 ORDER BY time ASC"));
+    }
+
+    @Test
+    public void sqliteBindsDatesAsText() {
+        JdbcBaseDAO dao = new JdbcSqliteDAO();
+        FilterCriteria filter = filter(BEGIN, END, Ordering.ASCENDING, true);
+
+        assertThat(dao.histItemFilterQueryParams(filter, TIME_ZONE),
+                arrayContaining("2021-03-04 05:06:07", "2021-03-05 05:06:07", 20, 10));
+    }
+
+    @Test
+    public void everyPlaceholderHasAParameter() {
+        for (JdbcBaseDAO dao : allDaos()) {
+            for (FilterCriteria filter : allFilters()) {
+                String sql = dao.histItemFilterQueryProvider(filter, 2, TABLE, "NUMBERITEM", TIME_ZONE);
+                assertThat(dao.getClass().getSimpleName() + ": " + sql, sql.chars().filter(c -> c == '?').count(),
+                        is((long) dao.histItemFilterQueryParams(filter, TIME_ZONE).length));
+            }
+        }
+    }
+
+    @Test
+    public void cachedQueriesOfDifferentFiltersDoNotCollide() {
+        for (JdbcBaseDAO dao : allDaos()) {
+            // the second pass takes all statements from the cache
+            for (int pass = 0; pass < 2; pass++) {
+                for (FilterCriteria filter : allFilters()) {
+                    for (int decimals : new int[] { -1, 0, 2 }) {
+                        for (String simpleName : new String[] { "NUMBERITEM", "SWITCHITEM" }) {
+                            assertThat(dao.histItemFilterQuerySql(filter, decimals, TABLE, simpleName, TIME_ZONE),
+                                    is(dao.histItemFilterQueryProvider(filter, decimals, TABLE, simpleName,
+                                            TIME_ZONE)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the statements with which the batch writer stores several values of an item table at once.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcInsertItemValuesProviderTest {
+
+    @Test
+    public void mysqlUsesMultiRowInsertWithDuplicateKeyUpdate() {
+        assertThat(new JdbcMysqlDAO().insertItemValuesProvider("item0001", "DOUBLE", 2), is(
+                "INSERT INTO item0001 (TIME, VALUE) VALUES ( ?, ? ), ( ?, ? ) ON DUPLICATE KEY UPDATE VALUE=VALUES(VALUE)"));
+    }
+
+    @Test
+    public void mariadbUsesMultiRowInsertWithDuplicateKeyUpdate() {
+        assertThat(new JdbcMariadbDAO().insertItemValuesProvider("item0001", "DOUBLE", 1),
+                is("INSERT INTO item0001 (TIME, VALUE) VALUES ( ?, ? ) ON DUPLICATE KEY UPDATE VALUE=VALUES(VALUE)"));
+    }
+
+    @Test
+    public void postgresqlUsesMultiRowInsertOnConflictUpdate() {
+        assertThat(new JdbcPostgresqlDAO().insertItemValuesProvider("item0001", "DOUBLE PRECISION", 2),
+                is("INSERT INTO item0001 (TIME, VALUE) VALUES ( ?, CAST( ? as DOUBLE PRECISION) ), "
+                        + "( ?, CAST( ? as DOUBLE PRECISION) ) ON CONFLICT (TIME) DO UPDATE SET VALUE=EXCLUDED.VALUE"));
+    }
+
+    @Test
+    public void h2UsesMultiRowMerge() {
+        assertThat(new JdbcH2DAO().insertItemValuesProvider("item0001", "DOUBLE", 2), is(
+                "MERGE INTO item0001 (TIME, VALUE) KEY (TIME) VALUES ( ?, CAST( ? as DOUBLE) ), ( ?, CAST( ? as DOUBLE) )"));
+    }
+
+    @Test
+    public void hsqldbMergesTableOfValuesAndReplacesBothTableNames() {
+        assertThat(new JdbcHsqldbDAO().insertItemValuesProvider("item0001", "DOUBLE", 2),
+                is("MERGE INTO item0001 USING (VALUES ( CAST( ? as TIMESTAMP), CAST( ? as DOUBLE) ), "
+                        + "( CAST( ? as TIMESTAMP), CAST( ? as DOUBLE) )) temp (TIME, VALUE) "
+                        + "ON (item0001.TIME=temp.TIME) "
+                        + "WHEN NOT MATCHED THEN INSERT (TIME, VALUE) VALUES (temp.TIME, temp.VALUE)"));
+    }
+
+    @Test
+    public void sqliteUsesMultiRowInsertOrIgnore() {
+        assertThat(new JdbcSqliteDAO().insertItemValuesProvider("item0001", "DOUBLE", 2), is(
+                "INSERT OR IGNORE INTO item0001 (TIME, VALUE) VALUES ( ?, CAST( ? as DOUBLE) ), ( ?, CAST( ? as DOUBLE) )"));
+    }
+
+    @Test
+    public void derbyUsesSingleRowInsertForJdbcBatch() {
+        String expected = "INSERT INTO ITEM0001 (TIME, VALUE) VALUES( ?, CAST( ? as DOUBLE) )";
+        JdbcDerbyDAO dao = new JdbcDerbyDAO();
+
+        assertThat(dao.insertItemValuesProvider("item0001", "DOUBLE", 1), is(expected));
+        assertThat(dao.insertItemValuesProvider("item0001", "DOUBLE", 3), is(expected));
+    }
+
+    @Test
+    public void multiRowInsertsHaveTwoParametersPerRow() {
+        for (JdbcBaseDAO dao : List.of(new JdbcMysqlDAO(), new JdbcMariadbDAO(), new JdbcPostgresqlDAO(),
+                new JdbcH2DAO(), new JdbcHsqldbDAO(), new JdbcSqliteDAO())) {
+            for (int rows = 1; rows <= 3; rows++) {
+                String sql = dao.insertItemValuesProvider("item0001", "DOUBLE", rows);
+                assertThat(dao.getClass().getSimpleName() + ": " + sql, sql.chars().filter(c -> c == '?').count(),
+                        is(2L * rows));
+            }
+        }
+    }
+}
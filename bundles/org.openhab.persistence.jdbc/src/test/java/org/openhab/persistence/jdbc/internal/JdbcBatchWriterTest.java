@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.jdbc.dto.ItemVO;
+import org.openhab.persistence.jdbc.internal.JdbcBatchWriter.OverflowPolicy;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriterTest {
+
+    // long enough to never flush periodically within a test
+    private static final long FLUSH_INTERVAL = 3600000;
+
+    private final List<String> statements = new ArrayList<>();
+    private @Nullable Object failingValue;
+    private @Nullable JdbcBatchWriter writer;
+
+    private void writeTable(String tableName, List<ItemVO> values) {
+        if (values.stream().anyMatch(vo -> vo.getValue().equals(failingValue))) {
+            throw new IllegalStateException("cannot write " + failingValue);
+        }
+        statements.add(tableName + values.stream().map(vo -> String.valueOf(vo.getValue()))
+                .collect(Collectors.joining(",", "[", "]")));
+    }
+
+    private JdbcBatchWriter createWriter(int batchSize) {
+        JdbcBatchWriter writer = new JdbcBatchWriter(batchSize, FLUSH_INTERVAL, 100, OverflowPolicy.DROP_OLDEST,
+                this::writeTable);
+        this.writer = writer;
+        return writer;
+    }
+
+    private static ItemVO value(String tableName, long time, Object value) {
+        ItemVO vo = new ItemVO(tableName, null);
+        vo.setTime(new Date(time));
+        vo.setValue(value);
+        return vo;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JdbcBatchWriter writer = this.writer;
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void valuesOfOneTableAreWrittenTogether() {
+        JdbcBatchWriter writer = createWriter(100);
+
+        writer.enqueue(value("item1", 1000, 1));
+        writer.enqueue(value("item2", 1000, 2));
+        writer.enqueue(value("item1", 2000, 3));
+        writer.flush();
+
+        assertThat(statements, contains("item1[1,3]", "item2[2]"));
+        assertThat(writer.getWrittenCount(), is(3L));
+        assertThat(writer.getQueueDepth(), is(0));
+        assertThat(writer.getFlushCount(), is(1L));
+    }
+
+    @Test
+    public void onlyLastValueOfSameTimeIsWritten() {
+        JdbcBatchWriter writer = createWriter(100);
+
+        writer.enqueue(value("item1", 1000, 1));
+        writer.enqueue(value("item1", 1000, 2));
+        writer.enqueue(value("item1", 2000, 3));
+        writer.enqueue(value("item2", 1000, 4));
+        writer.flush();
+
+        // the superseded value is counted as written, not as dropped
+        assertThat(statements, contains("item1[2,3]", "item2[4]"));
+        assertThat(writer.getEnqueuedCount(), is(4L));
+        assertThat(writer.getWrittenCount(), is(4L));
+        assertThat(writer.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void failedChunkIsWrittenRowByRow() {
+        JdbcBatchWriter writer = createWriter(100);
+        failingValue = 2;
+
+        writer.enqueue(value("item1", 1000, 1));
+        writer.enqueue(value("item1", 2000, 2));
+        writer.enqueue(value("item1", 3000, 3));
+        writer.enqueue(value("item2", 1000, 4));
+        writer.flush();
+
+        assertThat(statements, contains("item1[1]", "item1[3]", "item2[4]"));
+        assertThat(writer.getWrittenCount(), is(3L));
+        assertThat(writer.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void flushOfTableWritesOnlyIfTableIsQueued() {
+        JdbcBatchWriter writer = createWriter(100);
+
+        writer.enqueue(value("item1", 1000, 1));
+        writer.flush("item2");
+        assertThat(writer.getQueueDepth(), is(1));
+
+        writer.flush("item1");
+        assertThat(writer.getQueueDepth(), is(0));
+        assertThat(statements, contains("item1[1]"));
+    }
+
+    @Test
+    public void stopWritesQueuedValues() {
+        JdbcBatchWriter writer = createWriter(100);
+
+        writer.enqueue(value("item1", 1000, 1));
+        writer.stop();
+
+        assertThat(statements, contains("item1[1]"));
+        assertThat(writer.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void enqueueAfterStopDoesNotFail() {
+        JdbcBatchWriter writer = createWriter(1);
+        writer.stop();
+
+        writer.enqueue(value("item1", 1000, 1));
+
+        assertThat(writer.getQueueDepth(), is(1));
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.persistence.FilterCriteria;
+
+/**
+ * Tests the bucket length chosen for downsampled queries.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcPersistenceServiceTest {
+
+    private static final ZonedDateTime BEGIN = ZonedDateTime.of(2021, 3, 4, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final ZonedDateTime ONE_DAY_LATER = BEGIN.plusDays(1);
+
+    private static FilterCriteria filter(@Nullable ZonedDateTime begin, @Nullable ZonedDateTime end) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setBeginDate(begin);
+        filter.setEndDate(end);
+        return filter;
+    }
+
+    @Test
+    public void rangeIsSplitIntoConfiguredNumberOfBuckets() {
+        // 86400 seconds in 500 buckets, rounded up so there are not more buckets than configured
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, ONE_DAY_LATER), 500), is(173));
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, ONE_DAY_LATER), 24), is(3600));
+    }
+
+    @Test
+    public void noBucketsIfDisabled() {
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, ONE_DAY_LATER), 0), is(0));
+    }
+
+    @Test
+    public void noBucketsWithoutBeginOrEnd() {
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(null, ONE_DAY_LATER), 500), is(0));
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, null), 500), is(0));
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(null, null), 500), is(0));
+    }
+
+    @Test
+    public void noBucketsForPagedFilter() {
+        FilterCriteria filter = filter(BEGIN, ONE_DAY_LATER);
+        filter.setPageSize(100);
+
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter, 500), is(0));
+    }
+
+    @Test
+    public void noBucketsShorterThanTwoSeconds() {
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, ONE_DAY_LATER), 86400), is(0));
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, ONE_DAY_LATER), 43200), is(2));
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(BEGIN, BEGIN.plusSeconds(1)), 1), is(0));
+    }
+
+    @Test
+    public void noBucketsIfEndIsBeforeBegin() {
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter(ONE_DAY_LATER, BEGIN), 500), is(0));
+    }
+
+    @Test
+    public void bucketLengthIsLimited() {
+        FilterCriteria filter = filter(BEGIN.minusYears(1000), BEGIN.plusYears(1000));
+
+        assertThat(JdbcPersistenceService.getDownsampleBucketSeconds(filter, 1), is(Integer.MAX_VALUE));
+    }
+}
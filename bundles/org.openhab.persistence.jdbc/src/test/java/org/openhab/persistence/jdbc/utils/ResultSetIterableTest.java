@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class ResultSetIterableTest {
+
+    private static final String SQL = "SELECT time, value FROM item0001 WHERE TIME>?";
+    private static final long IDLE_TIMEOUT_MILLIS = 100;
+
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getObject(1)).thenReturn("t1", "t2");
+        when(resultSet.getObject(2)).thenReturn(1, 2);
+    }
+
+    private ResultSetIterable<String> createIterable(ResultSetIterable.StatementPreparer preparer) {
+        return new ResultSetIterable<>(SQL, new Object[] { "begin" }, preparer, row -> row[0] + "=" + row[1],
+                () -> connection, IDLE_TIMEOUT_MILLIS);
+    }
+
+    private static <T> List<T> readAll(Iterable<T> iterable) {
+        List<T> result = new ArrayList<>();
+        iterable.forEach(result::add);
+        return result;
+    }
+
+    @Test
+    public void rowsAreConvertedAndConnectionIsReleasedAfterLastRow() throws SQLException {
+        List<String> rows = readAll(createIterable((c, s) -> s.setFetchSize(1)));
+
+        assertThat(rows, contains("t1=1", "t2=2"));
+        verify(statement).setFetchSize(1);
+        verify(statement).setObject(1, "begin");
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    public void unchangedAutoCommitIsNotTouched() throws SQLException {
+        readAll(createIterable((c, s) -> {
+        }));
+
+        verify(connection, never()).setAutoCommit(anyBoolean());
+        verify(connection, never()).rollback();
+    }
+
+    @Test
+    public void autoCommitIsRestoredBeforeConnectionIsReleased() throws SQLException {
+        // the preparer disables auto-commit, e.g. for a cursor based fetch size
+        when(connection.getAutoCommit()).thenReturn(true, false);
+
+        readAll(createIterable((c, s) -> c.setAutoCommit(false)));
+
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+
+    @Test
+    public void failedQueryReturnsNoRowsAndReleasesConnection() throws SQLException {
+        when(statement.executeQuery()).thenThrow(new SQLException("syntax error"));
+
+        assertThat(createIterable((c, s) -> {
+        }).iterator().hasNext(), is(false));
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    public void failedConversionReleasesConnection() throws SQLException {
+        Iterator<String> iterator = new ResultSetIterable<String>(SQL, new Object[0], (c, s) -> {
+        }, row -> {
+            throw new IllegalArgumentException("unexpected value");
+        }, () -> connection, IDLE_TIMEOUT_MILLIS).iterator();
+
+        assertThrows(IllegalArgumentException.class, iterator::hasNext);
+        verify(connection).close();
+    }
+
+    @Test
+    public void idleResultIsReleased() throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+        Iterator<String> iterator = createIterable((c, s) -> {
+        }).iterator();
+
+        assertThat(iterator.next(), is("t1=1"));
+        verify(connection, timeout(5000)).close();
+        verify(resultSet).close();
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+
+    @Test
+    public void resultWhichIsReadIsNotReleased() throws SQLException, InterruptedException {
+        when(resultSet.next()).thenReturn(true);
+        Iterator<String> iterator = createIterable((c, s) -> {
+        }).iterator();
+
+        for (int i = 0; i < 5; i++) {
+            iterator.next();
+            Thread.sleep(IDLE_TIMEOUT_MILLIS / 4);
+        }
+        verify(connection, never()).close();
+    }
+}
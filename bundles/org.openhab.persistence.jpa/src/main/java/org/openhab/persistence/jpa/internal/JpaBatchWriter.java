@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects items to be persisted and hands them over in one list per flush, so they can be written with one
+ * EntityManager and one transaction. A flush happens when the batch size is reached or the flush interval has passed.
+ * If the queue is full, the oldest item is dropped.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JpaBatchWriter {
+    static final int MAX_QUEUE_SIZE = 10000;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final Logger logger = LoggerFactory.getLogger(JpaBatchWriter.class);
+
+    private final BlockingQueue<JpaPersistentItem> queue;
+    private final int batchSize;
+    private final Consumer<List<JpaPersistentItem>> itemWriter;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("jpa-batch"));
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    /**
+     * @param batchSize number of queued items which triggers a flush
+     * @param flushInterval interval in milliseconds in which queued items are written
+     * @param itemWriter persists a list of items in one transaction, throws a RuntimeException if that failed
+     */
+    public JpaBatchWriter(int batchSize, long flushInterval, Consumer<List<JpaPersistentItem>> itemWriter) {
+        this(batchSize, flushInterval, Math.max(batchSize, MAX_QUEUE_SIZE), itemWriter);
+    }
+
+    // Visible for testing
+    JpaBatchWriter(int batchSize, long flushInterval, int queueSize, Consumer<List<JpaPersistentItem>> itemWriter) {
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.itemWriter = itemWriter;
+        long interval = Math.max(1, flushInterval);
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(JpaPersistentItem item) {
+        enqueued.incrementAndGet();
+        if (stopped) {
+            // a store which raced the deactivation of the service, the queue is not written anymore
+            dropped.incrementAndGet();
+            logger.debug("Batch writer is stopped, dropping value of item '{}'", item.getName());
+            return;
+        }
+        while (!queue.offer(item)) {
+            JpaPersistentItem oldest = queue.poll();
+            if (oldest != null) {
+                dropped.incrementAndGet();
+                logger.debug("Queue is full, dropping oldest value of item '{}'", oldest.getName());
+            }
+        }
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // stopped, the queue is written by stop()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes all queued items.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<JpaPersistentItem> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+        try {
+            itemWriter.accept(pending);
+            written.addAndGet(pending.size());
+        } catch (RuntimeException e) {
+            dropped.addAndGet(pending.size());
+            logger.warn("Could not persist {} items: {}", pending.size(), e.getMessage());
+        }
+        flushes.incrementAndGet();
+    }
+
+    /**
+     * Stops the periodic flush and writes the items still queued, after a flush in progress has completed.
+     */
+    public void stop() {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("The running flush did not complete within {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("Batch writer stopped: {}", this);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "JpaBatchWriter [queueDepth=" + getQueueDepth() + ", enqueued=" + getEnqueuedCount() + ", written="
+                + getWrittenCount() + ", dropped=" + getDroppedCount() + ", flushes=" + getFlushCount() + "]";
+    }
+}
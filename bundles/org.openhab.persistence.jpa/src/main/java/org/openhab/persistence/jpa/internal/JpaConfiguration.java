@@ -32,6 +32,11 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCHSIZE = "batchsize";
+    private static final String CFG_FLUSHINTERVAL = "flushinterval";
+
+    public static final int DEFAULT_BATCHSIZE = 0;
+    public static final long DEFAULT_FLUSHINTERVAL = 1000;
 
     public static boolean isInitialized = false;
 
@@ -40,6 +45,8 @@ public class JpaConfiguration {
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchSize;
+    public final long flushInterval;
 
     public JpaConfiguration(final Map<String, Object> properties) {
         logger.debug("Update config...");
@@ -77,7 +84,28 @@ public class JpaConfiguration {
         }
         dbSyncMapping = (String) properties.get(CFG_SYNCMAPPING);
 
+        batchSize = (int) parseLong(properties.get(CFG_BATCHSIZE), CFG_BATCHSIZE, DEFAULT_BATCHSIZE);
+        logger.debug("batchsize: {}", batchSize);
+        flushInterval = parseLong(properties.get(CFG_FLUSHINTERVAL), CFG_FLUSHINTERVAL, DEFAULT_FLUSHINTERVAL);
+        logger.debug("flushinterval: {}", flushInterval);
+
         isInitialized = true;
         logger.debug("Update config... done");
     }
+
+    private long parseLong(Object value, String name, long defaultValue) {
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.toString().trim());
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        logger.warn("Invalid value '{}' for {} in jpa.cfg, using {}", value, name, defaultValue);
+        return defaultValue;
+    }
 }
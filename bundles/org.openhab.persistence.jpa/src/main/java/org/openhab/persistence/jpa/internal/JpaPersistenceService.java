@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -23,7 +24,7 @@ import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -57,6 +58,10 @@ import org.slf4j.LoggerFactory;
 @Component(service = { PersistenceService.class,
         QueryablePersistenceService.class }, configurationPid = "org.openhab.jpa", configurationPolicy = ConfigurationPolicy.REQUIRE)
 public class JpaPersistenceService implements QueryablePersistenceService {
+    // bounds of the time range if the filter has none, within the range of a TIMESTAMP column of all databases
+    static final Date MIN_DATE = new Date(0);
+    static final Date MAX_DATE = Date.from(Instant.parse("9999-12-31T00:00:00Z"));
+
     private final Logger logger = LoggerFactory.getLogger(JpaPersistenceService.class);
 
     private final ItemRegistry itemRegistry;
@@ -65,6 +70,8 @@ public class JpaPersistenceService implements QueryablePersistenceService {
 
     private @NonNullByDefault({}) JpaConfiguration config;
 
+    private volatile @Nullable JpaBatchWriter batchWriter;
+
     @Activate
     public JpaPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -86,6 +93,9 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     public void activate(BundleContext context, Map<String, Object> properties) {
         logger.debug("Activating jpa persistence service");
         config = new JpaConfiguration(properties);
+        if (config.batchSize > 1) {
+            batchWriter = new JpaBatchWriter(config.batchSize, config.flushInterval, this::persist);
+        }
     }
 
     /**
@@ -94,6 +104,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating jpa persistence service");
+        JpaBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            // no new items, then write the queued items while the EntityManagerFactory is still open
+            batchWriter = null;
+            localBatchWriter.stop();
+        }
         closeEntityManagerFactory();
     }
 
@@ -142,6 +158,13 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
+        JpaBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            localBatchWriter.enqueue(pItem);
+            logger.debug("Storing item...queued");
+            return;
+        }
+
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
             logger.debug("Persisting item...");
@@ -160,6 +183,40 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         logger.debug("Storing item...done");
     }
 
+    /**
+     * Persists items with one EntityManager and one transaction. The provider writes them with JDBC batches, see
+     * {@link #newEntityManagerFactory()}.
+     *
+     * @param pItems the items to persist
+     * @throws IllegalStateException if the items could not be persisted, the transaction has been rolled back then.
+     *             It is logged by the {@link JpaBatchWriter}.
+     */
+    private void persist(List<JpaPersistentItem> pItems) {
+        EntityManager em = getEntityManagerFactory().createEntityManager();
+        try {
+            logger.debug("Persisting {} items...", pItems.size());
+            em.getTransaction().begin();
+            for (int i = 0; i < pItems.size(); i++) {
+                em.persist(pItems.get(i));
+                if ((i + 1) % config.batchSize == 0) {
+                    // sends the batch and detaches its items, which are not needed anymore
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.getTransaction().commit();
+            logger.debug("Persisting {} items...done", pItems.size());
+        } catch (Exception e) {
+            logger.debug("Error on persisting {} items! Rolling back!", pItems.size());
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw new IllegalStateException(e);
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
         return Collections.emptySet();
@@ -177,28 +234,14 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         String itemName = filter.getItemName();
         Item item = getItemFromRegistry(itemName);
 
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
-        }
+        String queryName = getQueryName(filter);
+        logger.debug("The query: {}", queryName);
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
-        }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
+        JpaBatchWriter localBatchWriter = batchWriter;
+        if (localBatchWriter != null) {
+            // the queued states are part of the result
+            localBatchWriter.flush();
         }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
-
-        logger.debug("The query: {}", queryString);
 
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
@@ -206,21 +249,11 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             em.getTransaction().begin();
 
             logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
-            query.setParameter("itemName", item.getName());
-            if (hasBeginDate) {
-                query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
-            }
-            if (hasEndDate) {
-                query.setParameter("endDate", Date.from(filter.getEndDate().toInstant()));
-            }
-
-            query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
-            query.setMaxResults(filter.getPageSize());
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
+            setQueryParameters(query, item.getName(), filter);
             logger.debug("Creating query...done");
 
             logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
             List<JpaPersistentItem> result = query.getResultList();
             logger.debug("Retrieving result list...done");
 
@@ -240,6 +273,29 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         return Collections.emptyList();
     }
 
+    /**
+     * Returns the named query of the filter. The named queries are parsed once by the provider.
+     */
+    static String getQueryName(FilterCriteria filter) {
+        return filter.getOrdering() == Ordering.ASCENDING ? JpaPersistentItem.QUERY_ASCENDING
+                : JpaPersistentItem.QUERY_DESCENDING;
+    }
+
+    /**
+     * Binds the parameters of a named query. Missing bounds of the time range are replaced by {@link #MIN_DATE} and
+     * {@link #MAX_DATE}, so the same query serves all filters.
+     */
+    static void setQueryParameters(TypedQuery<?> query, String itemName, FilterCriteria filter) {
+        query.setParameter("itemName", itemName);
+        query.setParameter("beginDate",
+                filter.getBeginDate() == null ? MIN_DATE : Date.from(filter.getBeginDate().toInstant()));
+        query.setParameter("endDate",
+                filter.getEndDate() == null ? MAX_DATE : Date.from(filter.getEndDate().toInstant()));
+
+        query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
+        query.setMaxResults(filter.getPageSize());
+    }
+
     /**
      * Creates a new EntityManagerFactory with properties read from openhab.cfg via JpaConfiguration.
      *
@@ -264,6 +320,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.warn("You are settings openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
         }
+        if (config.batchSize > 1) {
+            // statements of a flush are sent with JDBC batches of this size
+            properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
+        }
 
         EntityManagerFactory fac = Persistence.createEntityManagerFactory(getPersistenceUnitName(), properties);
         logger.debug("Creating EntityManagerFactory...done");
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JpaBatchWriterTest {
+    // long enough to never flush periodically within a test
+    private static final long FLUSH_INTERVAL = 3600000;
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstBatch = new CountDownLatch(1);
+    private volatile boolean failWrites;
+    private @Nullable JpaBatchWriter writer;
+
+    private void write(List<JpaPersistentItem> items) {
+        if (failWrites) {
+            throw new IllegalStateException("database not available");
+        }
+        batches.add(items.stream().map(JpaPersistentItem::getName).collect(Collectors.toList()));
+        firstBatch.countDown();
+    }
+
+    private JpaBatchWriter createWriter(int batchSize, int queueSize) {
+        JpaBatchWriter writer = new JpaBatchWriter(batchSize, FLUSH_INTERVAL, queueSize, this::write);
+        this.writer = writer;
+        return writer;
+    }
+
+    private static JpaPersistentItem item(String name) {
+        JpaPersistentItem item = new JpaPersistentItem();
+        item.setName(name);
+        return item;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JpaBatchWriter writer = this.writer;
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void reachingBatchSizeTriggersFlush() throws InterruptedException {
+        JpaBatchWriter writer = createWriter(2, 100);
+
+        writer.enqueue(item("a"));
+        assertThat(firstBatch.await(200, TimeUnit.MILLISECONDS), is(false));
+        writer.enqueue(item("b"));
+
+        assertThat(firstBatch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(batches.get(0), contains("a", "b"));
+    }
+
+    @Test
+    public void oldestItemIsDroppedIfQueueIsFull() {
+        JpaBatchWriter writer = createWriter(100, 2);
+
+        writer.enqueue(item("a"));
+        writer.enqueue(item("b"));
+        writer.enqueue(item("c"));
+        writer.flush();
+
+        assertThat(batches, contains(List.of("b", "c")));
+        assertThat(writer.getEnqueuedCount(), is(3L));
+        assertThat(writer.getDroppedCount(), is(1L));
+        assertThat(writer.getWrittenCount(), is(2L));
+    }
+
+    @Test
+    public void stopWritesQueuedItems() {
+        JpaBatchWriter writer = createWriter(100, 100);
+
+        writer.enqueue(item("a"));
+        writer.stop();
+
+        assertThat(batches, contains(List.of("a")));
+        assertThat(writer.getQueueDepth(), is(0));
+        assertThat(writer.getWrittenCount(), is(1L));
+    }
+
+    @Test
+    public void failedWriteDropsItsItems() {
+        JpaBatchWriter writer = createWriter(100, 100);
+        failWrites = true;
+
+        writer.enqueue(item("a"));
+        writer.enqueue(item("b"));
+        writer.flush();
+
+        assertThat(writer.getDroppedCount(), is(2L));
+        assertThat(writer.getWrittenCount(), is(0L));
+        assertThat(writer.getFlushCount(), is(1L));
+
+        failWrites = false;
+        writer.enqueue(item("c"));
+        writer.flush();
+
+        assertThat(batches, contains(List.of("c")));
+        assertThat(writer.getDroppedCount(), is(2L));
+        assertThat(writer.getWrittenCount(), is(1L));
+        assertThat(writer.getFlushCount(), is(2L));
+    }
+
+    @Test
+    public void itemsEnqueuedAfterStopAreDropped() {
+        JpaBatchWriter writer = createWriter(1, 100);
+        writer.stop();
+
+        writer.enqueue(item("a"));
+
+        assertThat(writer.getDroppedCount(), is(1L));
+        assertThat(writer.getQueueDepth(), is(0));
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import javax.persistence.TypedQuery;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+
+/**
+ * Tests how the parameters of the named queries are chosen for a filter.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class JpaPersistenceServiceTest {
+    private static final ZonedDateTime BEGIN = ZonedDateTime.of(2021, 3, 4, 5, 6, 7, 0, ZoneOffset.ofHours(1));
+    private static final ZonedDateTime END = BEGIN.plusDays(1);
+
+    @SuppressWarnings("unchecked")
+    private final TypedQuery<JpaPersistentItem> query = mock(TypedQuery.class);
+
+    @Test
+    public void missingBeginAndEndAreReplacedByBounds() {
+        JpaPersistenceService.setQueryParameters(query, "item", new FilterCriteria());
+
+        verify(query).setParameter("itemName", "item");
+        verify(query).setParameter("beginDate", JpaPersistenceService.MIN_DATE);
+        verify(query).setParameter("endDate", JpaPersistenceService.MAX_DATE);
+    }
+
+    @Test
+    public void missingBeginIsReplacedByLowerBound() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setEndDate(END);
+
+        JpaPersistenceService.setQueryParameters(query, "item", filter);
+
+        verify(query).setParameter("beginDate", JpaPersistenceService.MIN_DATE);
+        verify(query).setParameter("endDate", Date.from(END.toInstant()));
+    }
+
+    @Test
+    public void missingEndIsReplacedByUpperBound() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setBeginDate(BEGIN);
+
+        JpaPersistenceService.setQueryParameters(query, "item", filter);
+
+        verify(query).setParameter("beginDate", Date.from(BEGIN.toInstant()));
+        verify(query).setParameter("endDate", JpaPersistenceService.MAX_DATE);
+    }
+
+    @Test
+    public void boundsAreOutsideOfStoredTimes() {
+        assertThat(JpaPersistenceService.MIN_DATE.getTime(), is(0L));
+        assertThat(JpaPersistenceService.MAX_DATE.after(Date.from(ZonedDateTime.now().plusYears(1000).toInstant())),
+                is(true));
+    }
+
+    @Test
+    public void pageIsSelectedByFirstAndMaxResults() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setPageNumber(3);
+        filter.setPageSize(20);
+
+        JpaPersistenceService.setQueryParameters(query, "item", filter);
+
+        verify(query).setFirstResult(60);
+        verify(query).setMaxResults(20);
+    }
+
+    @Test
+    public void queryIsChosenByOrdering() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setOrdering(Ordering.ASCENDING);
+        assertThat(JpaPersistenceService.getQueryName(filter), is(JpaPersistentItem.QUERY_ASCENDING));
+
+        filter.setOrdering(Ordering.DESCENDING);
+        assertThat(JpaPersistenceService.getQueryName(filter), is(JpaPersistentItem.QUERY_DESCENDING));
+    }
+}
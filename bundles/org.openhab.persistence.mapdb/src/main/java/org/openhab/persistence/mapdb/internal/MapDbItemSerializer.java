@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * Binary format of a {@link MapDbItem}. The most common state types are written with a type tag and their primitive
+ * values, all other states with their class name and full string representation.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializer {
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_GENERIC = 0;
+    private static final byte TAG_NULL = 1;
+    private static final byte TAG_UNDEF = 2;
+    private static final byte TAG_ON = 3;
+    private static final byte TAG_OFF = 4;
+    private static final byte TAG_OPEN = 5;
+    private static final byte TAG_CLOSED = 6;
+    private static final byte TAG_DECIMAL = 7;
+    private static final byte TAG_PERCENT = 8;
+    private static final byte TAG_HSB = 9;
+    private static final byte TAG_DATETIME = 10;
+    private static final byte TAG_STRING = 11;
+
+    public byte[] serialize(MapDbItem item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        writeString(out, item.getName());
+        out.writeLong(item.getTimestamp().toInstant().toEpochMilli());
+        writeState(out, item.getState());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public MapDbItem deserialize(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        MapDbItem item = new MapDbItem();
+        // the names are kept by every item info and historic item, share them
+        item.setName(readString(in).intern());
+        item.setTimestamp(new Date(in.readLong()));
+        item.setState(readState(in));
+        return item;
+    }
+
+    private void writeState(DataOutput out, State state) throws IOException {
+        // subclasses have their own tags or are written generically, so the exact class is checked
+        Class<?> type = state.getClass();
+        if (state == UnDefType.NULL) {
+            out.writeByte(TAG_NULL);
+        } else if (state == UnDefType.UNDEF) {
+            out.writeByte(TAG_UNDEF);
+        } else if (state == OnOffType.ON) {
+            out.writeByte(TAG_ON);
+        } else if (state == OnOffType.OFF) {
+            out.writeByte(TAG_OFF);
+        } else if (state == OpenClosedType.OPEN) {
+            out.writeByte(TAG_OPEN);
+        } else if (state == OpenClosedType.CLOSED) {
+            out.writeByte(TAG_CLOSED);
+        } else if (type == DecimalType.class) {
+            out.writeByte(TAG_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (type == PercentType.class) {
+            out.writeByte(TAG_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (type == HSBType.class) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TAG_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (type == DateTimeType.class) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(TAG_DATETIME);
+            out.writeLong(dateTime.toEpochSecond());
+            out.writeInt(dateTime.getNano());
+            writeString(out, dateTime.getZone().getId());
+        } else if (type == StringType.class) {
+            out.writeByte(TAG_STRING);
+            writeString(out, state.toString());
+        } else {
+            out.writeByte(TAG_GENERIC);
+            writeString(out, type.getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    private State readState(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return UnDefType.NULL;
+            case TAG_UNDEF:
+                return UnDefType.UNDEF;
+            case TAG_ON:
+                return OnOffType.ON;
+            case TAG_OFF:
+                return OnOffType.OFF;
+            case TAG_OPEN:
+                return OpenClosedType.OPEN;
+            case TAG_CLOSED:
+                return OpenClosedType.CLOSED;
+            case TAG_DECIMAL:
+                return new DecimalType(readDecimal(in));
+            case TAG_PERCENT:
+                return new PercentType(readDecimal(in));
+            case TAG_HSB:
+                return new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                        new PercentType(readDecimal(in)));
+            case TAG_DATETIME:
+                Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                return new DateTimeType(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))));
+            case TAG_STRING:
+                return new StringType(readString(in));
+            case TAG_GENERIC:
+                return readGenericState(readString(in), readString(in));
+            default:
+                throw new IOException("Unknown state type tag " + tag);
+        }
+    }
+
+    private State readGenericState(String typeName, String value) throws IOException {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> type = (Class<? extends State>) Class.forName(typeName);
+            State state = TypeParser.parseState(List.of(type), value);
+            if (state == null) {
+                throw new IOException("Cannot parse '" + value + "' as " + typeName);
+            }
+            return state;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unknown state type " + typeName, e);
+        }
+    }
+
+    private void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    // DataOutput.writeUTF is limited to 64 KiB, which is too small for string items
+    private void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
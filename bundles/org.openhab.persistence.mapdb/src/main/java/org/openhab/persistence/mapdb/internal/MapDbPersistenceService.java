@@ -24,14 +24,19 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.BTreeKeySerializer;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
@@ -68,15 +73,28 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
+    // map of the former JSON format, migrated to the binary map on activation
+    private static final String JSON_MAP_NAME = "itemStore";
+    private static final String MAP_NAME = "itemStates";
+
+    // changes are committed together, at the latest after this time or this number of changes
+    private static final long COMMIT_INTERVAL_MILLIS = 1000;
+    private static final int COMMIT_MAX_CHANGES = 1000;
 
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
-    private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
+
+    private final AtomicInteger uncommittedChanges = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
 
     /** holds the local instance of the MapDB database */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, byte[]> map;
+
+    private final MapDbItemSerializer serializer = new MapDbItemSerializer();
 
     private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
@@ -96,7 +114,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         File dbFile = DB_DIR.resolve(DB_FILE_NAME).toFile();
         try {
             db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-            map = db.createTreeMap("itemStore").makeOrGet();
+            map = openMap();
         } catch (RuntimeException re) {
             Throwable cause = re.getCause();
             if (cause instanceof ClassNotFoundException) {
@@ -129,7 +147,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
                 }
 
                 db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-                map = db.createTreeMap("itemStore").makeOrGet();
+                map = openMap();
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
@@ -142,10 +160,32 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
         if (db != null) {
+            commitNow();
             db.close();
         }
     }
 
+    private Map<String, byte[]> openMap() {
+        Map<String, byte[]> binaryMap = db.createTreeMap(MAP_NAME).keySerializer(BTreeKeySerializer.STRING)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        if (db.exists(JSON_MAP_NAME)) {
+            Map<String, String> jsonMap = db.getTreeMap(JSON_MAP_NAME);
+            int count = 0;
+            for (Map.Entry<String, String> entry : jsonMap.entrySet()) {
+                Optional<byte[]> value = deserializeJson(entry.getValue()).flatMap(this::serialize);
+                if (value.isPresent()) {
+                    binaryMap.putIfAbsent(entry.getKey(), value.get());
+                    count++;
+                }
+            }
+            int size = jsonMap.size();
+            db.delete(JSON_MAP_NAME);
+            db.commit();
+            logger.info("Migrated {} of {} item states in MapDB to the binary format", count, size);
+        }
+        return binaryMap;
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
@@ -182,30 +222,44 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(localAlias, json);
-        commit();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+        Optional<byte[]> value = serialize(mItem);
+        if (value.isPresent()) {
+            map.put(localAlias, value.get());
+            commit();
+            logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
         }
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        byte[] value = map.get(filter.getItemName());
+        if (value == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(value);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<byte[]> serialize(MapDbItem item) {
+        try {
+            return Optional.of(serializer.serialize(item));
+        } catch (IOException e) {
+            logger.warn("Failed to serialize '{}': {}", item, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<MapDbItem> deserialize(byte[] value) {
+        try {
+            return Optional.of(serializer.deserialize(value));
+        } catch (IOException e) {
+            logger.warn("Failed to deserialize item: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
 
     @SuppressWarnings("null")
-    private Optional<MapDbItem> deserialize(String json) {
+    private Optional<MapDbItem> deserializeJson(String json) {
         MapDbItem item = mapper.<MapDbItem> fromJson(json, MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
@@ -217,8 +271,22 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
+    /**
+     * Commits the changes asynchronously, together with other changes within the commit interval.
+     */
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        if (uncommittedChanges.incrementAndGet() == COMMIT_MAX_CHANGES) {
+            scheduler.execute(this::commitNow);
+        } else if (commitScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::commitNow, COMMIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void commitNow() {
+        commitScheduled.set(false);
+        if (uncommittedChanges.getAndSet(0) > 0 && !db.isClosed()) {
+            db.commit();
+        }
     }
 
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
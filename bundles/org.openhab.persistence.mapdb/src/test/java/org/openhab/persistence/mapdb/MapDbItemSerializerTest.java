@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.Units;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemSerializer;
+
+/**
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializerTest {
+    private MapDbItemSerializer serializer = new MapDbItemSerializer();
+
+    private static final List<State> VALUES = Stream.of(List.of(UnDefType.NULL, UnDefType.UNDEF),
+            List.of(OnOffType.ON, OnOffType.OFF, OpenClosedType.OPEN, OpenClosedType.CLOSED, UpDownType.UP),
+            List.of(DecimalType.ZERO, new DecimalType(1.123), new DecimalType(-10000000),
+                    new DecimalType(new BigDecimal("123456789012345678901234567890.123"))),
+            List.of(PercentType.ZERO, PercentType.HUNDRED, PercentType.valueOf("0.0000001"),
+                    PercentType.valueOf("99.999")),
+            List.of(HSBType.BLACK, HSBType.WHITE, HSBType.fromRGB(11, 22, 33)),
+            List.of(new DateTimeType(ZonedDateTime.of(2021, 3, 4, 5, 6, 7, 890000000, ZoneId.of("Europe/Berlin"))),
+                    new DateTimeType(ZonedDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")))),
+            List.of(StringType.valueOf("test"), StringType.valueOf(""), StringType.valueOf("äöü @@@ €"),
+                    StringType.valueOf("x".repeat(70000))),
+            List.of(QuantityType.valueOf("1 kW"), new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS),
+                    QuantityType.valueOf(20, Units.AMPERE), new PointType("52.5200,13.4050")))
+            .flatMap(List::stream).collect(Collectors.toList());
+
+    @ParameterizedTest
+    @MethodSource
+    public void serializeDeserializeRoundtripShouldRecreateTheItem(State state) throws IOException {
+        MapDbItem item = new MapDbItem();
+        item.setName("Item_" + state.getClass().getSimpleName());
+        item.setState(state);
+        item.setTimestamp(new Date(1614830767890L));
+
+        MapDbItem actual = serializer.deserialize(serializer.serialize(item));
+
+        assertThat(actual.getName(), is(equalTo(item.getName())));
+        assertThat(actual.getTimestamp(), is(equalTo(item.getTimestamp())));
+        assertThat(actual.getState(), is(equalTo(state)));
+    }
+
+    public static Stream<State> serializeDeserializeRoundtripShouldRecreateTheItem() {
+        return VALUES.stream();
+    }
+}
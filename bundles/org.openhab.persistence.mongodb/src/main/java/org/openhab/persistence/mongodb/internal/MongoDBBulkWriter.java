@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.openhab.persistence.mongodb.internal.MongoDBPersistenceService.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.MongoException;
+
+/**
+ * Buffers item values and writes them with unordered bulk operations, one per collection, when either the bulk size is
+ * reached or the flush interval has passed.
+ *
+ * With the document layout every value is inserted as its own document. With the bucket layout the values of an item
+ * are appended to one document per hour, so frequently updated items create far fewer documents.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBBulkWriter {
+    private static final int MAX_QUEUE_SIZE = 10000;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+    static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(MongoDBBulkWriter.class);
+
+    private final int bulkSize;
+    private final boolean bucketLayout;
+    private final Function<String, @Nullable DBCollection> collectionProvider;
+    private final BlockingQueue<Value> queue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory("mongodb-writer"));
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private static class Value {
+        private final String collectionName;
+        private final String name;
+        private final String realName;
+        private final Date timestamp;
+        private final Object value;
+
+        private Value(String collectionName, String name, String realName, Date timestamp, Object value) {
+            this.collectionName = collectionName;
+            this.name = name;
+            this.realName = realName;
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+    }
+
+    /**
+     * @param bulkSize maximum number of values written with one bulk operation, also triggers a flush when reached
+     * @param flushInterval interval in milliseconds in which queued values are written
+     * @param bucketLayout true to store the values of an item in one document per hour
+     * @param collectionProvider returns the collection of a name, or <code>null</code> if there is no connection
+     */
+    public MongoDBBulkWriter(int bulkSize, long flushInterval, boolean bucketLayout,
+            Function<String, @Nullable DBCollection> collectionProvider) {
+        this.bulkSize = Math.max(1, bulkSize);
+        this.bucketLayout = bucketLayout;
+        this.collectionProvider = collectionProvider;
+        long interval = Math.max(1, flushInterval);
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a value for writing. If the queue is full, the oldest value is dropped.
+     */
+    public void enqueue(String collectionName, String name, String realName, Date timestamp, Object value) {
+        if (stopped) {
+            // a store which raced the deactivation of the service, the queue is not written anymore
+            dropped.incrementAndGet();
+            logger.debug("MongoDB bulk writer is stopped, dropping value of item {}", realName);
+            return;
+        }
+        Value entry = new Value(collectionName, name, realName, timestamp, value);
+        while (!queue.offer(entry)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+                logger.debug("MongoDB write queue is full, dropping the oldest value");
+            }
+        }
+        if (queue.size() >= bulkSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // stopped, the queue is written by stop()
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes all queued values.
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<Value> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+
+        Map<String, List<Value>> valuesPerCollection = new LinkedHashMap<>();
+        for (Value value : pending) {
+            valuesPerCollection.computeIfAbsent(value.collectionName, c -> new ArrayList<>()).add(value);
+        }
+        for (Map.Entry<String, List<Value>> entry : valuesPerCollection.entrySet()) {
+            List<Value> values = entry.getValue();
+            for (int i = 0; i < values.size(); i += bulkSize) {
+                write(entry.getKey(), values.subList(i, Math.min(values.size(), i + bulkSize)));
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes the values still queued, after a flush in progress has completed.
+     */
+    public void stop() {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("The running MongoDB write did not complete within {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("MongoDB bulk writer stopped, written={}, dropped={}", written.get(), dropped.get());
+    }
+
+    private void write(String collectionName, List<Value> values) {
+        DBCollection collection = collectionProvider.apply(collectionName);
+        if (collection == null) {
+            dropped.addAndGet(values.size());
+            logger.warn("Cannot write {} values to collection {}: no connection", values.size(), collectionName);
+            return;
+        }
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        if (bucketLayout) {
+            addBucketUpdates(bulk, values);
+        } else {
+            for (Value value : values) {
+                BasicDBObject obj = new BasicDBObject();
+                obj.put(FIELD_ID, new ObjectId());
+                obj.put(FIELD_ITEM, value.name);
+                obj.put(FIELD_REALNAME, value.realName);
+                obj.put(FIELD_TIMESTAMP, value.timestamp);
+                obj.put(FIELD_VALUE, value.value);
+                bulk.insert(obj);
+            }
+        }
+        try {
+            bulk.execute();
+            written.addAndGet(values.size());
+        } catch (BulkWriteException e) {
+            // unordered operations are all attempted, only the reported ones failed
+            int failed = e.getWriteErrors().size();
+            logger.warn("Failed to write {} operations to collection {}: {}", failed, collectionName, e.getMessage());
+            written.addAndGet(Math.max(0, values.size() - failed));
+            dropped.addAndGet(failed);
+        } catch (MongoException e) {
+            dropped.addAndGet(values.size());
+            logger.warn("Failed to write {} values to collection {}: {}", values.size(), collectionName,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Adds one upsert per item and hour, which appends the values to the samples of the bucket document.
+     */
+    private void addBucketUpdates(BulkWriteOperation bulk, List<Value> values) {
+        Map<String, BasicDBList> samplesPerBucket = new LinkedHashMap<>();
+        Map<String, Value> firstValuePerBucket = new LinkedHashMap<>();
+        for (Value value : values) {
+            String key = value.name + '\u0000' + getBucketStart(value.timestamp).getTime();
+            firstValuePerBucket.putIfAbsent(key, value);
+            samplesPerBucket.computeIfAbsent(key, k -> new BasicDBList())
+                    .add(new BasicDBObject(FIELD_TIMESTAMP, value.timestamp).append(FIELD_VALUE, value.value));
+        }
+        for (Map.Entry<String, BasicDBList> entry : samplesPerBucket.entrySet()) {
+            Value first = firstValuePerBucket.get(entry.getKey());
+            if (first == null) {
+                continue;
+            }
+            BasicDBList samples = entry.getValue();
+            BasicDBObject query = new BasicDBObject(FIELD_ITEM, first.name).append(FIELD_BUCKET,
+                    getBucketStart(first.timestamp));
+            BasicDBObject update = new BasicDBObject("$push",
+                    new BasicDBObject(FIELD_SAMPLES, new BasicDBObject("$each", samples)))
+                            .append("$inc", new BasicDBObject(FIELD_COUNT, samples.size()))
+                            .append("$setOnInsert", new BasicDBObject(FIELD_REALNAME, first.realName));
+            bulk.find(query).upsert().updateOne(update);
+        }
+    }
+
+    static Date getBucketStart(Date timestamp) {
+        long time = timestamp.getTime();
+        return new Date(time - Math.floorMod(time, BUCKET_MILLIS));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
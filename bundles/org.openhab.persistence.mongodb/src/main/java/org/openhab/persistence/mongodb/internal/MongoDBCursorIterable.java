@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.persistence.HistoricItem;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.MongoException;
+
+/**
+ * Iterable over the documents of a query, which are converted while they are read from the cursor. Each iteration
+ * opens a new cursor, which is closed as soon as the last document has been read or reading or converting a document
+ * fails. A cursor of an abandoned iteration is closed by the server after its idle timeout.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBCursorIterable implements Iterable<HistoricItem> {
+
+    private final Supplier<DBCursor> cursorSupplier;
+    private final Function<BasicDBObject, HistoricItem> converter;
+
+    /**
+     * @param cursorSupplier opens the cursor of the query
+     * @param converter converts a document to a historic item
+     */
+    public MongoDBCursorIterable(Supplier<DBCursor> cursorSupplier, Function<BasicDBObject, HistoricItem> converter) {
+        this.cursorSupplier = cursorSupplier;
+        this.converter = converter;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        DBCursor cursor = cursorSupplier.get();
+        return new Iterator<HistoricItem>() {
+            private boolean closed;
+
+            @Override
+            public boolean hasNext() {
+                if (closed) {
+                    return false;
+                }
+                try {
+                    if (cursor.hasNext()) {
+                        return true;
+                    }
+                } catch (MongoException e) {
+                    close();
+                    throw e;
+                }
+                close();
+                return false;
+            }
+
+            @Override
+            public HistoricItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    @Nullable
+                    BasicDBObject obj = (BasicDBObject) cursor.next();
+                    if (obj == null) {
+                        throw new NoSuchElementException();
+                    }
+                    return converter.apply(obj);
+                } catch (RuntimeException e) {
+                    // also a failed conversion ends the iteration, the caller will not read any further
+                    close();
+                    throw e;
+                }
+            }
+
+            private void close() {
+                if (!closed) {
+                    closed = true;
+                    cursor.close();
+                }
+            }
+        };
+    }
+}
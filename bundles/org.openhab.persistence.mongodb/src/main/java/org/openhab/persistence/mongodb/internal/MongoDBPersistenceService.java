@@ -16,13 +16,15 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
-import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.Item;
@@ -62,7 +64,6 @@ import org.slf4j.LoggerFactory;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
-import com.mongodb.DBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
 
@@ -77,11 +78,19 @@ import com.mongodb.MongoClientURI;
         QueryablePersistenceService.class }, configurationPid = "org.openhab.mongodb", configurationPolicy = ConfigurationPolicy.REQUIRE)
 public class MongoDBPersistenceService implements QueryablePersistenceService {
 
-    private static final String FIELD_ID = "_id";
-    private static final String FIELD_ITEM = "item";
-    private static final String FIELD_REALNAME = "realName";
-    private static final String FIELD_TIMESTAMP = "timestamp";
-    private static final String FIELD_VALUE = "value";
+    static final String FIELD_ID = "_id";
+    static final String FIELD_ITEM = "item";
+    static final String FIELD_REALNAME = "realName";
+    static final String FIELD_TIMESTAMP = "timestamp";
+    static final String FIELD_VALUE = "value";
+    // fields of the bucket layout
+    static final String FIELD_BUCKET = "bucket";
+    static final String FIELD_COUNT = "count";
+    static final String FIELD_SAMPLES = "samples";
+
+    private static final String LAYOUT_BUCKET = "bucket";
+    // number of documents read from the server at once
+    private static final int QUERY_BATCH_SIZE = 1000;
 
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
@@ -89,6 +98,11 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private String db = "";
     private String collection = "";
     private boolean collectionPerItem;
+    private boolean bucketLayout;
+
+    // the collections are cached while connected, so their indexes are only ensured once
+    private final Map<String, DBCollection> collections = new ConcurrentHashMap<>();
+    private volatile @Nullable MongoDBBulkWriter bulkWriter;
 
     private boolean initialized = false;
 
@@ -127,6 +141,16 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         collection = dbCollection == null ? "" : dbCollection;
         collectionPerItem = dbCollection == null || dbCollection.isBlank();
 
+        @Nullable
+        String layout = (String) config.get("layout");
+        bucketLayout = LAYOUT_BUCKET.equalsIgnoreCase(layout == null ? "" : layout.trim());
+        logger.debug("MongoDB layout {}", bucketLayout ? LAYOUT_BUCKET : "document");
+
+        int bulkSize = getConfigIntValue(config, "bulkSize", 100);
+        int flushInterval = getConfigIntValue(config, "flushInterval", 1000);
+        bulkWriter = new MongoDBBulkWriter(bulkSize, flushInterval, bucketLayout,
+                collectionName -> tryConnectToDatabase() ? connectToCollection(collectionName) : null);
+
         if (!tryConnectToDatabase()) {
             logger.warn("Failed to connect to MongoDB server. Trying to reconnect later.");
         }
@@ -134,9 +158,29 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         initialized = true;
     }
 
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        try {
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            } else if (value instanceof String && !((String) value).isBlank()) {
+                return Integer.parseInt(((String) value).trim());
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}, using {}", value, key, defaultValue);
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        MongoDBBulkWriter writer = bulkWriter;
+        if (writer != null) {
+            // no new values, then write the values still queued before the connection is closed
+            bulkWriter = null;
+            writer.stop();
+        }
         disconnectFromDatabase();
     }
 
@@ -163,36 +207,19 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
-        // Connect to mongodb server if we're not already connected
-        // If we can't connect, log.
-        if (!tryConnectToDatabase()) {
-            logger.warn(
-                    "mongodb: No connection to database. Cannot persist item '{}'! Will retry connecting to database next time.",
-                    item);
+        MongoDBBulkWriter writer = bulkWriter;
+        if (writer == null) {
             return;
         }
 
         String realItemName = item.getName();
         String collectionName = collectionPerItem ? realItemName : this.collection;
 
-        @Nullable
-        DBCollection collection = connectToCollection(collectionName);
-
-        if (collection == null) {
-            // Logging is done in connectToCollection()
-            return;
-        }
-
         String name = (alias != null) ? alias : realItemName;
         Object value = this.convertValue(item.getState());
 
-        DBObject obj = new BasicDBObject();
-        obj.put(FIELD_ID, new ObjectId());
-        obj.put(FIELD_ITEM, name);
-        obj.put(FIELD_REALNAME, realItemName);
-        obj.put(FIELD_TIMESTAMP, new Date());
-        obj.put(FIELD_VALUE, value);
-        collection.save(obj);
+        // the connection is checked when the queued values are written
+        writer.enqueue(collectionName, name, realItemName, new Date(), value);
 
         logger.debug("MongoDB save {}={}", name, value);
     }
@@ -287,6 +314,10 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
      * @return The collection object when collection creation was successful. Null otherwise.
      */
     private @Nullable DBCollection connectToCollection(String collectionName) {
+        DBCollection cachedCollection = collections.get(collectionName);
+        if (cachedCollection != null) {
+            return cachedCollection;
+        }
         try {
             @Nullable
             MongoClient db = getDatabase();
@@ -299,9 +330,10 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             DBCollection mongoCollection = db.getDB(this.db).getCollection(collectionName);
 
             BasicDBObject idx = new BasicDBObject();
-            idx.append(FIELD_ITEM, 1).append(FIELD_TIMESTAMP, 1);
+            idx.append(FIELD_ITEM, 1).append(bucketLayout ? FIELD_BUCKET : FIELD_TIMESTAMP, 1);
             mongoCollection.createIndex(idx);
 
+            collections.put(collectionName, mongoCollection);
             return mongoCollection;
         } catch (Exception e) {
             logger.error("Failed to connect to collection {}: {}", collectionName, e.getMessage(), e);
@@ -313,6 +345,7 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
      * Disconnects from the database
      */
     private synchronized void disconnectFromDatabase() {
+        collections.clear();
         if (this.cl != null) {
             this.cl.close();
         }
@@ -330,6 +363,12 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
+        MongoDBBulkWriter writer = bulkWriter;
+        if (writer != null) {
+            // the result must include the values stored before
+            writer.flush();
+        }
+
         String realItemName = filter.getItemName();
         String collectionName = collectionPerItem ? realItemName : this.collection;
         @Nullable
@@ -349,22 +388,36 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
-        List<HistoricItem> items = new ArrayList<>();
         BasicDBObject query = new BasicDBObject();
         if (filter.getItemName() != null) {
             query.put(FIELD_ITEM, filter.getItemName());
         }
+        @Nullable
+        String op = null;
+        @Nullable
+        Object filterValue = null;
         if (filter.getState() != null && filter.getOperator() != null) {
-            @Nullable
-            String op = convertOperator(filter.getOperator());
+            op = convertOperator(filter.getOperator());
 
             if (op == null) {
                 logger.error("Failed to convert operator {} to MongoDB operator", filter.getOperator());
                 return Collections.emptyList();
             }
 
-            Object value = convertValue(filter.getState());
-            query.put(FIELD_VALUE, new BasicDBObject(op, value));
+            filterValue = convertValue(filter.getState());
+            if (!bucketLayout) {
+                query.put(FIELD_VALUE, new BasicDBObject(op, filterValue));
+            }
+        }
+
+        // the conversion only depends on the item type, so it is chosen once per query
+        Function<BasicDBObject, State> decoder = getStateDecoder(item);
+        ZoneId zoneId = ZoneId.systemDefault();
+        Function<BasicDBObject, HistoricItem> converter = obj -> new MongoDBItem(realItemName, decoder.apply(obj),
+                ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), zoneId));
+
+        if (bucketLayout) {
+            return queryBuckets(collection, query, filter, converter, op, filterValue);
         }
 
         BasicDBObject dateQueries = new BasicDBObject();
@@ -381,37 +434,142 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         logger.debug("Query: {}", query);
 
         Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = collection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
-                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
-
-        while (cursor.hasNext()) {
-            BasicDBObject obj = (BasicDBObject) cursor.next();
-
-            final State state;
-            if (item instanceof NumberItem) {
-                state = new DecimalType(obj.getDouble(FIELD_VALUE));
-            } else if (item instanceof DimmerItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof SwitchItem) {
-                state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof ContactItem) {
-                state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof RollershutterItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof DateTimeItem) {
-                state = new DateTimeType(
-                        ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
-            } else {
-                state = new StringType(obj.getString(FIELD_VALUE));
-            }
+        BasicDBObject projection = new BasicDBObject(FIELD_VALUE, 1).append(FIELD_TIMESTAMP, 1).append(FIELD_ID, 0);
+        // the documents are read while the result is iterated
+        DBCollection queryCollection = collection;
+        return new MongoDBCursorIterable(() -> queryCollection.find(query, projection)
+                .sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir)).skip(filter.getPageNumber() * filter.getPageSize())
+                .limit(filter.getPageSize()).batchSize(QUERY_BATCH_SIZE), converter);
+    }
 
-            items.add(new MongoDBItem(realItemName, state,
-                    ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+    /**
+     * Queries the bucket documents of the filter range. The samples are filtered, sorted and paged while they are read,
+     * as they are stored within the documents.
+     */
+    // Visible for testing
+    List<HistoricItem> queryBuckets(DBCollection collection, BasicDBObject query, FilterCriteria filter,
+            Function<BasicDBObject, HistoricItem> converter, @Nullable String op, @Nullable Object filterValue) {
+        @Nullable
+        Date begin = filter.getBeginDate() != null ? Date.from(filter.getBeginDate().toInstant()) : null;
+        @Nullable
+        Date end = filter.getEndDate() != null ? Date.from(filter.getEndDate().toInstant()) : null;
+
+        BasicDBObject bucketQueries = new BasicDBObject();
+        if (begin != null) {
+            bucketQueries.put("$gte", MongoDBBulkWriter.getBucketStart(begin));
+        }
+        if (end != null) {
+            bucketQueries.put("$lte", end);
         }
+        if (!bucketQueries.isEmpty()) {
+            query.put(FIELD_BUCKET, bucketQueries);
+        }
+
+        logger.debug("Query: {}", query);
+
+        boolean ascending = filter.getOrdering() == Ordering.ASCENDING;
+        BasicDBObject projection = new BasicDBObject(FIELD_SAMPLES, 1).append(FIELD_ID, 0);
+        DBCursor cursor = collection.find(query, projection).sort(new BasicDBObject(FIELD_BUCKET, ascending ? 1 : -1))
+                .batchSize(QUERY_BATCH_SIZE);
 
+        List<HistoricItem> items = new ArrayList<>();
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        try {
+            while (cursor.hasNext() && items.size() < filter.getPageSize()) {
+                BasicDBObject bucket = (BasicDBObject) cursor.next();
+                List<BasicDBObject> samples = getSamples(bucket);
+                // the samples are appended, their order only needs to be fixed if values arrived out of order
+                samples.sort(Comparator.comparing(sample -> sample.getDate(FIELD_TIMESTAMP)));
+                if (!ascending) {
+                    Collections.reverse(samples);
+                }
+                for (BasicDBObject sample : samples) {
+                    Date timestamp = sample.getDate(FIELD_TIMESTAMP);
+                    if ((begin != null && timestamp.before(begin)) || (end != null && timestamp.after(end))
+                            || (op != null && filterValue != null
+                                    && !matches(sample.get(FIELD_VALUE), op, filterValue))) {
+                        continue;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    items.add(converter.apply(sample));
+                    if (items.size() >= filter.getPageSize()) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            cursor.close();
+        }
         return items;
     }
 
+    private List<BasicDBObject> getSamples(BasicDBObject bucket) {
+        List<BasicDBObject> samples = new ArrayList<>();
+        Object list = bucket.get(FIELD_SAMPLES);
+        if (list instanceof List) {
+            for (Object sample : (List<?>) list) {
+                if (sample instanceof BasicDBObject) {
+                    samples.add((BasicDBObject) sample);
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Applies a MongoDB comparison operator to a sample value.
+     */
+    static boolean matches(@Nullable Object value, String op, Object filterValue) {
+        if (value == null) {
+            return false;
+        }
+        int comparison;
+        if (value instanceof Number && filterValue instanceof Number) {
+            comparison = Double.compare(((Number) value).doubleValue(), ((Number) filterValue).doubleValue());
+        } else if (value instanceof Date && filterValue instanceof Date) {
+            comparison = ((Date) value).compareTo((Date) filterValue);
+        } else {
+            comparison = value.toString().compareTo(filterValue.toString());
+        }
+        switch (op) {
+            case "$eq":
+                return comparison == 0;
+            case "$gt":
+                return comparison > 0;
+            case "$gte":
+                return comparison >= 0;
+            case "$lt":
+                return comparison < 0;
+            case "$lte":
+                return comparison <= 0;
+            default:
+                return comparison != 0;
+        }
+    }
+
+    /**
+     * Returns the conversion of the stored values to the states of an item.
+     */
+    private Function<BasicDBObject, State> getStateDecoder(Item item) {
+        if (item instanceof NumberItem) {
+            return obj -> new DecimalType(obj.getDouble(FIELD_VALUE));
+        } else if (item instanceof DimmerItem || item instanceof RollershutterItem) {
+            return obj -> new PercentType(obj.getInt(FIELD_VALUE));
+        } else if (item instanceof SwitchItem) {
+            return obj -> OnOffType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof ContactItem) {
+            return obj -> OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof DateTimeItem) {
+            ZoneId zoneId = ZoneId.systemDefault();
+            return obj -> new DateTimeType(ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), zoneId));
+        } else {
+            return obj -> new StringType(obj.getString(FIELD_VALUE));
+        }
+    }
+
     private @Nullable String convertOperator(Operator operator) {
         switch (operator) {
             case EQ:
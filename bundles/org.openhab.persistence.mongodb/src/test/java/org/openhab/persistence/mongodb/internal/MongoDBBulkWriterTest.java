@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openhab.persistence.mongodb.internal.MongoDBPersistenceService.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkUpdateRequestBuilder;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteRequestBuilder;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+
+/**
+ * Tests the operations of the bulk writer against mocked collections.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBBulkWriterTest {
+    // long enough to never flush periodically within a test
+    private static final long FLUSH_INTERVAL = 3600000;
+    // 2021-03-04T00:00:00Z, the start of a bucket
+    private static final long HOUR = 1614816000000L;
+
+    private final Map<String, DBCollection> collections = new HashMap<>();
+    private final List<Bulk> bulks = Collections.synchronizedList(new ArrayList<>());
+    private @Nullable MongoDBBulkWriter writer;
+
+    private static class Bulk {
+        private final String collectionName;
+        private final BulkWriteOperation operation = mock(BulkWriteOperation.class);
+        private final BulkWriteRequestBuilder find = mock(BulkWriteRequestBuilder.class);
+        private final BulkUpdateRequestBuilder upsert = mock(BulkUpdateRequestBuilder.class);
+
+        private Bulk(String collectionName) {
+            this.collectionName = collectionName;
+            when(operation.find(any())).thenReturn(find);
+            when(find.upsert()).thenReturn(upsert);
+        }
+
+        private List<DBObject> inserts() {
+            ArgumentCaptor<DBObject> captor = ArgumentCaptor.forClass(DBObject.class);
+            verify(operation, atLeast(0)).insert(captor.capture());
+            return captor.getAllValues();
+        }
+    }
+
+    private synchronized @Nullable DBCollection getCollection(String name) {
+        return collections.computeIfAbsent(name, n -> {
+            DBCollection collection = mock(DBCollection.class);
+            when(collection.initializeUnorderedBulkOperation()).thenAnswer(invocation -> {
+                Bulk bulk = new Bulk(n);
+                bulks.add(bulk);
+                return bulk.operation;
+            });
+            return collection;
+        });
+    }
+
+    private MongoDBBulkWriter createWriter(int bulkSize, boolean bucketLayout) {
+        MongoDBBulkWriter writer = new MongoDBBulkWriter(bulkSize, FLUSH_INTERVAL, bucketLayout,
+                this::getCollection);
+        this.writer = writer;
+        return writer;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MongoDBBulkWriter writer = this.writer;
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void documentLayoutInsertsOneDocumentPerValue() {
+        MongoDBBulkWriter writer = createWriter(100, false);
+
+        writer.enqueue("items", "a", "A", new Date(HOUR), 1);
+        writer.enqueue("items", "b", "B", new Date(HOUR + 1000), 2);
+        writer.flush();
+
+        assertThat(bulks.size(), is(1));
+        List<DBObject> inserts = bulks.get(0).inserts();
+        assertThat(inserts.size(), is(2));
+        assertThat(inserts.get(0).get(FIELD_ITEM), is("a"));
+        assertThat(inserts.get(0).get(FIELD_REALNAME), is("A"));
+        assertThat(inserts.get(0).get(FIELD_TIMESTAMP), is(new Date(HOUR)));
+        assertThat(inserts.get(0).get(FIELD_VALUE), is(1));
+        assertThat(inserts.get(1).get(FIELD_ITEM), is("b"));
+        verify(bulks.get(0).operation).execute();
+        assertThat(writer.getWrittenCount(), is(2L));
+    }
+
+    @Test
+    public void bucketLayoutUpsertsOneDocumentPerItemAndHour() {
+        MongoDBBulkWriter writer = createWriter(100, true);
+
+        writer.enqueue("items", "a", "A", new Date(HOUR + 1000), 1);
+        writer.enqueue("items", "a", "A", new Date(HOUR + 2000), 2);
+        writer.enqueue("items", "b", "B", new Date(HOUR + 3000), 3);
+        writer.enqueue("items", "a", "A", new Date(HOUR + BUCKET_MILLIS + 5), 4);
+        writer.flush();
+
+        assertThat(bulks.size(), is(1));
+        Bulk bulk = bulks.get(0);
+        ArgumentCaptor<DBObject> queries = ArgumentCaptor.forClass(DBObject.class);
+        verify(bulk.operation, times(3)).find(queries.capture());
+        ArgumentCaptor<DBObject> updates = ArgumentCaptor.forClass(DBObject.class);
+        verify(bulk.upsert, times(3)).updateOne(updates.capture());
+        verify(bulk.operation, never()).insert(any());
+
+        assertThat(queries.getAllValues().get(0).get(FIELD_ITEM), is("a"));
+        assertThat(queries.getAllValues().get(0).get(FIELD_BUCKET), is(new Date(HOUR)));
+        assertThat(queries.getAllValues().get(1).get(FIELD_ITEM), is("b"));
+        assertThat(queries.getAllValues().get(1).get(FIELD_BUCKET), is(new Date(HOUR)));
+        assertThat(queries.getAllValues().get(2).get(FIELD_ITEM), is("a"));
+        assertThat(queries.getAllValues().get(2).get(FIELD_BUCKET), is(new Date(HOUR + BUCKET_MILLIS)));
+
+        DBObject update = updates.getAllValues().get(0);
+        BasicDBList samples = (BasicDBList) ((DBObject) ((DBObject) update.get("$push")).get(FIELD_SAMPLES))
+                .get("$each");
+        assertThat(samples.size(), is(2));
+        assertThat(((DBObject) samples.get(0)).get(FIELD_TIMESTAMP), is(new Date(HOUR + 1000)));
+        assertThat(((DBObject) samples.get(0)).get(FIELD_VALUE), is(1));
+        assertThat(((DBObject) samples.get(1)).get(FIELD_TIMESTAMP), is(new Date(HOUR + 2000)));
+        assertThat(((DBObject) samples.get(1)).get(FIELD_VALUE), is(2));
+        assertThat(((DBObject) update.get("$inc")).get(FIELD_COUNT), is(2));
+        assertThat(((DBObject) update.get("$setOnInsert")).get(FIELD_REALNAME), is("A"));
+        assertThat(((BasicDBObject) update).keySet(), containsInAnyOrder("$push", "$inc", "$setOnInsert"));
+
+        assertThat(((DBObject) updates.getAllValues().get(2).get("$inc")).get(FIELD_COUNT), is(1));
+        assertThat(writer.getWrittenCount(), is(4L));
+    }
+
+    @Test
+    public void bucketStartIsTheFullHour() {
+        assertThat(MongoDBBulkWriter.getBucketStart(new Date(HOUR)), is(new Date(HOUR)));
+        assertThat(MongoDBBulkWriter.getBucketStart(new Date(HOUR + BUCKET_MILLIS - 1)), is(new Date(HOUR)));
+        assertThat(MongoDBBulkWriter.getBucketStart(new Date(-1)), is(new Date(-BUCKET_MILLIS)));
+    }
+
+    @Test
+    public void valuesAreWrittenPerCollection() {
+        MongoDBBulkWriter writer = createWriter(100, false);
+
+        writer.enqueue("first", "a", "A", new Date(HOUR), 1);
+        writer.enqueue("second", "b", "B", new Date(HOUR), 2);
+        writer.enqueue("first", "c", "C", new Date(HOUR), 3);
+        writer.flush();
+
+        assertThat(bulks.size(), is(2));
+        assertThat(bulks.get(0).collectionName, is("first"));
+        assertThat(bulks.get(0).inserts().size(), is(2));
+        assertThat(bulks.get(1).collectionName, is("second"));
+        assertThat(bulks.get(1).inserts().size(), is(1));
+    }
+
+    @Test
+    public void bulksDoNotExceedBulkSize() {
+        MongoDBBulkWriter writer = createWriter(2, false);
+
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue("first", "a", "A", new Date(HOUR + i), i);
+            writer.enqueue("second", "b", "B", new Date(HOUR + i), i);
+        }
+        writer.stop();
+
+        // flushes triggered by the bulk size may have written parts of the values in between
+        Map<String, Integer> insertsPerCollection = new HashMap<>();
+        synchronized (bulks) {
+            for (Bulk bulk : bulks) {
+                int inserts = bulk.inserts().size();
+                assertThat(inserts, is(both(greaterThan(0)).and(lessThanOrEqualTo(2))));
+                insertsPerCollection.merge(bulk.collectionName, inserts, Integer::sum);
+            }
+        }
+        assertThat(insertsPerCollection.get("first"), is(5));
+        assertThat(insertsPerCollection.get("second"), is(5));
+        assertThat(writer.getWrittenCount(), is(10L));
+    }
+
+    @Test
+    public void valuesWithoutConnectionAreDropped() {
+        MongoDBBulkWriter writer = new MongoDBBulkWriter(100, FLUSH_INTERVAL, false, name -> null);
+        this.writer = writer;
+
+        writer.enqueue("items", "a", "A", new Date(HOUR), 1);
+        writer.flush();
+
+        assertThat(writer.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void valuesEnqueuedAfterStopAreDropped() {
+        MongoDBBulkWriter writer = createWriter(1, false);
+        writer.stop();
+
+        // reaching the bulk size must not fail on the stopped scheduler
+        writer.enqueue("items", "a", "A", new Date(HOUR), 1);
+
+        assertThat(writer.getDroppedCount(), is(1L));
+        assertThat(writer.getQueueSize(), is(0));
+        assertThat(bulks.size(), is(0));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.MongoException;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBCursorIterableTest {
+
+    private final DBCursor cursor = mock(DBCursor.class);
+
+    private static HistoricItem convert(BasicDBObject obj) {
+        return new MongoDBItem("item", new DecimalType(obj.getDouble("value")), ZonedDateTime.now());
+    }
+
+    @Test
+    public void cursorIsClosedAfterLastDocument() {
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(new BasicDBObject("value", 1.0));
+        Iterator<HistoricItem> iterator = new MongoDBCursorIterable(() -> cursor,
+                MongoDBCursorIterableTest::convert).iterator();
+
+        assertThat(iterator.next().getState(), is(new DecimalType(1.0)));
+        assertThat(iterator.hasNext(), is(false));
+        assertThat(iterator.hasNext(), is(false));
+        verify(cursor, times(1)).close();
+    }
+
+    @Test
+    public void cursorIsClosedIfReadingFails() {
+        when(cursor.hasNext()).thenThrow(new MongoException("connection lost"));
+        Iterator<HistoricItem> iterator = new MongoDBCursorIterable(() -> cursor,
+                MongoDBCursorIterableTest::convert).iterator();
+
+        assertThrows(MongoException.class, iterator::hasNext);
+        verify(cursor).close();
+    }
+
+    @Test
+    public void cursorIsClosedIfConversionFails() {
+        when(cursor.hasNext()).thenReturn(true);
+        when(cursor.next()).thenReturn(new BasicDBObject("value", 1.0));
+        Iterator<HistoricItem> iterator = new MongoDBCursorIterable(() -> cursor, obj -> {
+            throw new IllegalStateException("conversion failed");
+        }).iterator();
+
+        assertThrows(IllegalStateException.class, iterator::next);
+        verify(cursor).close();
+        assertThat(iterator.hasNext(), is(false));
+    }
+}
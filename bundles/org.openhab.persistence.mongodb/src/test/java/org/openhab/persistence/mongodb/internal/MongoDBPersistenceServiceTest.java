@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.openhab.persistence.mongodb.internal.MongoDBPersistenceService.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+/**
+ * Tests the filtering and paging of the samples of bucket documents.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBPersistenceServiceTest {
+    // 2021-03-04T00:00:00Z, the start of a bucket
+    private static final long HOUR = 1614816000000L;
+    private static final long NEXT_HOUR = HOUR + MongoDBBulkWriter.BUCKET_MILLIS;
+
+    private final MongoDBPersistenceService service = new MongoDBPersistenceService(mock(ItemRegistry.class));
+    private final DBCursor cursor = mock(DBCursor.class);
+    private final DBCollection collection = mock(DBCollection.class);
+
+    private static final Function<BasicDBObject, HistoricItem> CONVERTER = sample -> new MongoDBItem("item",
+            new DecimalType(sample.getDouble(FIELD_VALUE)),
+            ZonedDateTime.ofInstant(sample.getDate(FIELD_TIMESTAMP).toInstant(), ZoneOffset.UTC));
+
+    private static BasicDBObject bucket(long bucketStart, long... sampleTimes) {
+        BasicDBList samples = new BasicDBList();
+        for (long time : sampleTimes) {
+            samples.add(new BasicDBObject(FIELD_TIMESTAMP, new Date(time)).append(FIELD_VALUE, (double) (time % 100)));
+        }
+        return new BasicDBObject(FIELD_BUCKET, new Date(bucketStart)).append(FIELD_SAMPLES, samples);
+    }
+
+    /**
+     * Returns the buckets of two hours, in the order of the filter, with the samples of the second hour stored out of
+     * order.
+     */
+    private void returnBuckets(Ordering ordering) {
+        BasicDBObject first = bucket(HOUR, HOUR + 10, HOUR + 20, HOUR + 30);
+        BasicDBObject second = bucket(NEXT_HOUR, NEXT_HOUR + 15, NEXT_HOUR + 5);
+        when(collection.find(any(DBObject.class), any(DBObject.class))).thenReturn(cursor);
+        when(cursor.sort(any())).thenReturn(cursor);
+        when(cursor.batchSize(anyInt())).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        if (ordering == Ordering.ASCENDING) {
+            when(cursor.next()).thenReturn(first, second);
+        } else {
+            when(cursor.next()).thenReturn(second, first);
+        }
+    }
+
+    private static FilterCriteria filter(Ordering ordering, int pageNumber, int pageSize) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setOrdering(ordering);
+        filter.setPageNumber(pageNumber);
+        filter.setPageSize(pageSize);
+        return filter;
+    }
+
+    private static ZonedDateTime date(long time) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC);
+    }
+
+    private List<Long> queryBuckets(FilterCriteria filter, @Nullable String op, @Nullable Object filterValue) {
+        return service.queryBuckets(collection, new BasicDBObject(FIELD_ITEM, "item"), filter, CONVERTER, op,
+                filterValue).stream().map(item -> item.getTimestamp().toInstant().toEpochMilli())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void pagesContinueInNextBucket() {
+        returnBuckets(Ordering.ASCENDING);
+
+        assertThat(queryBuckets(filter(Ordering.ASCENDING, 1, 2), null, null), contains(HOUR + 30, NEXT_HOUR + 5));
+        verify(cursor).close();
+    }
+
+    @Test
+    public void lastPageEndsWithLastSample() {
+        returnBuckets(Ordering.ASCENDING);
+
+        assertThat(queryBuckets(filter(Ordering.ASCENDING, 2, 2), null, null), contains(NEXT_HOUR + 15));
+    }
+
+    @Test
+    public void samplesAreSortedDescendingAcrossBuckets() {
+        returnBuckets(Ordering.DESCENDING);
+
+        assertThat(queryBuckets(filter(Ordering.DESCENDING, 0, 3), null, null),
+                contains(NEXT_HOUR + 15, NEXT_HOUR + 5, HOUR + 30));
+    }
+
+    @Test
+    public void fullPageStopsReadingBuckets() {
+        returnBuckets(Ordering.ASCENDING);
+
+        assertThat(queryBuckets(filter(Ordering.ASCENDING, 0, 2), null, null), contains(HOUR + 10, HOUR + 20));
+        verify(cursor, times(1)).next();
+        verify(cursor).close();
+    }
+
+    @Test
+    public void samplesOutsideOfRangeAreSkippedBeforePaging() {
+        returnBuckets(Ordering.ASCENDING);
+        FilterCriteria filter = filter(Ordering.ASCENDING, 1, 2);
+        filter.setBeginDate(date(HOUR + 15));
+        filter.setEndDate(date(NEXT_HOUR + 10));
+
+        // HOUR + 20 and HOUR + 30 are the first page
+        assertThat(queryBuckets(filter, null, null), contains(NEXT_HOUR + 5));
+
+        ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+        verify(collection).find(query.capture(), any(DBObject.class));
+        DBObject bucketQuery = (DBObject) query.getValue().get(FIELD_BUCKET);
+        // the bucket of the begin date starts before it
+        assertThat(bucketQuery.get("$gte"), is(new Date(HOUR)));
+        assertThat(bucketQuery.get("$lte"), is(new Date(NEXT_HOUR + 10)));
+    }
+
+    @Test
+    public void samplesNotMatchingTheStateAreSkippedBeforePaging() {
+        returnBuckets(Ordering.ASCENDING);
+
+        // values are the sample times modulo 100: 10, 20, 30, 15, 5
+        assertThat(queryBuckets(filter(Ordering.ASCENDING, 1, 1), "$gt", 12.0), contains(HOUR + 30));
+    }
+
+    @Test
+    public void cursorIsClosedIfConversionFails() {
+        returnBuckets(Ordering.ASCENDING);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.queryBuckets(collection, new BasicDBObject(), filter(Ordering.ASCENDING, 0, 10),
+                        sample -> {
+                            throw new IllegalStateException("conversion failed");
+                        }, null, null));
+        verify(cursor).close();
+    }
+
+    @Test
+    public void numbersAreComparedByValue() {
+        assertThat(MongoDBPersistenceService.matches(10, "$eq", 10.0), is(true));
+        assertThat(MongoDBPersistenceService.matches(10, "$gt", 9.5), is(true));
+        assertThat(MongoDBPersistenceService.matches(10, "$gt", 10.0), is(false));
+        assertThat(MongoDBPersistenceService.matches(10, "$gte", 10.0), is(true));
+        assertThat(MongoDBPersistenceService.matches(9.5, "$lt", 10), is(true));
+        assertThat(MongoDBPersistenceService.matches(10.0, "$lt", 10), is(false));
+        assertThat(MongoDBPersistenceService.matches(10.0, "$lte", 10), is(true));
+        assertThat(MongoDBPersistenceService.matches(10.0, "$neq", 10), is(false));
+        assertThat(MongoDBPersistenceService.matches(10.5, "$neq", 10), is(true));
+    }
+
+    @Test
+    public void stringsAreComparedAsText() {
+        assertThat(MongoDBPersistenceService.matches("ON", "$eq", "ON"), is(true));
+        assertThat(MongoDBPersistenceService.matches("ON", "$neq", "OFF"), is(true));
+        assertThat(MongoDBPersistenceService.matches("OFF", "$lt", "ON"), is(true));
+        assertThat(MongoDBPersistenceService.matches("ON", "$gte", "OFF"), is(true));
+        assertThat(MongoDBPersistenceService.matches("OFF", "$lte", "ON"), is(true));
+        assertThat(MongoDBPersistenceService.matches("OFF", "$gt", "ON"), is(false));
+    }
+
+    @Test
+    public void numberAndTextAreComparedAsText() {
+        // "10" is before "9" as text
+        assertThat(MongoDBPersistenceService.matches(10, "$lt", "9"), is(true));
+        assertThat(MongoDBPersistenceService.matches(10, "$eq", "10"), is(true));
+    }
+
+    @Test
+    public void datesAreComparedByTime() {
+        assertThat(MongoDBPersistenceService.matches(new Date(HOUR), "$lt", new Date(NEXT_HOUR)), is(true));
+        assertThat(MongoDBPersistenceService.matches(new Date(HOUR), "$eq", new Date(HOUR)), is(true));
+    }
+
+    @Test
+    public void missingValueNeverMatches() {
+        assertThat(MongoDBPersistenceService.matches(null, "$neq", 10), is(false));
+    }
+}
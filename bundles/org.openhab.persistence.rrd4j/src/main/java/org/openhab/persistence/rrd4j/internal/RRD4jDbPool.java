@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RRD4jDbPool} keeps a bounded number of {@link RrdDb} instances open, so that subsequent stores and queries
+ * of the same item do not have to open the database file and parse its header again. The least recently used
+ * databases are closed when the capacity is exceeded; a capacity of 0 closes every database as soon as it is released.
+ *
+ * Access to a single database file is serialized through one of a fixed number of striped locks. Callers must hold the
+ * lock returned by {@link #getLock(String)} between {@link #acquire(String, Function)} and
+ * {@link #release(String, RrdDb)}, which guarantees that there is never more than one open instance per file.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPool {
+
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDbPool.class);
+
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    // access ordered, so iteration starts with the least recently used database
+    private final Map<String, PooledDb> openDbs = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int capacity = DEFAULT_CAPACITY;
+    private @Nullable RrdBackendFactory backendFactory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong storeNanos = new AtomicLong();
+    private final AtomicLong maxStoreNanos = new AtomicLong();
+
+    public RRD4jDbPool() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Changes the pool settings. All databases which are currently open are closed (or, if in use, closed on release),
+     * so that they are reopened with the new backend factory.
+     *
+     * @param capacity the maximum number of databases kept open
+     * @param backendFactory the factory used to open databases or <code>null</code> for the rrd4j default
+     */
+    public synchronized void configure(int capacity, @Nullable RrdBackendFactory backendFactory) {
+        this.capacity = Math.max(0, capacity);
+        this.backendFactory = backendFactory;
+        evict(0);
+    }
+
+    public synchronized @Nullable RrdBackendFactory getBackendFactory() {
+        return backendFactory;
+    }
+
+    /**
+     * Returns the lock guarding the database with the given name.
+     *
+     * @param name the name of the database
+     * @return the lock
+     */
+    public Lock getLock(String name) {
+        return locks[(name.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * Returns an open database from the pool or opens it with the given function.
+     * The lock of the database must be held by the caller.
+     *
+     * @param name the name of the database
+     * @param opener function to open the database if it is not pooled
+     * @return the database or <code>null</code> if it could not be opened
+     */
+    public @Nullable RrdDb acquire(String name, Function<String, @Nullable RrdDb> opener) {
+        synchronized (this) {
+            PooledDb pooledDb = openDbs.get(name);
+            if (pooledDb != null) {
+                hits.incrementAndGet();
+                pooledDb.refCount++;
+                return pooledDb.db;
+            }
+        }
+        misses.incrementAndGet();
+        // opening happens outside of the pool monitor, concurrent access to the same file is prevented by the lock
+        RrdDb db = opener.apply(name);
+        if (db == null) {
+            return null;
+        }
+        synchronized (this) {
+            PooledDb pooledDb = new PooledDb(db);
+            pooledDb.refCount = 1;
+            openDbs.put(name, pooledDb);
+            evict(capacity);
+        }
+        return db;
+    }
+
+    /**
+     * Returns a database to the pool. It is closed if it has been evicted in the meantime.
+     *
+     * @param name the name of the database
+     * @param db the database as returned by {@link #acquire(String, Function)}
+     */
+    public synchronized void release(String name, RrdDb db) {
+        PooledDb pooledDb = openDbs.get(name);
+        if (pooledDb != null && pooledDb.db == db) {
+            pooledDb.refCount--;
+        } else {
+            // the database has already been evicted from the pool
+            close(name, db);
+        }
+    }
+
+    /**
+     * Closes all databases which are not in use.
+     */
+    public synchronized void close() {
+        evict(0);
+    }
+
+    public void recordStore(long nanos) {
+        stores.incrementAndGet();
+        storeNanos.addAndGet(nanos);
+        maxStoreNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getStoreCount() {
+        return stores.get();
+    }
+
+    public long getAverageStoreMicros() {
+        long count = stores.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(storeNanos.get() / count);
+    }
+
+    public long getMaxStoreMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxStoreNanos.get());
+    }
+
+    public synchronized int getOpenCount() {
+        return openDbs.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RRD4jDbPool [open=" + getOpenCount() + ", capacity=" + capacity + ", hits=" + getHits() + ", misses="
+                + getMisses() + ", evictions=" + getEvictions() + ", stores=" + getStoreCount() + ", avgStoreMicros="
+                + getAverageStoreMicros() + ", maxStoreMicros=" + getMaxStoreMicros() + "]";
+    }
+
+    private void evict(int maxSize) {
+        Iterator<Map.Entry<String, PooledDb>> iterator = openDbs.entrySet().iterator();
+        while (openDbs.size() > maxSize && iterator.hasNext()) {
+            Map.Entry<String, PooledDb> entry = iterator.next();
+            PooledDb pooledDb = entry.getValue();
+            iterator.remove();
+            evictions.incrementAndGet();
+            if (pooledDb.refCount <= 0) {
+                close(entry.getKey(), pooledDb.db);
+            }
+            // databases still in use are closed by release()
+        }
+    }
+
+    private void close(String name, RrdDb db) {
+        try {
+            db.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private static class PooledDb {
+        private final RrdDb db;
+        private int refCount;
+
+        private PooledDb(RrdDb db) {
+            this.db = db;
+        }
+    }
+}
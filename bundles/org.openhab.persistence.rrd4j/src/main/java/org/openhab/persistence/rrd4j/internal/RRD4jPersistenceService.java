@@ -18,7 +18,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -30,6 +29,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
@@ -67,12 +67,14 @@ import org.openhab.core.types.State;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -89,14 +91,26 @@ import org.slf4j.LoggerFactory;
  * @author Karel Goderis - remove TimerThread dependency
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        RRD4jPersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RRD4jPersistenceService implements QueryablePersistenceService {
 
+    /**
+     * A function reading a pooled database, see {@link RRD4jPersistenceService#readDB(String, DBReader)}.
+     */
+    @FunctionalInterface
+    public interface DBReader<T> {
+        T read(RrdDb db) throws IOException;
+    }
+
     private static final String DEFAULT_OTHER = "default_other";
     private static final String DEFAULT_NUMERIC = "default_numeric";
     private static final String DEFAULT_QUANTIFIABLE = "default_quantifiable";
 
+    private static final String CONFIG_POOL_SIZE = "poolSize";
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_FLUSH_INTERVAL = "flushInterval";
+
     private static final Set<String> SUPPORTED_TYPES = Set.of(CoreItemFactory.SWITCH, CoreItemFactory.CONTACT,
             CoreItemFactory.DIMMER, CoreItemFactory.NUMBER, CoreItemFactory.ROLLERSHUTTER, CoreItemFactory.COLOR);
 
@@ -111,7 +125,14 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
 
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<>();
+
+    private final RRD4jDbPool dbPool = new RRD4jDbPool();
+
+    private volatile @Nullable RRD4jSampleWriter sampleWriter;
+
+    // the steps of the databases in seconds, used by the sample writer to coalesce samples
+    private final Map<String, Long> dbSteps = new ConcurrentHashMap<>();
 
     protected final ItemRegistry itemRegistry;
 
@@ -131,72 +152,38 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     @Override
-    public synchronized void store(final Item item, @Nullable final String alias) {
+    public void store(final Item item, @Nullable final String alias) {
         if (!isSupportedItemType(item)) {
             logger.trace("Ignoring item '{}' since its type {} is not supported", item.getName(), item.getType());
             return;
         }
         final String name = alias == null ? item.getName() : alias;
+        RRD4jSampleWriter writer = sampleWriter;
+        if (writer != null) {
+            Double value = getStateValue(item);
+            if (value == null || writer.enqueue(name, System.currentTimeMillis() / 1000, value)) {
+                return;
+            }
+            // the writer has been stopped in the meantime
+        }
+        long startNanos = System.nanoTime();
+        Lock lock = dbPool.getLock(name);
+        lock.lock();
+        try {
+            store(item, name, startNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(final Item item, final String name, long startNanos) {
         RrdDb db = getDB(name);
         if (db != null) {
-            ConsolFun function = getConsolidationFunction(db);
             long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
-                try {
-                    // we store the last value again, so that the value change
-                    // in the database is not interpolated, but
-                    // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
-                        // only do it if there is not already a value
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            Sample sample = db.createSample();
-                            sample.setTime(now - 1);
-                            sample.setValue(DATASOURCE_STATE, lastValue);
-                            sample.update();
-                            logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
-                }
-            }
             try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
-
-                Double value = null;
-
-                if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
-                    NumberItem nItem = (NumberItem) item;
-                    QuantityType<?> qState = (QuantityType<?>) item.getState();
-                    Unit<? extends Quantity<?>> unit = nItem.getUnit();
-                    if (unit != null) {
-                        QuantityType<?> convertedState = qState.toUnit(unit);
-                        if (convertedState != null) {
-                            value = convertedState.doubleValue();
-                        } else {
-                            logger.warn(
-                                    "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
-                                    qState, unit);
-                        }
-                    } else {
-                        value = qState.doubleValue();
-                    }
-                } else {
-                    DecimalType state = item.getStateAs(DecimalType.class);
-                    if (state != null) {
-                        value = state.toBigDecimal().doubleValue();
-                    }
-                }
+                Double value = getStateValue(item);
                 if (value != null) {
-                    if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
-                                                                                          // adjusted by stepsize
-                        value = value * db.getRrdDef().getStep();
-                    }
-                    sample.setValue(DATASOURCE_STATE, value);
-                    sample.update();
-                    logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
+                    storeSample(db, name, now, value);
                 }
             } catch (IllegalArgumentException e) {
                 String message = e.getMessage();
@@ -215,12 +202,136 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             } catch (Exception e) {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
+            dbPool.release(name, db);
+            dbPool.recordStore(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Writes a sample coming from the {@link RRD4jSampleWriter}. The sample time is moved forward if the database has
+     * already been updated in the same second.
+     *
+     * @return <code>false</code> if the database has been updated in the current second and the sample has to be
+     *         retried later
+     */
+    private boolean writeSample(String name, long time, double value) {
+        long startNanos = System.nanoTime();
+        Lock lock = dbPool.getLock(name);
+        lock.lock();
+        try {
+            RrdDb db = getDB(name);
+            if (db == null) {
+                return true;
+            }
+            try {
+                long sampleTime = Math.max(time, db.getLastUpdateTime() + 1);
+                if (sampleTime > System.currentTimeMillis() / 1000) {
+                    return false;
+                }
+                storeSample(db, name, sampleTime, value);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+            } finally {
+                dbPool.release(name, db);
+            }
+        } finally {
+            lock.unlock();
+        }
+        dbPool.recordStore(System.nanoTime() - startNanos);
+        return true;
+    }
+
+    /**
+     * Returns the step of a database for the {@link RRD4jSampleWriter}, opening the database only once.
+     *
+     * @return the step in seconds or 1 if there is no database
+     */
+    private long getStep(String name) {
+        Long step = dbSteps.get(name);
+        if (step == null) {
+            Lock lock = dbPool.getLock(name);
+            lock.lock();
+            try {
+                RrdDb db = getDB(name);
+                if (db == null) {
+                    return 1;
+                }
+                try {
+                    step = db.getRrdDef().getStep();
+                } catch (IOException e) {
+                    logger.debug("Could not read the step of rrd4j database '{}': {}", name, e.getMessage());
+                    return 1;
+                } finally {
+                    dbPool.release(name, db);
+                }
+            } finally {
+                lock.unlock();
+            }
+            dbSteps.put(name, step);
+        }
+        return step;
+    }
+
+    private void storeSample(RrdDb db, String name, long time, double value) throws IOException {
+        ConsolFun function = getConsolidationFunction(db);
+        if (function != ConsolFun.AVERAGE) {
             try {
-                db.close();
+                // we store the last value again, so that the value change
+                // in the database is not interpolated, but
+                // happens right at this spot
+                if (time - 1 > db.getLastUpdateTime()) {
+                    // only do it if there is not already a value
+                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                    if (!Double.isNaN(lastValue)) {
+                        Sample sample = db.createSample();
+                        sample.setTime(time - 1);
+                        sample.setValue(DATASOURCE_STATE, lastValue);
+                        sample.update();
+                        logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
+                    }
+                }
             } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+                logger.debug("Error storing last value (again): {}", e.getMessage());
+            }
+        }
+        Sample sample = db.createSample();
+        sample.setTime(time);
+        double storeValue = value;
+        if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
+                                                                              // adjusted by stepsize
+            storeValue = value * db.getRrdDef().getStep();
+        }
+        sample.setValue(DATASOURCE_STATE, storeValue);
+        sample.update();
+        logger.debug("Stored '{}' as value '{}' in rrd4j database", name, storeValue);
+    }
+
+    private @Nullable Double getStateValue(Item item) {
+        Double value = null;
+
+        if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
+            NumberItem nItem = (NumberItem) item;
+            QuantityType<?> qState = (QuantityType<?>) item.getState();
+            Unit<? extends Quantity<?>> unit = nItem.getUnit();
+            if (unit != null) {
+                QuantityType<?> convertedState = qState.toUnit(unit);
+                if (convertedState != null) {
+                    value = convertedState.doubleValue();
+                } else {
+                    logger.warn(
+                            "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
+                            qState, unit);
+                }
+            } else {
+                value = qState.doubleValue();
+            }
+        } else {
+            DecimalType state = item.getStateAs(DecimalType.class);
+            if (state != null) {
+                value = state.toBigDecimal().doubleValue();
             }
         }
+        return value;
     }
 
     @Override
@@ -232,11 +343,25 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
 
-        RrdDb db = getDB(itemName);
-        if (db == null) {
-            logger.debug("Could not find item '{}' in rrd4j database", itemName);
-            return List.of();
+        Lock lock = dbPool.getLock(itemName);
+        lock.lock();
+        try {
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                logger.debug("Could not find item '{}' in rrd4j database", itemName);
+                return List.of();
+            }
+            try {
+                return query(filter, itemName, db);
+            } finally {
+                dbPool.release(itemName, db);
+            }
+        } finally {
+            lock.unlock();
         }
+    }
+
+    private Iterable<HistoricItem> query(FilterCriteria filter, String itemName, RrdDb db) {
 
         Item item = null;
         Unit<?> unit = null;
@@ -313,13 +438,57 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias) {
+    /**
+     * Returns the (possibly pooled) database for the given alias. The caller must hold the lock returned by
+     * {@link RRD4jDbPool#getLock(String)} for the alias and has to hand the database back with
+     * {@link RRD4jDbPool#release(String, RrdDb)} instead of closing it.
+     *
+     * @param alias the item name or alias
+     * @return the database or <code>null</code> if it does not exist and could not be created
+     */
+    protected @Nullable RrdDb getDB(String alias) {
+        return dbPool.acquire(alias, this::openDB);
+    }
+
+    /**
+     * Reads the pooled database of an item while holding its lock, for readers outside of this service like the
+     * chart servlet. Unlike {@link #getDB(String)}, databases are not created.
+     *
+     * @param itemName the item name
+     * @param reader the function reading the database, it must not keep the database
+     * @return the result of the reader or <code>null</code> if there is no database for the item
+     * @throws IOException if the database could not be read
+     */
+    public <T> @Nullable T readDB(String itemName, DBReader<T> reader) throws IOException {
+        Lock lock = dbPool.getLock(itemName);
+        lock.lock();
+        try {
+            if (!new File(DB_FOLDER + File.separator + itemName + ".rrd").exists()) {
+                return null;
+            }
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                return null;
+            }
+            try {
+                return reader.read(db);
+            } finally {
+                dbPool.release(itemName, db);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private @Nullable RrdDb openDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
+        RrdBackendFactory backendFactory = dbPool.getBackendFactory();
         try {
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = backendFactory == null ? new RrdDb(file.getAbsolutePath())
+                        : new RrdDb(file.getAbsolutePath(), backendFactory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -328,7 +497,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 RrdDef rrdDef = getRrdDef(alias, file);
                 if (rrdDef != null) {
                     // create a new database file
-                    db = new RrdDb(rrdDef);
+                    db = backendFactory == null ? new RrdDb(rrdDef) : new RrdDb(rrdDef, backendFactory);
                 } else {
                     logger.debug(
                             "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
@@ -443,8 +612,23 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         modified(config);
     }
 
+    @Deactivate
+    protected void deactivate() {
+        RRD4jSampleWriter writer = sampleWriter;
+        sampleWriter = null;
+        if (writer != null) {
+            writer.stop();
+            logger.debug("Stopped rrd4j sample writer: {}", writer);
+        }
+        logger.debug("Closing rrd4j databases: {}", dbPool);
+        dbPool.close();
+    }
+
     @Modified
     protected void modified(final Map<String, Object> config) {
+        configurePool(config);
+        configureSampleWriter(config);
+
         // clean existing definitions
         rrdDefs.clear();
 
@@ -496,8 +680,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         while (keys.hasNext()) {
             String key = keys.next();
 
-            if (key.equals("service.pid") || key.equals("component.name")) {
-                // ignore service.pid and name
+            if (key.equals("service.pid") || key.equals("component.name") || key.equals(CONFIG_POOL_SIZE)
+                    || key.equals(CONFIG_BACKEND) || key.equals(CONFIG_FLUSH_INTERVAL)) {
+                // ignore service.pid, name and the pool and writer settings
                 continue;
             }
 
@@ -554,6 +739,59 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private void configurePool(final Map<String, Object> config) {
+        int poolSize = RRD4jDbPool.DEFAULT_CAPACITY;
+        Object poolSizeValue = config.get(CONFIG_POOL_SIZE);
+        if (poolSizeValue != null && !poolSizeValue.toString().isBlank()) {
+            try {
+                poolSize = Integer.parseInt(poolSizeValue.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal pool size '{}', using {}", poolSizeValue, poolSize);
+            }
+        }
+
+        RrdBackendFactory backendFactory = null;
+        Object backendValue = config.get(CONFIG_BACKEND);
+        if (backendValue != null && !backendValue.toString().isBlank()) {
+            String backend = backendValue.toString().trim().toUpperCase();
+            try {
+                backendFactory = RrdBackendFactory.getFactory(backend);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring unknown rrd4j backend '{}', using the default backend", backend);
+            }
+        }
+
+        logger.debug("Keeping up to {} rrd4j databases open using backend {}", poolSize,
+                backendFactory == null ? "default" : backendFactory.getName());
+        dbPool.configure(poolSize, backendFactory);
+    }
+
+    private void configureSampleWriter(final Map<String, Object> config) {
+        long flushInterval = 0;
+        Object flushIntervalValue = config.get(CONFIG_FLUSH_INTERVAL);
+        if (flushIntervalValue != null && !flushIntervalValue.toString().isBlank()) {
+            try {
+                flushInterval = Long.parseLong(flushIntervalValue.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal flush interval '{}', writing samples directly", flushIntervalValue);
+            }
+        }
+
+        RRD4jSampleWriter newWriter = null;
+        if (flushInterval > 0) {
+            newWriter = new RRD4jSampleWriter(this::writeSample, this::getStep);
+            newWriter.start(scheduler, flushInterval);
+            logger.debug("Writing rrd4j samples every {} ms", flushInterval);
+        }
+        // new samples go to the new writer before the old one writes its pending samples
+        RRD4jSampleWriter oldWriter = sampleWriter;
+        sampleWriter = newWriter;
+        dbSteps.clear();
+        if (oldWriter != null) {
+            oldWriter.stop();
+        }
+    }
+
     private class RrdArchiveDef {
         public @Nullable ConsolFun fcn;
         public double xff;
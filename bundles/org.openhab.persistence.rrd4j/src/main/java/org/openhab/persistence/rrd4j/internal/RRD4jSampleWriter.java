@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RRD4jSampleWriter} is a write-behind stage for rrd4j samples. Every database has a slot holding its
+ * latest sample per step of the database, so multiple updates of an item within one step are coalesced into one
+ * sample. The slots are written in batches by a periodic flush job. Samples that cannot be written yet (rrd4j requires
+ * at least one second between two updates) stay in their slot until the next flush, unless they are replaced by a
+ * newer sample of the same step.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jSampleWriter {
+
+    /**
+     * Writes a single sample to the database.
+     */
+    @FunctionalInterface
+    public interface SampleSink {
+        /**
+         * @return <code>false</code> if the sample could not be written yet and should be retried with the next flush
+         */
+        boolean write(String name, long time, double value);
+    }
+
+    // attempts to write the samples still pending when stopping, one second apart
+    private static final int STOP_ATTEMPTS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jSampleWriter.class);
+
+    private final Map<String, Deque<PendingSample>> pendingSamples = new ConcurrentHashMap<>();
+    private final SampleSink sink;
+    private final ToLongFunction<String> stepProvider;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private @Nullable ScheduledFuture<?> flushJob;
+    private volatile boolean stopped;
+
+    /**
+     * @param sink writes the samples
+     * @param stepProvider returns the step in seconds of a database
+     */
+    public RRD4jSampleWriter(SampleSink sink, ToLongFunction<String> stepProvider) {
+        this.sink = sink;
+        this.stepProvider = stepProvider;
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler, long flushIntervalMillis) {
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+        }
+        stopped = false;
+        flushJob = scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flush job and writes all pending samples. Samples which cannot be written in the current second are
+     * retried in the next seconds, the remaining ones are dropped. Samples enqueued afterwards are rejected.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        flush();
+        for (int attempt = 1; attempt < STOP_ATTEMPTS && !pendingSamples.isEmpty(); attempt++) {
+            try {
+                // until the next second has started
+                Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            flush();
+        }
+        int remaining = 0;
+        for (String name : pendingSamples.keySet()) {
+            Deque<PendingSample> samples = pendingSamples.remove(name);
+            if (samples != null) {
+                synchronized (samples) {
+                    remaining += samples.size();
+                }
+            }
+        }
+        if (remaining > 0) {
+            dropped.addAndGet(remaining);
+            logger.warn("Dropped {} rrd4j samples which could not be written before stopping", remaining);
+        }
+    }
+
+    /**
+     * Puts a sample into the slot of the given database, replacing a sample of the same step that has not been
+     * written yet.
+     *
+     * @param name the name of the database
+     * @param time the sample time in seconds
+     * @param value the sample value
+     * @return <code>false</code> if the writer has been stopped and the sample has to be written directly
+     */
+    public boolean enqueue(String name, long time, double value) {
+        if (stopped) {
+            return false;
+        }
+        enqueued.incrementAndGet();
+        long step = Math.max(1, stepProvider.applyAsLong(name));
+        PendingSample sample = new PendingSample(time, value, time / step);
+        while (true) {
+            Deque<PendingSample> samples = pendingSamples.computeIfAbsent(name, k -> new ArrayDeque<>());
+            synchronized (samples) {
+                // the flush has taken the slot in the meantime
+                if (pendingSamples.get(name) != samples) {
+                    continue;
+                }
+                PendingSample last = samples.peekLast();
+                if (last != null && last.stepIndex == sample.stepIndex) {
+                    samples.pollLast();
+                    coalesced.incrementAndGet();
+                }
+                samples.addLast(sample);
+            }
+            break;
+        }
+        if (stopped && remove(name, sample)) {
+            // stopped while enqueueing and not written by the final flush
+            return false;
+        }
+        return true;
+    }
+
+    private boolean remove(String name, PendingSample sample) {
+        Deque<PendingSample> samples = pendingSamples.get(name);
+        if (samples == null) {
+            return false;
+        }
+        synchronized (samples) {
+            return samples.remove(sample);
+        }
+    }
+
+    /**
+     * Writes all pending samples, the samples of each database in the order of their steps.
+     */
+    public void flush() {
+        if (pendingSamples.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        for (String name : pendingSamples.keySet()) {
+            Deque<PendingSample> samples = pendingSamples.get(name);
+            if (samples == null) {
+                continue;
+            }
+            synchronized (samples) {
+                while (!samples.isEmpty()) {
+                    PendingSample sample = samples.peekFirst();
+                    try {
+                        if (!sink.write(name, sample.time, sample.value)) {
+                            retried.incrementAndGet();
+                            break;
+                        }
+                        written.incrementAndGet();
+                        count++;
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+                    }
+                    samples.pollFirst();
+                }
+                if (samples.isEmpty()) {
+                    pendingSamples.remove(name, samples);
+                }
+            }
+        }
+        logger.trace("Flushed {} samples to rrd4j databases, {}", count, this);
+    }
+
+    public int getPendingCount() {
+        return pendingSamples.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RRD4jSampleWriter [pending=" + getPendingCount() + ", enqueued=" + enqueued.get() + ", coalesced="
+                + coalesced.get() + ", written=" + written.get() + ", retried=" + retried.get() + ", dropped="
+                + dropped.get() + "]";
+    }
+
+    private static class PendingSample {
+        private final long time;
+        private final double value;
+        private final long stepIndex;
+
+        private PendingSample(long time, double value, long stepIndex) {
+            this.time = time;
+            this.value = value;
+            this.stepIndex = stepIndex;
+        }
+    }
+}
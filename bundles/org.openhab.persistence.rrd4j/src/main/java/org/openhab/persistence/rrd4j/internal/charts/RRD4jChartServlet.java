@@ -15,20 +15,22 @@ package org.openhab.persistence.rrd4j.internal.charts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
-import javax.imageio.ImageIO;
 import javax.servlet.Servlet;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -44,7 +46,7 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
 import org.rrd4j.ConsolFun;
-import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.FetchData;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
 import org.slf4j.Logger;
@@ -61,6 +63,10 @@ import org.slf4j.LoggerFactory;
  * <li>groups: A comma separated list of group names, whose members should be displayed
  * </ul>
  *
+ * Rendered charts are cached until the next step of the underlying databases (or the time span of one pixel, if that is
+ * longer) has passed. Clients can revalidate a chart with <code>If-None-Match</code> or
+ * <code>If-Modified-Since</code>.
+ *
  * @author Kai Kreuzer - Initial contribution
  * @author Chris Jackson - a few improvements
  * @author Jan N. Klug - a few improvements
@@ -98,12 +104,26 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         PERIODS.put("Y", -31536000000L);
     }
 
+    private static final int MAX_CACHED_CHARTS = 100;
+
+    private final Map<String, CachedChart> chartCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedChart> eldest) {
+            return size() > MAX_CACHED_CHARTS;
+        }
+    };
+
     @Reference
     protected HttpService httpService;
 
     @Reference
     protected ItemUIRegistry itemUIRegistry;
 
+    @Reference
+    protected RRD4jPersistenceService persistenceService;
+
     @Activate
     protected void activate() {
         try {
@@ -119,6 +139,9 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Deactivate
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        synchronized (chartCache) {
+            chartCache.clear();
+        }
     }
 
     @Override
@@ -135,21 +158,46 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             height = Integer.parseInt(Objects.requireNonNull(req.getParameter("h")));
         } catch (Exception e) {
         }
-        Long period = PERIODS.get(req.getParameter("period"));
+        String periodParam = req.getParameter("period");
+        Long period = PERIODS.get(periodParam);
         if (period == null) {
             // use a day as the default period
-            period = PERIODS.get("D");
+            periodParam = "D";
+            period = PERIODS.get(periodParam);
         }
-        // Create the start and stop time
-        Date timeEnd = new Date();
-        Date timeBegin = new Date(timeEnd.getTime() + period);
+        String items = req.getParameter("items");
+        String groups = req.getParameter("groups");
+        String cacheKey = items + "|" + groups + "|" + periodParam + "|" + width + "|" + height + "|"
+                + req.getParameter("theme");
 
         // Set the content type to that provided by the chart provider
         res.setContentType("image/" + getChartType());
         try {
-            BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, req.getParameter("items"),
-                    req.getParameter("groups"), null, null);
-            ImageIO.write(chart, getChartType().toString(), res.getOutputStream());
+            CachedChart chart = getCachedChart(cacheKey);
+            if (chart == null) {
+                // Create the start and stop time
+                Date timeEnd = new Date();
+                Date timeBegin = new Date(timeEnd.getTime() + period);
+                chart = renderChart(timeBegin, timeEnd, height, width, items, groups);
+                if (chart == null) {
+                    return;
+                }
+                synchronized (chartCache) {
+                    chartCache.put(cacheKey, chart);
+                }
+            }
+            if (req instanceof HttpServletRequest && res instanceof HttpServletResponse) {
+                HttpServletRequest httpReq = (HttpServletRequest) req;
+                HttpServletResponse httpRes = (HttpServletResponse) res;
+                httpRes.setHeader("ETag", chart.etag);
+                httpRes.setDateHeader("Last-Modified", chart.lastModified);
+                if (isNotModified(httpReq, chart)) {
+                    httpRes.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            res.setContentLength(chart.bytes.length);
+            res.getOutputStream().write(chart.bytes);
         } catch (ItemNotFoundException e) {
             logger.debug("Item not found error while generating chart.");
         } catch (IllegalArgumentException e) {
@@ -157,42 +205,120 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         }
     }
 
+    private CachedChart getCachedChart(String cacheKey) {
+        synchronized (chartCache) {
+            CachedChart chart = chartCache.get(cacheKey);
+            if (chart != null && currentTimeMillis() >= chart.validUntil) {
+                chartCache.remove(cacheKey);
+                return null;
+            }
+            return chart;
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest req, CachedChart chart) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.contains(chart.etag) || "*".equals(ifNoneMatch.trim());
+        }
+        try {
+            long ifModifiedSince = req.getDateHeader("If-Modified-Since");
+            // HTTP dates have a resolution of seconds
+            return ifModifiedSince >= 0 && chart.lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Renders a chart into the image format of this provider.
+     *
+     * @return the encoded chart or <code>null</code> if it could not be generated
+     */
+    private CachedChart renderChart(Date startTime, Date endTime, int height, int width, String items,
+            String groups) throws ItemNotFoundException {
+        RrdGraphDef graphDef = new RrdGraphDef();
+        long step = fillGraphDef(graphDef, startTime, endTime, height, width, items, groups);
+        try {
+            byte[] bytes = renderGraph(graphDef);
+            if (bytes == null) {
+                return null;
+            }
+            long now = currentTimeMillis();
+            long pixelMillis = (endTime.getTime() - startTime.getTime()) / Math.max(1, width);
+            long validityMillis = Math.max(1000, Math.max(step * 1000, pixelMillis));
+            // keep the chart until the next step boundary has passed
+            long validUntil = (now / validityMillis + 1) * validityMillis;
+            return new CachedChart(bytes, now, validUntil);
+        } catch (IOException e) {
+            logger.error("Error generating graph.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Renders the graph into the image format of the graph definition.
+     */
+    // Visible for testing
+    protected byte[] renderGraph(RrdGraphDef graphDef) throws IOException {
+        // rrd4j already encodes the image while creating the graph
+        return new RrdGraph(graphDef).getRrdGraphInfo().getBytes();
+    }
+
+    // Visible for testing
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
     /**
      * Adds a line for the item to the graph definition.
      * The color of the line is determined by the counter, it simply picks the according index from LINECOLORS (and
      * rolls over if necessary).
      *
+     * The values are fetched through the database pool of the {@link RRD4jPersistenceService}, so the database is not
+     * opened a second time while it is written.
+     *
      * @param graphDef the graph definition to fill
      * @param item the item to add a line for
      * @param counter defines the number of the datasource and is used to determine the line color
+     * @param start the start of the chart in seconds
+     * @param end the end of the chart in seconds
+     * @return the step of the database in seconds or 0 if it is unknown
      */
-    protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
+    protected long addLine(RrdGraphDef graphDef, Item item, int counter, long start, long end) {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jPersistenceService.DB_FOLDER + File.separator + item.getName() + ".rrd";
-        ConsolFun consolFun;
+        String name = Integer.toString(counter);
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
+        Long step;
         try {
-            RrdDb db = new RrdDb(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
+            step = persistenceService.readDB(item.getName(), db -> {
+                ConsolFun consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
+                FetchData fetchData = db.createFetchRequest(consolFun, start, end).fetchData();
+                graphDef.datasource(name, "state", fetchData);
+                return db.getRrdDef().getStep();
+            });
         } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
+            logger.debug("Error reading rrd4j database of item '{}': {}", item.getName(), e.getMessage());
+            return 0;
+        }
+        if (step == null) {
+            logger.debug("There is no rrd4j database for item '{}'", item.getName());
+            return 0;
         }
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
-            graphDef.line(Integer.toString(counter), color, label, 2);
+            graphDef.line(name, color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
-            graphDef.area(Integer.toString(counter), areaColor);
-            graphDef.line(Integer.toString(counter), color, label, 2);
+            graphDef.area(name, areaColor);
+            graphDef.line(name, color, label, 2);
         }
+        return step;
     }
 
     @Override
@@ -225,8 +351,34 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     public BufferedImage createChart(String service, String theme, Date startTime, Date endTime, int height, int width,
             String items, String groups, Integer dpi, Boolean legend) throws ItemNotFoundException {
         RrdGraphDef graphDef = new RrdGraphDef();
+        fillGraphDef(graphDef, startTime, endTime, height, width, items, groups);
+
+        // Write the chart as a PNG image
+        RrdGraph graph;
+        try {
+            graph = new RrdGraph(graphDef);
+            BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
+                    graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
+            graph.render(bi.getGraphics());
+
+            return bi;
+        } catch (IOException e) {
+            logger.error("Error generating graph.", e);
+        }
 
+        return null;
+    }
+
+    /**
+     * Fills the graph definition with the settings and lines for the given items and groups.
+     *
+     * @return the smallest step in seconds of all databases added to the graph
+     */
+    private long fillGraphDef(RrdGraphDef graphDef, Date startTime, Date endTime, int height, int width, String items,
+            String groups) throws ItemNotFoundException {
         long period = (startTime.getTime() - endTime.getTime()) / 1000;
+        long start = startTime.getTime() / 1000;
+        long end = endTime.getTime() / 1000;
 
         graphDef.setWidth(width);
         graphDef.setHeight(height);
@@ -238,13 +390,14 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         graphDef.setSmallFont(new Font("SansSerif", Font.PLAIN, 11));
 
         int seriesCounter = 0;
+        long minStep = Long.MAX_VALUE;
 
         // Loop through all the items
         if (items != null) {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
                 Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                minStep = minStep(minStep, addLine(graphDef, item, seriesCounter++, start, end));
             }
         }
 
@@ -256,7 +409,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
                 if (item instanceof GroupItem) {
                     GroupItem groupItem = (GroupItem) item;
                     for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
+                        minStep = minStep(minStep, addLine(graphDef, member, seriesCounter++, start, end));
                     }
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
@@ -264,24 +417,31 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             }
         }
 
-        // Write the chart as a PNG image
-        RrdGraph graph;
-        try {
-            graph = new RrdGraph(graphDef);
-            BufferedImage bi = new BufferedImage(graph.getRrdGraphInfo().getWidth(),
-                    graph.getRrdGraphInfo().getHeight(), BufferedImage.TYPE_INT_RGB);
-            graph.render(bi.getGraphics());
-
-            return bi;
-        } catch (IOException e) {
-            logger.error("Error generating graph.", e);
-        }
+        return minStep == Long.MAX_VALUE ? 0 : minStep;
+    }
 
-        return null;
+    private static long minStep(long minStep, long step) {
+        return step > 0 ? Math.min(minStep, step) : minStep;
     }
 
     @Override
     public ImageType getChartType() {
         return ImageType.png;
     }
+
+    private static class CachedChart {
+        private final byte[] bytes;
+        private final String etag;
+        private final long lastModified;
+        private final long validUntil;
+
+        private CachedChart(byte[] bytes, long lastModified, long validUntil) {
+            this.bytes = bytes;
+            // identical renderings share their ETag, so clients can still revalidate after the cache entry expired
+            this.etag = "\"" + Integer.toHexString(bytes.length) + "-" + Integer.toHexString(Arrays.hashCode(bytes))
+                    + "\"";
+            this.lastModified = lastModified;
+            this.validUntil = validUntil;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.rrd4j.core.RrdDb;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPoolTest {
+
+    private final RRD4jDbPool pool = new RRD4jDbPool();
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private RrdDb open(String name) {
+        opened.incrementAndGet();
+        return mock(RrdDb.class);
+    }
+
+    private RrdDb acquireAndRelease(String name) {
+        RrdDb db = pool.acquire(name, this::open);
+        assertThat(db, is(notNullValue()));
+        pool.release(name, db);
+        return db;
+    }
+
+    @Test
+    public void releasedDatabaseIsReused() {
+        RrdDb first = acquireAndRelease("a");
+        RrdDb second = acquireAndRelease("a");
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(opened.get(), is(1));
+        assertThat(pool.getMisses(), is(1L));
+        assertThat(pool.getHits(), is(1L));
+        assertThat(pool.getOpenCount(), is(1));
+    }
+
+    @Test
+    public void failedOpenIsNotPooled() {
+        assertThat(pool.acquire("a", name -> null), is(nullValue()));
+
+        assertThat(pool.getMisses(), is(1L));
+        assertThat(pool.getOpenCount(), is(0));
+    }
+
+    @Test
+    public void leastRecentlyUsedDatabaseIsEvicted() throws IOException {
+        pool.configure(2, null);
+        RrdDb a = acquireAndRelease("a");
+        RrdDb b = acquireAndRelease("b");
+        acquireAndRelease("a");
+        RrdDb c = acquireAndRelease("c");
+
+        verify(b).close();
+        verify(a, never()).close();
+        verify(c, never()).close();
+        assertThat(pool.getOpenCount(), is(2));
+        assertThat(pool.getEvictions(), is(1L));
+        assertThat(pool.getHits(), is(1L));
+        assertThat(pool.getMisses(), is(3L));
+    }
+
+    @Test
+    public void databaseInUseIsClosedOnReleaseAfterEviction() throws IOException {
+        pool.configure(1, null);
+        RrdDb a = pool.acquire("a", this::open);
+        acquireAndRelease("b");
+
+        // evicted while still in use
+        verify(a, never()).close();
+        assertThat(pool.getEvictions(), is(1L));
+
+        pool.release("a", a);
+        verify(a).close();
+    }
+
+    @Test
+    public void databaseAcquiredTwiceIsClosedAfterLastRelease() throws IOException {
+        pool.configure(1, null);
+        RrdDb a = pool.acquire("a", this::open);
+        assertThat(pool.acquire("a", this::open), is(sameInstance(a)));
+        pool.release("a", a);
+        acquireAndRelease("b");
+
+        // evicted with one reference left, which still uses the database
+        verify(a, never()).close();
+        pool.release("a", a);
+        verify(a).close();
+        assertThat(opened.get(), is(2));
+    }
+
+    @Test
+    public void configureShrinksCapacity() throws IOException {
+        RrdDb a = acquireAndRelease("a");
+        RrdDb b = acquireAndRelease("b");
+        RrdDb c = pool.acquire("c", this::open);
+
+        pool.configure(1, null);
+
+        verify(a).close();
+        verify(b).close();
+        verify(c, never()).close();
+        assertThat(pool.getOpenCount(), is(0));
+        assertThat(pool.getEvictions(), is(3L));
+
+        pool.release("c", c);
+        verify(c).close();
+
+        acquireAndRelease("d");
+        acquireAndRelease("e");
+        assertThat(pool.getOpenCount(), is(1));
+    }
+
+    @Test
+    public void capacityZeroClosesOnRelease() throws IOException {
+        pool.configure(0, null);
+        RrdDb a = acquireAndRelease("a");
+
+        verify(a).close();
+        assertThat(pool.getOpenCount(), is(0));
+        acquireAndRelease("a");
+        assertThat(opened.get(), is(2));
+    }
+
+    @Test
+    public void closeKeepsDatabasesInUseOpen() throws IOException {
+        RrdDb a = acquireAndRelease("a");
+        RrdDb b = pool.acquire("b", this::open);
+
+        pool.close();
+
+        verify(a).close();
+        verify(b, never()).close();
+        pool.release("b", b);
+        verify(b).close();
+    }
+
+    @Test
+    public void sameNameAlwaysUsesTheSameLock() {
+        assertThat(pool.getLock("item"), is(sameInstance(pool.getLock(new String("item")))));
+    }
+
+    @Test
+    public void storeStatistics() {
+        pool.recordStore(2000);
+        pool.recordStore(4000);
+
+        assertThat(pool.getStoreCount(), is(2L));
+        assertThat(pool.getAverageStoreMicros(), is(3L));
+        assertThat(pool.getMaxStoreMicros(), is(4L));
+    }
+}
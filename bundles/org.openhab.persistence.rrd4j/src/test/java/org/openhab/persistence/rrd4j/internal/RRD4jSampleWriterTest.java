@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jSampleWriterTest {
+
+    private static final long STEP = 10;
+
+    private final List<String> written = new ArrayList<>();
+    private final AtomicInteger rejectWrites = new AtomicInteger();
+
+    private boolean write(String name, long time, double value) {
+        if (rejectWrites.get() > 0) {
+            rejectWrites.decrementAndGet();
+            return false;
+        }
+        written.add(name + "@" + time + "=" + value);
+        return true;
+    }
+
+    private RRD4jSampleWriter createWriter() {
+        return new RRD4jSampleWriter(this::write, name -> STEP);
+    }
+
+    @Test
+    public void samplesWithinOneStepAreCoalesced() {
+        RRD4jSampleWriter writer = createWriter();
+
+        writer.enqueue("item", 100, 1);
+        writer.enqueue("item", 105, 2);
+        writer.enqueue("item", 109, 3);
+        writer.flush();
+
+        assertThat(written, contains("item@109=3.0"));
+        assertThat(writer.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void samplesOfDifferentStepsAreWrittenInOrder() {
+        RRD4jSampleWriter writer = createWriter();
+
+        writer.enqueue("item", 100, 1);
+        writer.enqueue("item", 109, 2);
+        writer.enqueue("item", 110, 3);
+        writer.enqueue("other", 100, 4);
+        writer.flush();
+
+        assertThat(written.size(), is(3));
+        assertThat(written.indexOf("item@109=2.0") < written.indexOf("item@110=3.0"), is(true));
+        assertThat(written.contains("other@100=4.0"), is(true));
+    }
+
+    @Test
+    public void rejectedSampleIsRetriedWithTheNextFlush() {
+        RRD4jSampleWriter writer = createWriter();
+        rejectWrites.set(1);
+
+        writer.enqueue("item", 100, 1);
+        writer.flush();
+        assertThat(written.isEmpty(), is(true));
+        assertThat(writer.getPendingCount(), is(1));
+
+        writer.flush();
+        assertThat(written, contains("item@100=1.0"));
+        assertThat(writer.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void rejectedSampleIsReplacedByNewerSampleOfTheSameStep() {
+        RRD4jSampleWriter writer = createWriter();
+        rejectWrites.set(1);
+
+        writer.enqueue("item", 100, 1);
+        writer.flush();
+        writer.enqueue("item", 101, 2);
+        writer.flush();
+
+        assertThat(written, contains("item@101=2.0"));
+    }
+
+    @Test
+    public void samplesAreKeptAcrossReconfiguration() {
+        RRD4jSampleWriter oldWriter = createWriter();
+        oldWriter.enqueue("item", 100, 1);
+        oldWriter.enqueue("other", 100, 2);
+
+        // like the service: the new writer takes new samples before the old one is stopped
+        RRD4jSampleWriter newWriter = createWriter();
+        newWriter.enqueue("item", 120, 3);
+        oldWriter.stop();
+        newWriter.flush();
+
+        assertThat(written.size(), is(3));
+        assertThat(written.contains("item@100=1.0"), is(true));
+        assertThat(written.contains("other@100=2.0"), is(true));
+        assertThat(written.contains("item@120=3.0"), is(true));
+    }
+
+    @Test
+    public void stoppedWriterRejectsSamples() {
+        RRD4jSampleWriter writer = createWriter();
+        writer.stop();
+
+        assertThat(writer.enqueue("item", 100, 1), is(false));
+        assertThat(writer.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void stopRetriesRejectedSamples() {
+        RRD4jSampleWriter writer = createWriter();
+        rejectWrites.set(1);
+
+        writer.enqueue("item", 100, 1);
+        writer.stop();
+
+        assertThat(written, contains("item@100=1.0"));
+        assertThat(writer.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void stopDropsSamplesWhichCannotBeWritten() {
+        RRD4jSampleWriter writer = createWriter();
+        rejectWrites.set(Integer.MAX_VALUE);
+
+        writer.enqueue("item", 100, 1);
+        writer.stop();
+
+        assertThat(written.isEmpty(), is(true));
+        assertThat(writer.getPendingCount(), is(0));
+        assertThat(writer.toString().contains("dropped=1"), is(true));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.ui.items.ItemUIRegistry;
+import org.rrd4j.graph.RrdGraphDef;
+
+/**
+ * Tests the caching and the conditional requests of the {@link RRD4jChartServlet}.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jChartServletTest {
+
+    private static final byte[] IMAGE = new byte[] { 1, 2, 3, 4 };
+    private static final String ETAG = "\"" + Integer.toHexString(IMAGE.length) + "-"
+            + Integer.toHexString(Arrays.hashCode(IMAGE)) + "\"";
+    // a day on 480 pixels: one pixel covers 180 s
+    private static final long PIXEL_MILLIS = 180000;
+
+    private long now = 10 * PIXEL_MILLIS + 1000;
+    private int renderCount;
+    private long step;
+
+    private @NonNullByDefault({}) RRD4jChartServlet servlet;
+
+    @BeforeEach
+    public void setUp() throws ItemNotFoundException {
+        servlet = new RRD4jChartServlet() {
+            @Override
+            protected byte[] renderGraph(RrdGraphDef graphDef) {
+                renderCount++;
+                return IMAGE.clone();
+            }
+
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+
+            @Override
+            protected long addLine(RrdGraphDef graphDef, Item item, int counter, long start, long end) {
+                return step;
+            }
+        };
+        servlet.itemUIRegistry = mock(ItemUIRegistry.class);
+        when(servlet.itemUIRegistry.getItem("item")).thenReturn(new NumberItem("item"));
+    }
+
+    private HttpServletRequest request(@Nullable String items) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getParameter("items")).thenReturn(items);
+        when(request.getParameter("period")).thenReturn("D");
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(-1L);
+        return request;
+    }
+
+    private HttpServletResponse service(HttpServletRequest request) throws ServletException, IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+        servlet.service(request, response);
+        return response;
+    }
+
+    private void assertImageWritten(HttpServletResponse response) throws IOException {
+        verify(response).setHeader("ETag", ETAG);
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response.getOutputStream()).write(IMAGE);
+    }
+
+    private void assertNotModified(HttpServletResponse response) throws IOException {
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response.getOutputStream(), never()).write(any(byte[].class));
+    }
+
+    @Test
+    public void cachedChartIsServedWithoutRendering() throws Exception {
+        HttpServletResponse first = service(request(null));
+        HttpServletResponse second = service(request(null));
+
+        assertThat(renderCount, is(1));
+        assertImageWritten(first);
+        assertImageWritten(second);
+        verify(second).setDateHeader("Last-Modified", now);
+    }
+
+    @Test
+    public void matchingETagIsNotModified() throws Exception {
+        HttpServletRequest request = request(null);
+        when(request.getHeader("If-None-Match")).thenReturn(ETAG);
+
+        assertNotModified(service(request));
+    }
+
+    @Test
+    public void otherETagIsServed() throws Exception {
+        HttpServletRequest request = request(null);
+        when(request.getHeader("If-None-Match")).thenReturn("\"other\"");
+
+        assertImageWritten(service(request));
+    }
+
+    @Test
+    public void ifModifiedSinceIsCompared() throws Exception {
+        service(request(null));
+
+        HttpServletRequest current = request(null);
+        when(current.getDateHeader("If-Modified-Since")).thenReturn(now);
+        assertNotModified(service(current));
+
+        HttpServletRequest outdated = request(null);
+        when(outdated.getDateHeader("If-Modified-Since")).thenReturn(now - 1000);
+        assertImageWritten(service(outdated));
+    }
+
+    @Test
+    public void chartExpiresAfterThePixelSpan() throws Exception {
+        service(request(null));
+
+        now = 11 * PIXEL_MILLIS - 1;
+        service(request(null));
+        assertThat(renderCount, is(1));
+
+        now = 11 * PIXEL_MILLIS;
+        HttpServletResponse response = service(request(null));
+        assertThat(renderCount, is(2));
+        // the same image keeps its ETag
+        assertImageWritten(response);
+    }
+
+    @Test
+    public void chartExpiresAfterTheStepIfLonger() throws Exception {
+        step = 3600;
+        now = 3600000 + 1000;
+        service(request("item"));
+
+        now = 2 * 3600000 - 1;
+        service(request("item"));
+        assertThat(renderCount, is(1));
+
+        now = 2 * 3600000;
+        service(request("item"));
+        assertThat(renderCount, is(2));
+    }
+
+    @Test
+    public void chartsOfOtherItemsAreCachedSeparately() throws Exception {
+        service(request(null));
+        service(request("item"));
+
+        assertThat(renderCount, is(2));
+    }
+}
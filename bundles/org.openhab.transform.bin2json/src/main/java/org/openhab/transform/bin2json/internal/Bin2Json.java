@@ -14,8 +14,11 @@ package org.openhab.transform.bin2json.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.openhab.core.util.HexUtils;
 import org.slf4j.Logger;
@@ -24,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -66,11 +70,18 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}
  * </pre>
  *
+ * The parser rule is compiled once, so an instance can be reused to convert any number of values. To get the JSON
+ * string only, {@link #convertToString(String)} writes the fields directly without building a {@link JsonObject}.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
 public class Bin2Json {
 
+    // larger buffers are not kept for the next conversion
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(StringWriter::new);
+
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
     private JBBPParser parser;
@@ -137,6 +148,54 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to a JSON string, same as
+     * <code>convert(hexString).toString()</code>.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(String hexString) throws ConversionException {
+        try {
+            return convertToString(HexUtils.hexToBytes(hexString));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Convert byte array to a JSON string, same as <code>convert(data).toString()</code>.
+     *
+     * @param data Data in byte array format.
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(byte[] data) throws ConversionException {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            LocalDateTime start = LocalDateTime.now();
+            final JsonWriter writer = new JsonWriter(buffer);
+            writeStruct(writer, parser.parse(data));
+            writer.flush();
+            final String json = buffer.toString();
+            if (logger.isTraceEnabled()) {
+                Duration duration = Duration.between(start, LocalDateTime.now());
+                logger.trace("Conversion time={}, json={}", duration, json);
+            }
+            return json;
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } finally {
+            if (buffer.getBuffer().capacity() > MAX_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+        }
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
@@ -236,4 +295,123 @@ public class Bin2Json {
         }
         return jsn;
     }
+
+    /**
+     * Writes the fields of a struct as JSON object, like {@link #convertToJSon(JBBPAbstractField)}.
+     */
+    private void writeStruct(final JsonWriter writer, final JBBPFieldStruct struct)
+            throws IOException, ConversionException {
+        final JBBPAbstractField[] fields = struct.getArray();
+        writer.beginObject();
+        if (hasDuplicateNames(fields)) {
+            // like JsonObject.add, the last field of a name is written at the position of the first one
+            final Map<String, JBBPAbstractField> lastFields = new LinkedHashMap<>();
+            for (final JBBPAbstractField f : fields) {
+                lastFields.put(getName(f), f);
+            }
+            for (final Map.Entry<String, JBBPAbstractField> entry : lastFields.entrySet()) {
+                writer.name(entry.getKey());
+                writeValue(writer, entry.getValue());
+            }
+        } else {
+            for (final JBBPAbstractField f : fields) {
+                writer.name(getName(f));
+                writeValue(writer, f);
+            }
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Named fields are unique within a struct, only unnamed fields share the name "nonamed".
+     */
+    private boolean hasDuplicateNames(final JBBPAbstractField[] fields) {
+        boolean unnamed = false;
+        for (final JBBPAbstractField f : fields) {
+            if (f.getFieldName() == null) {
+                if (unnamed) {
+                    return true;
+                }
+                unnamed = true;
+            }
+        }
+        return false;
+    }
+
+    private String getName(final JBBPAbstractField field) {
+        return field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    }
+
+    private void writeValue(final JsonWriter writer, final JBBPAbstractField field)
+            throws IOException, ConversionException {
+        if (field instanceof JBBPAbstractArrayField) {
+            writer.beginArray();
+            if (field instanceof JBBPFieldArrayBit) {
+                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
+                    writer.value(b);
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                // every element is wrapped into an object with the name of the struct
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    writer.beginObject();
+                    writer.name(getName(element));
+                    writeStruct(writer, element);
+                    writer.endObject();
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
+                    writer.value(b & 0xFF);
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
+                    writer.value(b & 0xFFFF);
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            writer.endArray();
+        } else if (field instanceof JBBPFieldBit) {
+            writer.value(((JBBPFieldBit) field).getAsInt());
+        } else if (field instanceof JBBPFieldBoolean) {
+            writer.value(((JBBPFieldBoolean) field).getAsBool());
+        } else if (field instanceof JBBPFieldByte) {
+            writer.value(((JBBPFieldByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldInt) {
+            writer.value(((JBBPFieldInt) field).getAsInt());
+        } else if (field instanceof JBBPFieldLong) {
+            writer.value(((JBBPFieldLong) field).getAsLong());
+        } else if (field instanceof JBBPFieldShort) {
+            writer.value(((JBBPFieldShort) field).getAsInt());
+        } else if (field instanceof JBBPFieldStruct) {
+            writeStruct(writer, (JBBPFieldStruct) field);
+        } else if (field instanceof JBBPFieldUByte) {
+            writer.value(((JBBPFieldUByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldUShort) {
+            writer.value(((JBBPFieldUShort) field).getAsInt());
+        } else {
+            throw new ConversionException(String.format("Unexpected field '%s'", field));
+        }
+    }
 }
@@ -12,6 +12,9 @@
  */
 package org.openhab.transform.bin2json.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
@@ -24,14 +27,28 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * hexa string formatted binary data by Binary Block Parser syntax to JSON format.
  *
+ * The compiled parsers of the most recently used syntaxes are cached.
+ *
  * @author Pauli Anttila - Initial contribution
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=BIN2JSON" })
 public class Bin2JsonTransformationService implements TransformationService {
 
+    // number of compiled parsers kept, least recently used ones are compiled again
+    static final int MAX_CACHED_PARSERS = 64;
+
     private Logger logger = LoggerFactory.getLogger(Bin2JsonTransformationService.class);
 
+    private final Map<String, Bin2Json> parserCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bin2Json> eldest) {
+            return size() > MAX_CACHED_PARSERS;
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by Java Binary Block Parser syntax.
      *
@@ -46,7 +63,7 @@ public class Bin2JsonTransformationService implements TransformationService {
         String result = "";
 
         try {
-            result = String.valueOf(new Bin2Json(syntax).convert(source));
+            result = getParser(syntax).convertToString(source);
             logger.debug("transformation resulted '{}'", result);
             return result;
         } catch (ConversionException e) {
@@ -56,4 +73,19 @@ public class Bin2JsonTransformationService implements TransformationService {
                     result);
         }
     }
+
+    private Bin2Json getParser(String syntax) throws ConversionException {
+        synchronized (parserCache) {
+            Bin2Json parser = parserCache.get(syntax);
+            if (parser != null) {
+                return parser;
+            }
+        }
+        // invalid syntaxes are not cached, the exception is thrown again for every value
+        Bin2Json parser = new Bin2Json(syntax);
+        synchronized (parserCache) {
+            parserCache.put(syntax, parser);
+        }
+        return parser;
+    }
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link Bin2Json#convertToString(String)} writes the same JSON as {@link Bin2Json#convert(String)}.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class Bin2JsonTest {
+
+    private String assertSameJson(String parserRule, String hexString) throws ConversionException {
+        Bin2Json bin2json = new Bin2Json(parserRule);
+        String expected = bin2json.convert(hexString).toString();
+        assertThat(bin2json.convertToString(hexString), is(expected));
+        return expected;
+    }
+
+    @Test
+    public void namedFields() throws ConversionException {
+        assertThat(assertSameJson("byte a; byte b; ubyte c;", "03FAFF"), is("{\"a\":3,\"b\":-6,\"c\":255}"));
+    }
+
+    @Test
+    public void allFieldTypes() throws ConversionException {
+        assertSameJson("bit:4 a; bit:4 b; bool c; byte d; ubyte e; short f; ushort g; int h; long i;",
+                "A501FF80FFFF00000102030405060708090A0B0C");
+    }
+
+    @Test
+    public void unnamedFieldsKeepTheLastValue() throws ConversionException {
+        assertThat(assertSameJson("byte; byte a; ubyte;", "0102FF"), is("{\"nonamed\":255,\"a\":2}"));
+    }
+
+    @Test
+    public void unnamedFieldsOfDifferentTypes() throws ConversionException {
+        assertSameJson("byte[2]; byte a; { byte b; } ubyte;", "01020304FF");
+        assertSameJson("ubyte; byte a; byte[2];", "FF020304");
+    }
+
+    @Test
+    public void arrays() throws ConversionException {
+        assertThat(assertSameJson("byte[2] a; ubyte[2] b; bool[1] c; short[1] d; ushort[1] e;", "01FFFFFE01FFFEFFFE"),
+                is("{\"a\":[1,-1],\"b\":[255,254],\"c\":[true],\"d\":[-2],\"e\":[65534]}"));
+        assertSameJson("int[1] b; long[1] c;", "0000000100000000000000FF");
+    }
+
+    @Test
+    public void nestedStructs() throws ConversionException {
+        assertThat(assertSameJson("byte a; inner { byte b; deep { ubyte c; } }", "0102FF"),
+                is("{\"a\":1,\"inner\":{\"b\":2,\"deep\":{\"c\":255}}}"));
+    }
+
+    @Test
+    public void arrayOfStructs() throws ConversionException {
+        assertSameJson("byte n; s[n] { byte x; ubyte y; }", "020102FFFE");
+        assertSameJson("s[2] { byte; ubyte; }", "0102FFFE");
+    }
+}
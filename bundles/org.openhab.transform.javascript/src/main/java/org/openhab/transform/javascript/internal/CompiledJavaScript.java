@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A compiled JavaScript file, which can be evaluated by concurrent threads. Every evaluation gets new bindings, i.e. a
+ * global scope of its own, so global variables of a script are neither shared between concurrent transformations nor
+ * kept for later ones.
+ *
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class CompiledJavaScript {
+
+    private final CompiledScript script;
+
+    /**
+     * @param script the compiled script
+     */
+    public CompiledJavaScript(CompiledScript script) {
+        this.script = script;
+    }
+
+    /**
+     * Evaluates the script with the given input in the 'input' variable.
+     *
+     * @param input the input of the transformation
+     * @return the result of the script
+     * @throws ScriptException if the evaluation failed
+     */
+    public @Nullable Object eval(String input) throws ScriptException {
+        Bindings bindings = script.getEngine().createBindings();
+        bindings.put("input", input);
+        return script.eval(bindings);
+    }
+}
@@ -21,7 +21,6 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.Compilable;
-import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
@@ -33,7 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple cache for compiled JavaScript files.
+ * Simple cache for compiled JavaScript files. Looking up a cached file does not take a lock.
  *
  * @author Thomas Kordelle - Initial contribution
  * @author Thomas Kordelle - pre compiled scripts
@@ -44,38 +43,34 @@ public class JavaScriptEngineManager {
 
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, CompiledJavaScript> compiledScriptMap = new ConcurrentHashMap<>();
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
+     * Get a pre compiled script {@link CompiledJavaScript} from cache. If it is not in the cache, then load it from
      * storage and put a pre compiled version into the cache.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return a pre compiled script {@link CompiledJavaScript}
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            CompiledScript compiledScript = compiledScriptMap.get(filename);
-            if (compiledScript != null) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScript;
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
-            }
+    protected CompiledJavaScript getScript(final String filename) throws TransformationException {
+        CompiledJavaScript compiledScript = compiledScriptMap.get(filename);
+        if (compiledScript != null) {
+            logger.trace("Loading JavaScript {} from cache.", filename);
+            return compiledScript;
         }
+        final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+        logger.debug("Loading script {} from storage ", path);
+        try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
+            final ScriptEngine engine = manager.getEngineByName("javascript");
+            compiledScript = new CompiledJavaScript(((Compilable) engine).compile(reader));
+        } catch (IOException | ScriptException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+        }
+        logger.debug("Putting compiled JavaScript {} to cache.", filename);
+        // a concurrent caller may have compiled the file too, use the first one
+        CompiledJavaScript cached = compiledScriptMap.putIfAbsent(filename, compiledScript);
+        return cached != null ? cached : compiledScript;
     }
 
     /**
@@ -21,8 +21,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
 
-import javax.script.Bindings;
-import javax.script.CompiledScript;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -86,10 +84,7 @@ public class JavaScriptTransformationService implements TransformationService, C
         String result = "";
 
         try {
-            final CompiledScript cScript = manager.getScript(filename);
-            final Bindings bindings = cScript.getEngine().createBindings();
-            bindings.put("input", source);
-            result = String.valueOf(cScript.eval(bindings));
+            result = String.valueOf(manager.getScript(filename).eval(source));
             return result;
         } catch (ScriptException e) {
             throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
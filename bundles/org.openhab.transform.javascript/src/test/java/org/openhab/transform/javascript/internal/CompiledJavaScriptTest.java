@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import javax.script.Compilable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jan Moeller - Initial contribution
+ */
+@NonNullByDefault
+public class CompiledJavaScriptTest {
+
+    private CompiledJavaScript compile(String script) throws ScriptException {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
+        assumeTrue(engine != null, "no JavaScript engine available");
+        return new CompiledJavaScript(((Compilable) engine).compile(script));
+    }
+
+    @Test
+    public void evalReturnsTheResultForTheInput() throws ScriptException {
+        CompiledJavaScript script = compile("input.toUpperCase()");
+
+        assertThat(String.valueOf(script.eval("abc")), is("ABC"));
+        assertThat(String.valueOf(script.eval("def")), is("DEF"));
+    }
+
+    @Test
+    public void globalVariablesAreNotKeptBetweenCalls() throws ScriptException {
+        CompiledJavaScript script = compile(
+                "var previous = typeof last === 'undefined' ? 'none' : last; last = input; previous");
+
+        assertThat(String.valueOf(script.eval("first")), is("none"));
+        assertThat(String.valueOf(script.eval("second")), is("none"));
+    }
+}
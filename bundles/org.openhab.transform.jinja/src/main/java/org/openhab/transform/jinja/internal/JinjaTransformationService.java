@@ -13,12 +13,16 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -32,12 +36,21 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
 import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
 import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpreterException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * Templates are parsed once and the parsed trees are cached. The JSON value is parsed into a tree, whose fields are
+ * only converted when a template reads them.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -45,11 +58,25 @@ import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    // number of parsed templates kept, least recently used ones are parsed again
+    static final int MAX_CACHED_TEMPLATES = 256;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private final JinjavaConfig config = JinjavaConfig.newBuilder().withFailOnUnknownTokens(true).build();
     private final Jinjava jinjava = new Jinjava(config);
 
+    private final Map<String, Node> templateCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+            return size() > MAX_CACHED_TEMPLATES;
+        }
+    };
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -67,14 +94,14 @@ public class JinjaTransformationService implements TransformationService {
         bindings.put("value", value);
 
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
+            JsonNode tree = OBJECT_MAPPER.readTree(value);
             bindings.put("value_json", toObject(tree));
         } catch (IOException e) {
             // ok, then value_json is null...
         }
 
         try {
-            transformationResult = jinjava.render(template, bindings);
+            transformationResult = render(template, bindings);
         } catch (FatalTemplateErrorsException e) {
             throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
         }
@@ -84,26 +111,55 @@ public class JinjaTransformationService implements TransformationService {
         return transformationResult;
     }
 
-    private static @Nullable Object toObject(JsonNode node) {
-        switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
+    /**
+     * Renders the template like {@link Jinjava#render(String, Map)}, but with the cached tree of the template.
+     *
+     * @throws FatalTemplateErrorsException if the template could not be parsed or rendered
+     */
+    private String render(String template, Map<String, @Nullable Object> bindings) {
+        Context context = new Context(jinjava.getGlobalContext(), bindings, config.getDisabled());
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, config);
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            Node root;
+            synchronized (templateCache) {
+                root = templateCache.get(template);
+            }
+            if (root == null) {
+                root = interpreter.parse(template);
+                // trees of templates with syntax errors are not cached, so the errors are reported every time
+                if (interpreter.getErrors().isEmpty()) {
+                    synchronized (templateCache) {
+                        templateCache.put(template, root);
+                    }
                 }
-                return result;
             }
+            String result;
+            try {
+                result = interpreter.render(root);
+            } catch (InterpreterException e) {
+                interpreter.addError(TemplateError.fromException(e));
+                result = "";
+            }
+            List<TemplateError> fatalErrors = interpreter.getErrors().stream()
+                    .filter(error -> error.getSeverity() == ErrorType.FATAL).collect(Collectors.toList());
+            if (!fatalErrors.isEmpty()) {
+                throw new FatalTemplateErrorsException(template, fatalErrors);
+            }
+            return result;
+        } finally {
+            JinjavaInterpreter.popCurrent();
+        }
+    }
+
+    private static @Nullable Object toObject(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                return new JsonArrayList(node);
             case NUMBER:
                 return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
-                }
-                return result;
-            }
+            case OBJECT:
+                return new JsonObjectMap(node);
             case STRING:
                 return node.asText();
             case BOOLEAN:
@@ -113,4 +169,103 @@ public class JinjaTransformationService implements TransformationService {
                 return null;
         }
     }
+
+    /**
+     * Read-only view of a JSON object, which converts a field when it is read for the first time
+     */
+    private static class JsonObjectMap extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+        private final Map<String, @Nullable Object> converted = new HashMap<>();
+
+        private JsonObjectMap(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            String name = (String) key;
+            if (converted.containsKey(name)) {
+                return converted.get(name);
+            }
+            JsonNode field = node.get(name);
+            if (field == null) {
+                return null;
+            }
+            Object value = toObject(field);
+            converted.put(name, value);
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, @Nullable Object>> iterator() {
+                    Iterator<String> names = node.fieldNames();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, @Nullable Object> next() {
+                            String name = names.next();
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Read-only view of a JSON array, which converts an element when it is read for the first time
+     */
+    private static class JsonArrayList extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+        private final @Nullable Object[] converted;
+        private final boolean[] isConverted;
+
+        private JsonArrayList(JsonNode node) {
+            this.node = node;
+            this.converted = new Object[node.size()];
+            this.isConverted = new boolean[node.size()];
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= converted.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + converted.length);
+            }
+            if (!isConverted[index]) {
+                converted[index] = toObject(node.get(index));
+                isConverted[index] = true;
+            }
+            return converted[index];
+        }
+
+        @Override
+        public int size() {
+            return converted.length;
+        }
+    }
 }
@@ -115,4 +115,39 @@ public class JinjaTransformationServiceTest {
         // then map key is defined
         assertEquals("true", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+        String template = "{{ value_json.temperature }} {{ value_json.unit }}";
+
+        // when rendering the same template for several values
+        String first = processor.transform(template, "{\"temperature\": 21.5, \"unit\": \"C\"}");
+        String second = processor.transform(template, "{\"temperature\": 70.7, \"unit\": \"F\"}");
+
+        // then every value is rendered
+        assertEquals("21.5 C", first);
+        assertEquals("70.7 F", second);
+    }
+
+    @Test
+    public void testCachedTemplateErrorIsReportedAgain() {
+        // when rendering a broken template twice
+        assertThrows(TransformationException.class, () -> processor.transform("Hello {{{ value }}!", "world"));
+
+        // then the error is reported again
+        assertThrows(TransformationException.class, () -> processor.transform("Hello {{{ value }}!", "world"));
+    }
+
+    @Test
+    public void testNestedArrayAccess() throws TransformationException {
+        String json = "{\"sensors\": [{\"name\": \"a\", \"value\": 1}, {\"name\": \"b\", \"value\": 2}]}";
+
+        // when reading nested objects and arrays
+        String transformedResponse = processor.transform(
+                "{{ value_json.sensors|length }}:{% for s in value_json.sensors %}{{ s.name }}={{ s.value }};{% endfor %}",
+                json);
+
+        // then the elements are converted when they are read
+        assertEquals("2:a=1;b=2;", transformedResponse);
+    }
 }
@@ -12,7 +12,10 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +27,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -41,8 +45,24 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(property = { "openhab.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    // number of recently transformed documents kept parsed, e.g. one message read by several channels
+    static final int MAX_CACHED_DOCUMENTS = 16;
+    // an expression per channel is expected, the cache is reset if there are more
+    static final int MAX_CACHED_PATHS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> pathCache = new ConcurrentHashMap<>();
+    private final Map<String, DocumentContext> documentCache = new LinkedHashMap<>(MAX_CACHED_DOCUMENTS, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DocumentContext> eldest) {
+            return size() > MAX_CACHED_DOCUMENTS;
+        }
+    };
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +80,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = getDocument(source).read(getPath(jsonPathExpression));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +96,36 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath getPath(String jsonPathExpression) {
+        JsonPath path = pathCache.get(jsonPathExpression);
+        if (path == null) {
+            if (pathCache.size() >= MAX_CACHED_PATHS) {
+                pathCache.clear();
+            }
+            path = JsonPath.compile(jsonPathExpression);
+            pathCache.put(jsonPathExpression, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the parsed document. Documents are only read, so the cached ones can be shared between threads.
+     */
+    private DocumentContext getDocument(String source) {
+        // the lookup compares the references first, the same message given to several channels is found quickly
+        synchronized (documentCache) {
+            DocumentContext document = documentCache.get(source);
+            if (document != null) {
+                return document;
+            }
+        }
+        DocumentContext document = JsonPath.parse(source);
+        synchronized (documentCache) {
+            documentCache.put(source, document);
+        }
+        return document;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
@@ -127,4 +127,36 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSeveralPathsOfOneDocument() throws TransformationException {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 40; i++) {
+            json.append(i == 0 ? "" : ",").append("\"field").append(i).append("\":").append(i * 10);
+        }
+        String source = json.append("}").toString();
+        for (int i = 0; i < 40; i++) {
+            assertEquals(String.valueOf(i * 10), processor.transform("$.field" + i, source));
+        }
+    }
+
+    @Test
+    public void testChangedDocumentWithSamePath() throws TransformationException {
+        assertEquals("1", processor.transform("$.value", "{\"value\":1}"));
+        assertEquals("2", processor.transform("$.value", "{\"value\":2}"));
+        assertEquals("1", processor.transform("$.value", "{\"value\":1}"));
+    }
+
+    @Test
+    public void testInvalidJsonIsNotCached() {
+        assertThrows(TransformationException.class, () -> processor.transform("$", "{id:"));
+        assertThrows(TransformationException.class, () -> processor.transform("$", "{id:"));
+    }
+
+    @Test
+    public void testInvalidPathIsNotCached() throws TransformationException {
+        assertThrows(TransformationException.class, () -> processor.transform("$$", jsonArray));
+        assertThrows(TransformationException.class, () -> processor.transform("$$", jsonArray));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+    }
 }
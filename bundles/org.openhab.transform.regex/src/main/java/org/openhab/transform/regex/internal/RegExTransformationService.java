@@ -12,6 +12,8 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,10 +38,22 @@ import org.slf4j.LoggerFactory;
 @Component(property = { "openhab.transform=REGEX" })
 public class RegExTransformationService implements TransformationService {
 
+    // number of compiled expressions kept, least recently used ones are compiled again
+    static final int MAX_CACHED_EXPRESSIONS = 256;
+
     private final Logger logger = LoggerFactory.getLogger(RegExTransformationService.class);
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private final Map<String, CompiledExpression> expressionCache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+            return size() > MAX_CACHED_EXPRESSIONS;
+        }
+    };
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -48,50 +62,86 @@ public class RegExTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
 
-        String result = "";
+        CompiledExpression expression = getCompiledExpression(regExpression);
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        String substitution = expression.substitution;
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = expression.pattern.matcher(source.trim());
+            if (expression.global) {
+                return substMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
+                return substMatcher.replaceFirst(substitution);
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        // match within the bounds of the trimmed source, without copying it
+        int start = 0;
+        int end = source.length();
+        while (start < end && source.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        Matcher matcher = expression.pattern.matcher(source).region(start, end);
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
                     regExpression, source);
             return null;
         }
-        matcher.reset();
-
-        while (matcher.find()) {
-            if (matcher.groupCount() == 0) {
-                logger.info(
-                        "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
-                        regExpression);
-                continue;
-            }
 
-            result = matcher.group(1);
+        // the expression is anchored at both ends, so there is exactly one match
+        if (matcher.groupCount() == 0) {
+            logger.info(
+                    "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
+                    regExpression);
+            return "";
+        }
+        if (matcher.groupCount() > 1) {
+            logger.debug(
+                    "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
+                    regExpression);
+        }
+        return matcher.group(1);
+    }
 
-            if (matcher.groupCount() > 1) {
-                logger.debug(
-                        "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
-                        regExpression);
+    private CompiledExpression getCompiledExpression(String regExpression) {
+        synchronized (expressionCache) {
+            CompiledExpression expression = expressionCache.get(regExpression);
+            if (expression != null) {
+                return expression;
             }
         }
+        CompiledExpression expression;
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            expression = new CompiledExpression(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                    substMatcher.group(3).equals("g"));
+        } else {
+            expression = new CompiledExpression(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null,
+                    false);
+        }
+        synchronized (expressionCache) {
+            expressionCache.put(regExpression, expression);
+        }
+        return expression;
+    }
 
-        return result;
+    /**
+     * A compiled expression, either of the match form or, if it has a substitution, of the substitution form.
+     * Patterns are thread safe, so compiled expressions can be shared.
+     */
+    private static class CompiledExpression {
+        private final Pattern pattern;
+        private final @Nullable String substitution;
+        private final boolean global;
+
+        private CompiledExpression(Pattern pattern, @Nullable String substitution, boolean global) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+        }
     }
 }
@@ -75,4 +75,20 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_trimmedSource() throws TransformationException {
+        assertEquals("21.5", processor.transform("TEMP=(.*)", "  TEMP=21.5\r\n"));
+        assertEquals("21.5", processor.transform("TEMP=(.*)", "TEMP=21.5"));
+        assertNull(processor.transform("TEMP=(.*)", "HUM=40\r\n"));
+    }
+
+    @Test
+    public void testTransformByRegex_cachedExpressions() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("SetMode(42)", processor.transform("s/^OP:(.*?),ARG:(.*)$/$1($2)/", "OP:SetMode,ARG:42"));
+            assertEquals("varX=12 varY=54 ", processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "X12,Y54"));
+            assertEquals("42", processor.transform("OP:.*?,ARG:(.*)", "OP:SetMode,ARG:42"));
+        }
+    }
 }
@@ -13,12 +13,18 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -26,6 +32,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -35,14 +42,32 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * Neither document builders nor compiled expressions are thread safe, so each transformation borrows a document
+ * builder and its compiled expressions from a small pool. The pool is cleared on deactivation, so no thread keeps
+ * references into this bundle.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    // compiled expressions kept per pooled context
+    static final int MAX_CACHED_EXPRESSIONS = 100;
+    // idle contexts kept for reuse, more concurrent transformations create short-lived contexts
+    static final int MAX_POOLED_CONTEXTS = 8;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final DocumentBuilderFactory domFactory = createDocumentBuilderFactory();
+    private final XPathFactory xpathFactory = XPathFactory.newInstance();
+    private final BlockingQueue<TransformationContext> contexts = new ArrayBlockingQueue<>(MAX_POOLED_CONTEXTS);
+
+    @Deactivate
+    protected void deactivate() {
+        contexts.clear();
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -52,27 +77,23 @@ public class XPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
         StringReader stringReader = null;
+        TransformationContext context = null;
 
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
-            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            domFactory.setXIncludeAware(false);
-            domFactory.setExpandEntityReferences(false);
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            context = borrowContext();
 
             stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            Document doc;
+            try {
+                doc = context.builder.parse(inputSource);
+            } finally {
+                context.builder.reset();
+            }
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = context.getExpression(xpathExpression);
 
             String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -85,6 +106,71 @@ public class XPathTransformationService implements TransformationService {
             if (stringReader != null) {
                 stringReader.close();
             }
+            if (context != null) {
+                // dropped if the pool is full
+                contexts.offer(context);
+            }
+        }
+    }
+
+    private TransformationContext borrowContext() throws ParserConfigurationException {
+        TransformationContext context = contexts.poll();
+        if (context == null) {
+            DocumentBuilder builder;
+            // the factory is not thread safe
+            synchronized (domFactory) {
+                builder = domFactory.newDocumentBuilder();
+            }
+            XPath xpath;
+            synchronized (xpathFactory) {
+                xpath = xpathFactory.newXPath();
+            }
+            context = new TransformationContext(builder, xpath);
+        }
+        return context;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        try {
+            // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
+            domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            domFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            domFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML parser does not support disabling external entities", e);
+        }
+        domFactory.setXIncludeAware(false);
+        domFactory.setExpandEntityReferences(false);
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+        return domFactory;
+    }
+
+    private static class TransformationContext {
+        private final DocumentBuilder builder;
+        private final XPath xpath;
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                return size() > MAX_CACHED_EXPRESSIONS;
+            }
+        };
+
+        private TransformationContext(DocumentBuilder builder, XPath xpath) {
+            this.builder = builder;
+            this.xpath = xpath;
+        }
+
+        private XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expression = expressions.get(xpathExpression);
+            if (expression == null) {
+                expression = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expression);
+            }
+            return expression;
         }
     }
 }
@@ -38,4 +38,30 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformWithCachedExpressions() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test
+    public void testInvalidXmlDoesNotBreakLaterTransforms() throws TransformationException {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("//current_conditions/temp_c/@data", "<xml_api_reply"));
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+    }
+
+    @Test
+    public void testTransformAfterDeactivate() throws TransformationException {
+        assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source));
+        processor.deactivate();
+        assertEquals("46", processor.transform("//current_conditions/temp_f/@data", source));
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        assertThrows(TransformationException.class, () -> processor.transform("//[", source));
+    }
 }
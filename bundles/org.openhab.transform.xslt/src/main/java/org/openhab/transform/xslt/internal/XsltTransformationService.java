@@ -16,15 +16,15 @@ import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
 
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.openhab.core.OpenHAB;
+import org.openhab.core.transform.AbstractFileTransformationService;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Component;
@@ -35,14 +35,19 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * The stylesheets are compiled once into {@link Templates}, which are cached per file and reloaded when the file
+ * changes.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=XSLT" })
-public class XsltTransformationService implements TransformationService {
+@Component(service = TransformationService.class, property = { "openhab.transform=XSLT" })
+public class XsltTransformationService extends AbstractFileTransformationService<Templates> {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -50,39 +55,19 @@ public class XsltTransformationService implements TransformationService {
      * is stored under the 'configurations/transform' folder. To organize the
      * various transformations one should use subfolders.
      *
-     * @param filename the name of the file which contains the XSLT transformation rule.
-     *            The name may contain subfoldernames as well
+     * @param templates the compiled XSLT transformation rule
      * @param source the input to transform
      */
     @Override
-    public @Nullable String transform(String filename, String source) throws TransformationException {
-        if (filename == null || source == null) {
-            throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
-        }
-
-        Source xsl = null;
-
-        try {
-            String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
-                    + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error("{}", message, e);
-            throw new TransformationException(message, e);
-        }
-
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+    protected @Nullable String internalTransform(Templates templates, String source) throws TransformationException {
+        logger.debug("about to transform '{}' by the function '{}'", source, templates);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
+            // templates are thread safe, transformers are not
+            templates.newTransformer().transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
@@ -92,4 +77,18 @@ public class XsltTransformationService implements TransformationService {
 
         return out.toString();
     }
+
+    @Override
+    protected Templates internalLoadTransform(String filename) throws TransformationException {
+        try {
+            synchronized (transformerFactory) {
+                return transformerFactory.newTemplates(new StreamSource(new File(filename)));
+            }
+        } catch (TransformerConfigurationException e) {
+            String message = "opening file '" + filename + "' throws exception";
+
+            logger.error("{}", message, e);
+            throw new TransformationException(message, e);
+        }
+    }
 }
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -616,6 +617,40 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         // no datetime, conversion not possible without transformation
     }
 
+    @Test
+    public void testOnRegistersUnchangedDataIsNotTransformedAgain() {
+        AtomicInteger transformations = new AtomicInteger();
+        mockTransformation("COUNT", new TransformationService() {
+            @Override
+            public String transform(String function, String source) throws TransformationException {
+                transformations.incrementAndGet();
+                return source;
+            }
+        });
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "COUNT(x)", ModbusConstants.ValueType.INT16, null,
+                new ModbusRegisterArray(new byte[] { (byte) 0x00, (byte) 0x05 }), null, bundleContext);
+        assertSingleStateUpdate(dataHandler, CHANNEL_NUMBER, new DecimalType(5));
+        int transformationsOfFirstPoll = transformations.get();
+        assertThat(transformationsOfFirstPoll, is(not(equalTo(0))));
+
+        // same data again: not transformed, last read success still updated
+        dataHandler.onReadResult(new AsyncModbusReadResult(Mockito.mock(ModbusReadRequestBlueprint.class),
+                new ModbusRegisterArray(new byte[] { (byte) 0x00, (byte) 0x05 })));
+        assertEquals(transformationsOfFirstPoll, transformations.get());
+        waitForAssert(() -> {
+            List<State> updates = getStateUpdates(
+                    getItemName(new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_LAST_READ_SUCCESS)));
+            assertNotNull(updates);
+            assertEquals(2, updates.size());
+        });
+
+        // changed data is transformed
+        dataHandler.onReadResult(new AsyncModbusReadResult(Mockito.mock(ModbusReadRequestBlueprint.class),
+                new ModbusRegisterArray(new byte[] { (byte) 0x00, (byte) 0x06 })));
+        assertEquals(2 * transformationsOfFirstPoll, transformations.get());
+    }
+
     @Test
     public void testOnRegistersNaNFloatInRegisters() throws InvalidSyntaxException {
         ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,